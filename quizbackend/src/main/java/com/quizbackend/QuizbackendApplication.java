@@ -2,8 +2,10 @@ package com.quizbackend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class QuizbackendApplication {
     public static void main(String[] args) {
         SpringApplication.run(QuizbackendApplication.class, args);
@@ -3,6 +3,8 @@ package com.quizbackend.config;
 import com.quizbackend.entity.*;
 import com.quizbackend.repository.*;
 import com.quizbackend.service.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -13,6 +15,8 @@ import java.math.BigDecimal;
 @Component
 public class DataInitializer implements CommandLineRunner {
 
+    private static final Logger logger = LoggerFactory.getLogger(DataInitializer.class);
+
     @Autowired
     private UserRepository userRepository;
 
@@ -35,6 +39,7 @@ public class DataInitializer implements CommandLineRunner {
     public void run(String... args) throws Exception {
         initializeAdmin();
         initializeSubscriptions();
+        backfillReclamationPriorityRanks();
     }
 
     private void initializeAdmin() {
@@ -50,7 +55,7 @@ public class DataInitializer implements CommandLineRunner {
                 adminService.createAdmin(savedUser, "System", "Administrator");
             }
         } catch (Exception e) {
-            System.out.println("Could not initialize admin user: " + e.getMessage());
+            logger.warn("Could not initialize admin user: {}", e.getMessage());
         }
     }
 
@@ -67,7 +72,18 @@ public class DataInitializer implements CommandLineRunner {
                 subscriptionService.createSubscription("VIP", new BigDecimal("19.99"), 30);
             }
         } catch (Exception e) {
-            System.out.println("Could not initialize subscriptions: " + e.getMessage());
+            logger.warn("Could not initialize subscriptions: {}", e.getMessage());
+        }
+    }
+
+    private void backfillReclamationPriorityRanks() {
+        try {
+            int updated = adminService.backfillReclamationPriorityRanks();
+            if (updated > 0) {
+                logger.info("Ranked {} reclamations stored without a priority rank", updated);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not backfill reclamation priority ranks: {}", e.getMessage());
         }
     }
 }
@@ -0,0 +1,499 @@
+package com.quizbackend.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Continuous Java Flight Recorder session over a rolling window (profiling.window), with the
+ * JDK's low-overhead "default" settings. A dump copies the last N minutes of the recording to
+ * profiling.dump-dir and summarizes it: hottest methods from execution samples, allocation
+ * sites weighted by sampled bytes, and contended monitors and locks. Dumps are bookmarked
+ * (the newest profiling.max-dumps are kept) and served from /admin/system/profiling; they are
+ * all taken on one background thread, and files left by a previous run are deleted at startup.
+ *
+ * As the outermost servlet filter it also times every request, security chain included, into a
+ * SlowRequestEvent; requests over profiling.slow-request-threshold are committed to the recording,
+ * which tags them on its timeline, and trigger a background dump, at most one per
+ * profiling.auto-dump.cooldown.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class FlightRecorderMonitor extends OncePerRequestFilter {
+
+    private record Dump(int id, LocalDateTime createdAt, String reason, String route, Long requestMillis,
+                        int minutes, long bytes, Path file, Map<String, Object> summary) {
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecorderMonitor.class);
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    @Value("${profiling.enabled:true}")
+    private boolean enabled;
+
+    @Value("${profiling.settings:default}")
+    private String settings;
+
+    @Value("${profiling.window:15m}")
+    private Duration window;
+
+    @Value("${profiling.max-size:200MB}")
+    private DataSize maxSize;
+
+    @Value("${profiling.slow-request-threshold:2s}")
+    private Duration slowRequestThreshold;
+
+    @Value("${profiling.auto-dump.minutes:2}")
+    private int autoDumpMinutes;
+
+    @Value("${profiling.auto-dump.cooldown:5m}")
+    private Duration autoDumpCooldown;
+
+    @Value("${profiling.dump-dir:${java.io.tmpdir}/quizbackend-jfr}")
+    private String dumpDir;
+
+    @Value("${profiling.max-dumps:20}")
+    private int maxDumps;
+
+    // Rows per section in the summaries of automatic dumps
+    @Value("${profiling.summary.top:10}")
+    private int summaryTop;
+
+    private volatile Recording recording;
+
+    private final ExecutorService dumper = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "jfr-dump");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Newest first
+    private final Deque<Dump> dumps = new ArrayDeque<>();
+    private final AtomicInteger dumpIds = new AtomicInteger();
+    private final AtomicLong nextAutoDumpAt = new AtomicLong();
+
+    private final LongAdder slowRequests = new LongAdder();
+    private final LongAdder autoDumps = new LongAdder();
+    private final LongAdder autoDumpsSkipped = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            logger.info("Continuous JFR recording disabled");
+            return;
+        }
+        if (!FlightRecorder.isAvailable()) {
+            logger.warn("Java Flight Recorder is not available on this JVM, continuous profiling disabled");
+            return;
+        }
+        try {
+            Files.createDirectories(Paths.get(dumpDir));
+            pruneOrphanedDumps();
+            FlightRecorder.register(SlowRequestEvent.class);
+            Recording continuous = new Recording(Configuration.getConfiguration(settings));
+            continuous.setName("quizbackend-continuous");
+            continuous.setToDisk(true);
+            continuous.setMaxAge(window);
+            continuous.setMaxSize(maxSize.toBytes());
+            continuous.enable(SlowRequestEvent.class).withThreshold(slowRequestThreshold).withoutStackTrace();
+            continuous.start();
+            recording = continuous;
+            logger.info("Continuous JFR recording started: settings={}, window={}, slow requests over {}",
+                    settings, window, slowRequestThreshold);
+        } catch (IOException | ParseException | RuntimeException e) {
+            logger.warn("Could not start continuous JFR recording: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        dumper.shutdownNow();
+        Recording continuous = recording;
+        recording = null;
+        if (continuous != null) {
+            continuous.close();
+        }
+    }
+
+    // Async and error re-dispatches are skipped by OncePerRequestFilter: the end of a stream
+    // is not request latency
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (recording == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        SlowRequestEvent event = new SlowRequestEvent();
+        long startedAt = System.nanoTime();
+        event.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // Streams (SSE, exports) stay open by design
+            if (!request.isAsyncStarted()) {
+                event.end();
+                // Only true past the threshold the recording enabled the event with
+                if (event.shouldCommit()) {
+                    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                    event.route = request.getMethod() + " " + (pattern != null ? pattern : "unmatched");
+                    event.status = response.getStatus();
+                    event.commit();
+                    slowRequests.increment();
+                    bookmarkSlowRequest(event.route, (System.nanoTime() - startedAt) / 1_000_000);
+                }
+            }
+        }
+    }
+
+    private void bookmarkSlowRequest(String route, long millis) {
+        long now = System.currentTimeMillis();
+        long next = nextAutoDumpAt.get();
+        if (now < next || !nextAutoDumpAt.compareAndSet(next, now + autoDumpCooldown.toMillis())) {
+            autoDumpsSkipped.increment();
+            logger.warn("Slow request: {} took {} ms (JFR dump skipped, cooling down)", route, millis);
+            return;
+        }
+        try {
+            dumper.execute(() -> {
+                try {
+                    Dump dump = dump("slow-request", route, millis, autoDumpMinutes, summaryTop);
+                    autoDumps.increment();
+                    logger.warn("Slow request: {} took {} ms, JFR dump {} bookmarked ({})",
+                            route, millis, dump.id(), dump.file().getFileName());
+                } catch (Exception e) {
+                    logger.warn("Could not dump JFR recording after slow request {}: {}", route, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+        }
+    }
+
+    /**
+     * Dumps the last minutes of the recording and returns the bookmark with its summary. Waits for
+     * the dump thread, so concurrent calls and automatic dumps run one after the other.
+     */
+    public Map<String, Object> dump(int minutes, int limit) throws IOException {
+        Future<Dump> pending;
+        try {
+            pending = dumper.submit(() -> dump("manual", null, null, minutes, limit));
+        } catch (RejectedExecutionException e) {
+            throw new RuntimeException("Continuous JFR recording is shutting down");
+        }
+        try {
+            return describe(pending.get(), true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the JFR dump");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    public Map<String, Object> getDump(int id) {
+        return describe(findDump(id), true);
+    }
+
+    public Path getDumpFile(int id) {
+        return findDump(id).file();
+    }
+
+    public Map<String, Object> snapshot() {
+        Recording continuous = recording;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("recording", continuous != null ? continuous.getState().name() : "DISABLED");
+        stats.put("settings", settings);
+        stats.put("window", window.toString());
+        stats.put("sizeBytes", continuous != null ? continuous.getSize() : 0);
+        stats.put("slowRequestThreshold", slowRequestThreshold.toString());
+        stats.put("autoDumpCooldown", autoDumpCooldown.toString());
+        stats.put("slowRequests", slowRequests.sum());
+        stats.put("autoDumps", autoDumps.sum());
+        stats.put("autoDumpsSkipped", autoDumpsSkipped.sum());
+        List<Map<String, Object>> bookmarks = new ArrayList<>();
+        synchronized (dumps) {
+            dumps.forEach(dump -> bookmarks.add(describe(dump, false)));
+        }
+        stats.put("dumps", bookmarks);
+        return stats;
+    }
+
+    private Dump dump(String reason, String route, Long requestMillis, int minutes, int limit) throws IOException {
+        if (recording == null) {
+            throw new RuntimeException("Continuous JFR recording is not running");
+        }
+        int span = (int) Math.max(1, Math.min(minutes, Math.max(1, window.toMinutes())));
+        Instant since = Instant.now().minus(Duration.ofMinutes(span));
+        int id = dumpIds.incrementAndGet();
+        LocalDateTime createdAt = LocalDateTime.now();
+        Path file = Paths.get(dumpDir, reason + "-" + id + "-" + FILE_TIMESTAMP.format(createdAt) + ".jfr");
+
+        // A snapshot ends the current chunk, so events up to now are included
+        try (Recording snapshot = FlightRecorder.getFlightRecorder().takeSnapshot()) {
+            try (InputStream in = snapshot.getStream(since, null)) {
+                if (in == null) {
+                    throw new RuntimeException("No recording data for the last " + span + " minutes");
+                }
+                Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        Dump dump = new Dump(id, createdAt, reason, route, requestMillis, span, Files.size(file), file,
+                summarize(file, since, limit));
+        synchronized (dumps) {
+            dumps.addFirst(dump);
+            while (dumps.size() > maxDumps) {
+                Files.deleteIfExists(dumps.removeLast().file());
+            }
+        }
+        return dump;
+    }
+
+    // Bookmarks live in memory and dump ids restart at 1, so files from an earlier run would
+    // never be served nor rotated out
+    private void pruneOrphanedDumps() {
+        int pruned = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get(dumpDir), "{manual,slow-request}-*.jfr")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+                pruned++;
+            }
+        } catch (IOException e) {
+            logger.warn("Could not prune JFR dumps left in {}: {}", dumpDir, e.getMessage());
+        }
+        if (pruned > 0) {
+            logger.info("Deleted {} JFR dumps left in {} by a previous run", pruned, dumpDir);
+        }
+    }
+
+    private Dump findDump(int id) {
+        synchronized (dumps) {
+            return dumps.stream()
+                    .filter(dump -> dump.id() == id)
+                    .findFirst()
+                    .orElseThrow(() -> new RuntimeException("JFR dump not found: " + id));
+        }
+    }
+
+    private Map<String, Object> describe(Dump dump, boolean withSummary) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", dump.id());
+        row.put("createdAt", dump.createdAt());
+        row.put("reason", dump.reason());
+        row.put("route", dump.route());
+        row.put("requestMillis", dump.requestMillis());
+        row.put("minutes", dump.minutes());
+        row.put("bytes", dump.bytes());
+        row.put("file", dump.file().getFileName().toString());
+        if (withSummary) {
+            row.put("summary", dump.summary());
+        }
+        return row;
+    }
+
+    /**
+     * Reads the events of a dump started since the given instant (the file holds whole chunks,
+     * so it can begin earlier) and keeps the top rows of each section
+     */
+    static Map<String, Object> summarize(Path file, Instant since, int limit) throws IOException {
+        Map<String, Long> executionSamples = new HashMap<>();
+        // site and class -> [sampled bytes, samples]
+        Map<String, long[]> allocations = new HashMap<>();
+        // kind, lock class and site -> [events, total nanos, max nanos]
+        Map<String, long[]> contention = new HashMap<>();
+        List<Map<String, Object>> slowRequests = new ArrayList<>();
+        long events = 0;
+        long executionTotal = 0;
+
+        try (RecordingFile recordingFile = new RecordingFile(file)) {
+            while (recordingFile.hasMoreEvents()) {
+                RecordedEvent event = recordingFile.readEvent();
+                if (event.getStartTime().isBefore(since)) {
+                    continue;
+                }
+                events++;
+                switch (event.getEventType().getName()) {
+                    case "jdk.ExecutionSample" -> {
+                        executionTotal++;
+                        executionSamples.merge(frame(event.getStackTrace(), 0), 1L, Long::sum);
+                    }
+                    case "jdk.ObjectAllocationSample" -> {
+                        long[] totals = allocations.computeIfAbsent(
+                                callerFrame(event.getStackTrace()) + "|" + className(event.getClass("objectClass")),
+                                key -> new long[2]);
+                        totals[0] += event.getLong("weight");
+                        totals[1]++;
+                    }
+                    case "jdk.JavaMonitorEnter" -> contended(contention, "monitor",
+                            className(event.getClass("monitorClass")), frame(event.getStackTrace(), 0), event);
+                    case "jdk.ThreadPark" -> {
+                        // Parked on a lock's synchronizer (ReentrantLock$NonfairSync, Semaphore$FairSync...);
+                        // condition waits and idle pool threads are not contention
+                        String parkedClass = className(event.getClass("parkedClass"));
+                        if (parkedClass.endsWith("Sync")) {
+                            contended(contention, "lock", parkedClass, callerFrame(event.getStackTrace()), event);
+                        }
+                    }
+                    case SlowRequestEvent.NAME -> {
+                        Map<String, Object> row = new LinkedHashMap<>();
+                        row.put("startTime", event.getStartTime().toString());
+                        row.put("route", event.getString("route"));
+                        row.put("status", event.getInt("status"));
+                        row.put("durationMs", event.getDuration().toMillis());
+                        slowRequests.add(row);
+                    }
+                    default -> {
+                    }
+                }
+            }
+        }
+
+        long samples = executionTotal;
+        List<Map<String, Object>> hotMethods = new ArrayList<>();
+        executionSamples.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(limit)
+                .forEach(entry -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("method", entry.getKey());
+                    row.put("samples", entry.getValue());
+                    row.put("percent", Math.round(entry.getValue() * 1000.0 / samples) / 10.0);
+                    hotMethods.add(row);
+                });
+
+        List<Map<String, Object>> allocationSites = new ArrayList<>();
+        allocations.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, long[]> entry) -> entry.getValue()[0]).reversed())
+                .limit(limit)
+                .forEach(entry -> {
+                    String[] key = entry.getKey().split("\\|", 2);
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("site", key[0]);
+                    row.put("objectClass", key[1]);
+                    row.put("sampledBytes", entry.getValue()[0]);
+                    row.put("samples", entry.getValue()[1]);
+                    allocationSites.add(row);
+                });
+
+        List<Map<String, Object>> lockContention = new ArrayList<>();
+        contention.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, long[]> entry) -> entry.getValue()[1]).reversed())
+                .limit(limit)
+                .forEach(entry -> {
+                    String[] key = entry.getKey().split("\\|", 3);
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("kind", key[0]);
+                    row.put("lockClass", key[1]);
+                    row.put("site", key[2]);
+                    row.put("events", entry.getValue()[0]);
+                    row.put("totalMs", entry.getValue()[1] / 1_000_000);
+                    row.put("maxMs", entry.getValue()[2] / 1_000_000);
+                    lockContention.add(row);
+                });
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("since", since.toString());
+        summary.put("events", events);
+        summary.put("executionSamples", samples);
+        summary.put("hotMethods", hotMethods);
+        summary.put("allocationSites", allocationSites);
+        summary.put("lockContention", lockContention);
+        summary.put("slowRequests", slowRequests);
+        return summary;
+    }
+
+    private static void contended(Map<String, long[]> contention, String kind, String lockClass, String site,
+                                  RecordedEvent event) {
+        long nanos = event.getDuration().toNanos();
+        long[] totals = contention.computeIfAbsent(kind + "|" + lockClass + "|" + site, key -> new long[3]);
+        totals[0]++;
+        totals[1] += nanos;
+        totals[2] = Math.max(totals[2], nanos);
+    }
+
+    private static String frame(RecordedStackTrace stackTrace, int index) {
+        if (stackTrace == null || stackTrace.getFrames().size() <= index) {
+            return "unknown";
+        }
+        RecordedFrame frame = stackTrace.getFrames().get(index);
+        String method = frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+        return frame.getLineNumber() > 0 ? method + ":" + frame.getLineNumber() : method;
+    }
+
+    // First frame outside the JDK: the code that allocated or blocked, rather than
+    // Arrays.copyOf or LockSupport.park
+    private static String callerFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "unknown";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        for (int i = 0; i < frames.size(); i++) {
+            String type = frames.get(i).getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return frame(stackTrace, i);
+            }
+        }
+        return frame(stackTrace, 0);
+    }
+
+    private static String className(RecordedClass recordedClass) {
+        return recordedClass != null ? recordedClass.getName() : "unknown";
+    }
+}
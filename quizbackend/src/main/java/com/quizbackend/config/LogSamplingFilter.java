@@ -0,0 +1,81 @@
+package com.quizbackend.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logback turbo filter keeping one INFO/DEBUG/TRACE event in N for the configured loggers
+ * (and their children), so per-request messages on hot paths cost a fraction of their I/O
+ * under load. WARN and ERROR always pass. Configured from logback-spring.xml with
+ * "logger=N,logger=N" (logging.sampling.rates).
+ */
+public class LogSamplingFilter extends TurboFilter {
+
+    private record Sampler(int rate, AtomicLong events) {
+    }
+
+    private static final Sampler UNSAMPLED = new Sampler(1, new AtomicLong());
+
+    // Configured logger name -> keep one event in N
+    private final Map<String, Integer> rates = new HashMap<>();
+
+    // Logger name -> sampler of its closest configured ancestor, UNSAMPLED when there is none;
+    // loggers under one configured name share its sampler
+    private final Map<String, Sampler> samplers = new ConcurrentHashMap<>();
+    private final Map<String, Sampler> samplersByConfiguredName = new ConcurrentHashMap<>();
+
+    public void setRates(String rates) {
+        if (rates == null || rates.isBlank()) {
+            return;
+        }
+        for (String entry : rates.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                addWarn("Ignoring malformed sampling rate: " + entry);
+                continue;
+            }
+            try {
+                int rate = Integer.parseInt(parts[1].trim());
+                if (rate > 1) {
+                    this.rates.put(parts[0].trim(), rate);
+                }
+            } catch (NumberFormatException e) {
+                addWarn("Ignoring malformed sampling rate: " + entry);
+            }
+        }
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // isXxxEnabled() checks come through with no format; they are not events to sample
+        if (format == null || rates.isEmpty() || level.isGreaterOrEqual(Level.WARN)
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        Sampler sampler = samplers.computeIfAbsent(logger.getName(), this::samplerFor);
+        if (sampler == UNSAMPLED) {
+            return FilterReply.NEUTRAL;
+        }
+        return sampler.events().getAndIncrement() % sampler.rate() == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private Sampler samplerFor(String loggerName) {
+        String name = loggerName;
+        while (!rates.containsKey(name)) {
+            int dot = name.lastIndexOf('.');
+            if (dot < 0) {
+                return UNSAMPLED;
+            }
+            name = name.substring(0, dot);
+        }
+        return samplersByConfiguredName.computeIfAbsent(name, key -> new Sampler(rates.get(key), new AtomicLong()));
+    }
+}
@@ -0,0 +1,159 @@
+package com.quizbackend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-host bulkhead, circuit breaker and latency/error counters for outbound HTTP calls.
+ * Rejections surface as IOException so RestTemplate reports them as ResourceAccessException,
+ * the same way as a connection failure.
+ */
+public class OutboundHttpGuard implements ClientHttpRequestInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboundHttpGuard.class);
+
+    private final int maxConcurrentCalls;
+    private final Duration maxWait;
+    private final int failureThreshold;
+    private final Duration openDuration;
+
+    private final Map<String, HostState> hosts = new ConcurrentHashMap<>();
+
+    public OutboundHttpGuard(int maxConcurrentCalls, Duration maxWait, int failureThreshold, Duration openDuration) {
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.maxWait = maxWait;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        String host = request.getURI().getHost();
+        HostState state = hosts.computeIfAbsent(host, h -> new HostState(maxConcurrentCalls));
+
+        boolean acquired;
+        try {
+            acquired = state.bulkhead.tryAcquire(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for " + host, e);
+        }
+        if (!acquired) {
+            state.rejected.increment();
+            throw new IOException("Too many concurrent calls to " + host);
+        }
+        if (!state.allowRequest()) {
+            state.bulkhead.release();
+            state.rejected.increment();
+            throw new IOException("Circuit open for " + host);
+        }
+
+        long start = System.nanoTime();
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            boolean serverError = response.getStatusCode().is5xxServerError();
+            state.record(host, System.nanoTime() - start, !serverError);
+            return response;
+        } catch (IOException | RuntimeException e) {
+            state.record(host, System.nanoTime() - start, false);
+            throw e;
+        } finally {
+            state.bulkhead.release();
+        }
+    }
+
+    /**
+     * Counters per host, for the admin monitoring endpoint
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        hosts.forEach((host, state) -> result.put(host, state.toMap()));
+        return result;
+    }
+
+    private enum CircuitState {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private class HostState {
+        final Semaphore bulkhead;
+        final LongAdder calls = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+
+        private CircuitState circuit = CircuitState.CLOSED;
+        private int consecutiveFailures = 0;
+        private long openedAt = 0;
+
+        HostState(int permits) {
+            this.bulkhead = new Semaphore(permits);
+        }
+
+        synchronized boolean allowRequest() {
+            if (circuit == CircuitState.OPEN) {
+                if (System.currentTimeMillis() - openedAt < openDuration.toMillis()) {
+                    return false;
+                }
+                // Let a single trial call through
+                circuit = CircuitState.HALF_OPEN;
+                return true;
+            }
+            return circuit == CircuitState.CLOSED;
+        }
+
+        void record(String host, long nanos, boolean success) {
+            calls.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            if (!success) {
+                errors.increment();
+            }
+            synchronized (this) {
+                if (success) {
+                    if (circuit != CircuitState.CLOSED) {
+                        logger.info("Circuit for {} closed", host);
+                    }
+                    circuit = CircuitState.CLOSED;
+                    consecutiveFailures = 0;
+                } else if (circuit == CircuitState.HALF_OPEN || ++consecutiveFailures >= failureThreshold) {
+                    if (circuit != CircuitState.OPEN) {
+                        logger.warn("Circuit for {} opened after {} consecutive failures", host, consecutiveFailures);
+                    }
+                    circuit = CircuitState.OPEN;
+                    openedAt = System.currentTimeMillis();
+                }
+            }
+        }
+
+        synchronized Map<String, Object> toMap() {
+            long count = calls.sum();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("circuit", circuit.name());
+            map.put("calls", count);
+            map.put("errors", errors.sum());
+            map.put("rejected", rejected.sum());
+            map.put("inFlight", maxConcurrentCalls - bulkhead.availablePermits());
+            map.put("avgLatencyMs", count == 0 ? 0 : totalNanos.sum() / count / 1_000_000);
+            map.put("maxLatencyMs", maxNanos.get() / 1_000_000);
+            return map;
+        }
+    }
+}
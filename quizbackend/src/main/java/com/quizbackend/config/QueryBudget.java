@@ -0,0 +1,18 @@
+package com.quizbackend.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maximum number of SQL statements one request to the annotated endpoint (or every endpoint of
+ * the annotated controller) should run, instead of sql.query-budget.default. Checked by
+ * SqlStatementMonitor: logged when exceeded, and failed when sql.query-budget.enforce is set.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    int value();
+}
@@ -0,0 +1,47 @@
+package com.quizbackend.config;
+
+import com.quizbackend.exception.QueryBudgetExceededException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Turns the JSON response of a request that went over its enforced query budget into the 500
+ * GlobalExceptionHandler gives a QueryBudgetExceededException, also when the controller caught
+ * the exception in its catch-all block and answered 400 or 200 instead.
+ */
+@ControllerAdvice
+public class QueryBudgetResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    @Autowired
+    private SqlStatementMonitor sqlStatementMonitor;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return AbstractJackson2HttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        QueryBudgetExceededException overrun = sqlStatementMonitor.currentOverrun();
+        if (overrun == null) {
+            return body;
+        }
+        response.setStatusCode(HttpStatus.INTERNAL_SERVER_ERROR);
+        Map<String, String> error = new HashMap<>();
+        error.put("error", overrun.getMessage());
+        return error;
+    }
+}
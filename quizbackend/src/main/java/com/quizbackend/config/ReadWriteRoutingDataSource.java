@@ -0,0 +1,77 @@
+package com.quizbackend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Routes connections of read-only transactions started by a service method declared
+ * @Transactional(readOnly = true) to the replica pool, and everything else to the primary.
+ * Repository methods called outside a service transaction run read-only transactions of their
+ * own; their caller may have just written what it reads, so those stay on the primary. Falls
+ * back to the primary when the replica is lagging or refuses connections.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    // Set by ReplicaReadAspect around read-only service methods
+    private static final ThreadLocal<Boolean> replicaReads = ThreadLocal.withInitial(() -> false);
+
+    private final DataSource primary;
+    private final ReplicaLagMonitor replicaLagMonitor;
+
+    public ReadWriteRoutingDataSource(DataSource primary, ReplicaLagMonitor replicaLagMonitor) {
+        this.primary = primary;
+        this.replicaLagMonitor = replicaLagMonitor;
+    }
+
+    /**
+     * Allows or forbids replica reads on the calling thread and returns the previous setting
+     */
+    public static boolean allowReplicaReads(boolean allowed) {
+        boolean previous = replicaReads.get();
+        replicaReads.set(allowed);
+        return previous;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicaReads.get() && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && replicaLagMonitor.isReplicaUsable()) {
+            return REPLICA;
+        }
+        return PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+        if (!REPLICA.equals(key)) {
+            return primary.getConnection();
+        }
+        try {
+            Connection connection = determineTargetDataSource().getConnection();
+            logger.debug("Read-only transaction routed to replica");
+            return connection;
+        } catch (SQLException e) {
+            logger.warn("Replica connection failed, falling back to primary: {}", e.getMessage());
+            replicaLagMonitor.markUnhealthy(e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        // Pools are pre-authenticated; credentials are only meaningful on the primary
+        return primary.getConnection(username, password);
+    }
+}
@@ -0,0 +1,100 @@
+package com.quizbackend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Tracks whether the read replica is reachable and fresh enough to serve reads.
+ * The primary writes a heartbeat timestamp; the replica lag is the age of the
+ * heartbeat as seen through the replica.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private static final String CREATE_TABLE =
+            "CREATE TABLE IF NOT EXISTS replica_heartbeat (id INT PRIMARY KEY, beat_at BIGINT NOT NULL)";
+
+    private final JdbcTemplate primaryJdbc;
+    private final JdbcTemplate replicaJdbc;
+    private final Duration maxLag;
+
+    private volatile boolean replicaUsable = false;
+    // The heartbeat table is created by the first check that reaches the primary, not on every check
+    private volatile boolean heartbeatTableReady = false;
+    private volatile long lastLagMillis = -1;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, Duration maxLag) {
+        this.primaryJdbc = new JdbcTemplate(primary);
+        this.replicaJdbc = new JdbcTemplate(replica);
+        this.maxLag = maxLag;
+    }
+
+    /**
+     * Writes the heartbeat on the primary, then reads it back through the replica.
+     * A non-positive max lag disables the freshness check and only probes connectivity.
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval:5000}")
+    public void check() {
+        try {
+            if (maxLag.isZero() || maxLag.isNegative()) {
+                replicaJdbc.queryForObject("SELECT 1", Integer.class);
+                lastLagMillis = 0;
+                setUsable(true, "connectivity probe succeeded");
+                return;
+            }
+
+            if (!heartbeatTableReady) {
+                primaryJdbc.execute(CREATE_TABLE);
+                heartbeatTableReady = true;
+            }
+            long now = System.currentTimeMillis();
+            if (primaryJdbc.update("UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1", now) == 0) {
+                primaryJdbc.update("INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, ?)", now);
+            }
+
+            Long replicaBeat = replicaJdbc.queryForObject("SELECT beat_at FROM replica_heartbeat WHERE id = 1", Long.class);
+            lastLagMillis = replicaBeat == null ? Long.MAX_VALUE : Math.max(0, now - replicaBeat);
+
+            if (lastLagMillis > maxLag.toMillis()) {
+                setUsable(false, "lag " + lastLagMillis + "ms exceeds " + maxLag.toMillis() + "ms");
+            } else {
+                setUsable(true, "lag " + lastLagMillis + "ms");
+            }
+        } catch (Exception e) {
+            setUsable(false, e.getMessage());
+        }
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    public long getLastLagMillis() {
+        return lastLagMillis;
+    }
+
+    /**
+     * Called when a replica connection attempt fails; reads stay on the primary
+     * until the next successful check.
+     */
+    public void markUnhealthy(String reason) {
+        setUsable(false, reason);
+    }
+
+    private void setUsable(boolean usable, String reason) {
+        if (replicaUsable != usable) {
+            if (usable) {
+                logger.info("Replica enabled for read-only transactions ({})", reason);
+            } else {
+                logger.warn("Replica disabled, routing reads to primary ({})", reason);
+            }
+        }
+        replicaUsable = usable;
+    }
+}
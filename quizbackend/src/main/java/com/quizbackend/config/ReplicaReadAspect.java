@@ -0,0 +1,34 @@
+package com.quizbackend.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Marks service methods declared @Transactional(readOnly = true) as allowed to read from the
+ * replica. Runs outside the transaction interceptor, so the mark is set before the transaction
+ * fetches its connection (the transaction advisor has the lowest precedence).
+ */
+@Aspect
+@Component
+@Order(0)
+@ConditionalOnProperty(name = "app.datasource.replica.url")
+public class ReplicaReadAspect {
+
+    @Around("@within(org.springframework.stereotype.Service) && @annotation(transactional)")
+    public Object routeReadOnlyService(ProceedingJoinPoint joinPoint, Transactional transactional) throws Throwable {
+        if (!transactional.readOnly()) {
+            return joinPoint.proceed();
+        }
+        boolean previous = ReadWriteRoutingDataSource.allowReplicaReads(true);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReadWriteRoutingDataSource.allowReplicaReads(previous);
+        }
+    }
+}
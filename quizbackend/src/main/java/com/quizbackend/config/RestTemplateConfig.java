@@ -1,14 +1,58 @@
 package com.quizbackend.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
 @Configuration
 public class RestTemplateConfig {
 
+    @Value("${http.client.connect-timeout:2s}")
+    private Duration connectTimeout;
+
+    @Value("${http.client.read-timeout:5s}")
+    private Duration readTimeout;
+
+    @Value("${http.client.bulkhead.max-concurrent:8}")
+    private int maxConcurrentCalls;
+
+    @Value("${http.client.bulkhead.max-wait:500ms}")
+    private Duration maxWait;
+
+    @Value("${http.client.circuit.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${http.client.circuit.open-duration:30s}")
+    private Duration openDuration;
+
+    /**
+     * Shared JDK client: keeps connections (and TLS sessions) alive between calls
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public HttpClient httpClient() {
+        return HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    @Bean
+    public OutboundHttpGuard outboundHttpGuard() {
+        return new OutboundHttpGuard(maxConcurrentCalls, maxWait, failureThreshold, openDuration);
+    }
+
+    @Bean
+    public RestTemplate restTemplate(HttpClient httpClient, OutboundHttpGuard outboundHttpGuard) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate.getInterceptors().add(outboundHttpGuard);
+        return restTemplate;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,26 @@
+package com.quizbackend.config;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Marks an HTTP request slower than profiling.slow-request-threshold on the continuous
+ * recording, so dumps (and JDK Mission Control timelines) show where it ran. Its duration
+ * is the request's; the threshold is applied by JFR itself.
+ */
+@Name(SlowRequestEvent.NAME)
+@Label("Slow Request")
+@Category({"Quiz Backend", "HTTP"})
+@Description("HTTP request slower than the profiling threshold")
+class SlowRequestEvent extends jdk.jfr.Event {
+
+    static final String NAME = "com.quizbackend.SlowRequest";
+
+    @Label("Route")
+    String route;
+
+    @Label("Status")
+    int status;
+}
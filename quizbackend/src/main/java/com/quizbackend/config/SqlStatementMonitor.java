@@ -0,0 +1,275 @@
+package com.quizbackend.config;
+
+import com.quizbackend.exception.QueryBudgetExceededException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * SQL accounting behind the datasource proxy installed by SqlInstrumentationConfig. Every
+ * statement is reduced to a fingerprint (literals, parameter lists and whitespace normalized)
+ * and timed as sql.statements{fingerprint}; /admin/system/sql maps fingerprints back to their
+ * SQL. Around each MVC request it counts statements, warns when the request goes over its
+ * budget (@QueryBudget, else sql.query-budget.default) and when one fingerprint repeats
+ * sql.n-plus-one-threshold times, the usual sign of lazy loading in a loop. Integration tests
+ * can read the figures of the last request handled on their thread with lastRequest().
+ */
+@Component
+public class SqlStatementMonitor implements QueryExecutionListener, AsyncHandlerInterceptor {
+
+    /**
+     * Statements run by one request; fingerprints maps fingerprint id to executions
+     */
+    public record RequestStats(String route, int budget, int statements, long sqlMillis,
+                               Map<String, Integer> fingerprints) {
+
+        public boolean overBudget() {
+            return statements > budget;
+        }
+    }
+
+    private record Fingerprint(String id, String sql, Timer timer) {
+    }
+
+    private static final class RequestContext {
+        private final String route;
+        private final int budget;
+        private final Map<String, Integer> fingerprints = new HashMap<>();
+        private int statements;
+        private long sqlNanos;
+        private QueryBudgetExceededException overrun;
+
+        private RequestContext(String route, int budget) {
+            this.route = route;
+            this.budget = budget;
+        }
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatementMonitor.class);
+
+    private static final String STARTED_AT = SqlStatementMonitor.class.getName() + ".startedAt";
+    private static final int MAX_CACHED_SQL = 5000;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern ROW_LIST = Pattern.compile("\\(\\?\\)(?:\\s*,\\s*\\(\\?\\))+");
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${sql.query-budget.default:30}")
+    private int defaultBudget;
+
+    @Value("${sql.query-budget.enforce:false}")
+    private boolean enforce;
+
+    @Value("${sql.n-plus-one-threshold:10}")
+    private int nPlusOneThreshold;
+
+    // Upper bound on distinct fingerprints (and so on sql.statements series); the rest share "other"
+    @Value("${sql.fingerprints.max:500}")
+    private int maxFingerprints;
+
+    private final ThreadLocal<RequestContext> current = new ThreadLocal<>();
+    private final ThreadLocal<RequestStats> last = new ThreadLocal<>();
+
+    // Raw SQL to fingerprint, so normalization runs once per distinct statement text
+    private final Map<String, Fingerprint> bySql = new ConcurrentHashMap<>();
+    private final Map<String, Fingerprint> byId = new ConcurrentHashMap<>();
+
+    private final LongAdder requestsOverBudget = new LongAdder();
+    private final LongAdder nPlusOneWarnings = new LongAdder();
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RequestContext context = current.get();
+        if (enforce && context != null && context.statements >= context.budget) {
+            // Counted although never run, so the overrun is still logged and reported
+            context.statements++;
+            if (context.overrun == null) {
+                context.overrun = new QueryBudgetExceededException(context.route + " went over its budget of "
+                        + context.budget + " SQL statements");
+            }
+            throw context.overrun;
+        }
+        execInfo.addCustomValue(STARTED_AT, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long startedAt = execInfo.getCustomValue(STARTED_AT, Long.class);
+        if (startedAt == null || queryInfoList.isEmpty()) {
+            return;
+        }
+        long nanos = System.nanoTime() - startedAt;
+        // A JDBC batch is one round trip; it is counted once, under its first statement
+        Fingerprint fingerprint = fingerprint(queryInfoList.get(0).getQuery());
+        fingerprint.timer().record(nanos, TimeUnit.NANOSECONDS);
+        RequestContext context = current.get();
+        if (context != null) {
+            context.statements++;
+            context.sqlNanos += nanos;
+            context.fingerprints.merge(fingerprint.id(), 1, Integer::sum);
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        int budget = defaultBudget;
+        if (handler instanceof HandlerMethod handlerMethod) {
+            QueryBudget annotation = handlerMethod.getMethodAnnotation(QueryBudget.class);
+            if (annotation == null) {
+                annotation = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), QueryBudget.class);
+            }
+            if (annotation != null) {
+                budget = annotation.value();
+            }
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        // The mapped pattern, not the URI, so the route tag stays bounded
+        current.set(new RequestContext(request.getMethod() + " " + (pattern != null ? pattern : "unmatched"), budget));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Streamed responses: only the part before the async hand-off is accounted
+        finish();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        finish();
+    }
+
+    /**
+     * The budget failure of the request being handled on the calling thread, or null. Kept so
+     * QueryBudgetResponseAdvice can fail the response even when a controller caught the exception.
+     */
+    public QueryBudgetExceededException currentOverrun() {
+        RequestContext context = current.get();
+        return context != null ? context.overrun : null;
+    }
+
+    /**
+     * Figures of the last request completed on the calling thread, or null
+     */
+    public RequestStats lastRequest() {
+        return last.get();
+    }
+
+    public Map<String, Object> snapshot(int limit) {
+        List<Map<String, Object>> statements = new ArrayList<>();
+        byId.values().stream()
+                .sorted(Comparator.comparingDouble((Fingerprint f) -> f.timer().totalTime(TimeUnit.MILLISECONDS)).reversed())
+                .limit(limit)
+                .forEach(fingerprint -> {
+                    Timer timer = fingerprint.timer();
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("fingerprint", fingerprint.id());
+                    row.put("sql", fingerprint.sql());
+                    row.put("count", timer.count());
+                    row.put("totalMs", Math.round(timer.totalTime(TimeUnit.MILLISECONDS)));
+                    row.put("meanMs", timer.mean(TimeUnit.MILLISECONDS));
+                    row.put("maxMs", timer.max(TimeUnit.MILLISECONDS));
+                    statements.add(row);
+                });
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("defaultBudget", defaultBudget);
+        stats.put("enforce", enforce);
+        stats.put("requestsOverBudget", requestsOverBudget.sum());
+        stats.put("nPlusOneWarnings", nPlusOneWarnings.sum());
+        stats.put("fingerprints", byId.size());
+        stats.put("statements", statements);
+        return stats;
+    }
+
+    private void finish() {
+        RequestContext context = current.get();
+        if (context == null) {
+            return;
+        }
+        current.remove();
+        RequestStats stats = new RequestStats(context.route, context.budget, context.statements,
+                TimeUnit.NANOSECONDS.toMillis(context.sqlNanos), context.fingerprints);
+        last.set(stats);
+        DistributionSummary.builder("sql.request.statements")
+                .tag("route", context.route)
+                .register(meterRegistry)
+                .record(context.statements);
+        if (stats.overBudget()) {
+            requestsOverBudget.increment();
+            logger.warn("{} ran {} SQL statements ({} ms), over its budget of {}",
+                    context.route, context.statements, stats.sqlMillis(), context.budget);
+        }
+        context.fingerprints.forEach((id, count) -> {
+            if (count >= nPlusOneThreshold) {
+                nPlusOneWarnings.increment();
+                Fingerprint fingerprint = byId.get(id);
+                logger.warn("Possible N+1 in {}: statement {} ran {} times: {}", context.route, id, count,
+                        fingerprint != null ? fingerprint.sql() : "?");
+            }
+        });
+    }
+
+    private Fingerprint fingerprint(String sql) {
+        Fingerprint cached = bySql.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        String normalized = normalize(sql);
+        String id = Integer.toHexString(normalized.hashCode());
+        Fingerprint fingerprint = byId.get(id);
+        if (fingerprint == null) {
+            if (byId.size() >= maxFingerprints) {
+                id = "other";
+                normalized = "(fingerprint limit reached)";
+            }
+            String fingerprintId = id;
+            String fingerprintSql = normalized;
+            fingerprint = byId.computeIfAbsent(id, key -> new Fingerprint(fingerprintId, fingerprintSql,
+                    Timer.builder("sql.statements").tag("fingerprint", fingerprintId).register(meterRegistry)));
+        }
+        if (bySql.size() < MAX_CACHED_SQL) {
+            bySql.put(sql, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    static String normalize(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER.matcher(normalized).replaceAll("?");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+        normalized = PARAMETER_LIST.matcher(normalized).replaceAll("(?)");
+        normalized = ROW_LIST.matcher(normalized).replaceAll("(?)");
+        return normalized.toLowerCase(Locale.ROOT);
+    }
+}
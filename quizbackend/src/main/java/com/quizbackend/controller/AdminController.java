@@ -1,13 +1,25 @@
 package com.quizbackend.controller;
 
+import com.quizbackend.config.FlightRecorderMonitor;
+import com.quizbackend.config.OutboundHttpGuard;
+import com.quizbackend.config.QueryBudget;
+import com.quizbackend.config.SqlStatementMonitor;
 import com.quizbackend.entity.*;
+import com.quizbackend.security.PasswordHasher;
+import com.quizbackend.security.RateLimitFilter;
 import com.quizbackend.service.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashMap;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -34,6 +46,48 @@ public class AdminController {
     @Autowired
     private QuizService quizService;
 
+    @Autowired
+    private OutboundHttpGuard outboundHttpGuard;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
+    @Autowired
+    private ParticipationFeedService participationFeedService;
+
+    @Autowired
+    private LiveSessionService liveSessionService;
+
+    @Autowired
+    private DashboardMetricsService dashboardMetricsService;
+
+    @Autowired
+    private EntitlementService entitlementService;
+
+    @Autowired
+    private SubscriptionExpiryService subscriptionExpiryService;
+
+    @Autowired
+    private QuotaService quotaService;
+
+    @Autowired
+    private GuestRetentionService guestRetentionService;
+
+    @Autowired
+    private ParticipationArchiveService participationArchiveService;
+
+    @Autowired
+    private QuizPurgeService quizPurgeService;
+
+    @Autowired
+    private SqlStatementMonitor sqlStatementMonitor;
+
+    @Autowired
+    private FlightRecorderMonitor flightRecorderMonitor;
+
     // User Management
     @GetMapping("/users/professors")
     public ResponseEntity<?> getAllProfessors() {
@@ -121,44 +175,21 @@ public class AdminController {
         }
     }
 
+    // Newest first, one page at a time; X-Total-Count carries the number of matching subscriptions
     @GetMapping("/subscriptions")
-    public ResponseEntity<?> getAllSubscriptions() {
+    @QueryBudget(5)
+    public ResponseEntity<?> getAllSubscriptions(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate expiresAfter,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate expiresBefore) {
         try {
-            List<com.quizbackend.entity.ProfessorSubscription> subscriptions = professorSubscriptionService.getAllSubscriptions();
-            
-            // Create simplified DTOs to avoid lazy loading issues
-            List<Map<String, Object>> subscriptionDTOs = subscriptions.stream().map(sub -> {
-                Map<String, Object> dto = new HashMap<>();
-                dto.put("id", sub.getId());
-                dto.put("professorId", sub.getProfessorId());
-                dto.put("planType", sub.getPlanType());
-                dto.put("price", sub.getPrice());
-                dto.put("startDate", sub.getStartDate());
-                dto.put("endDate", sub.getEndDate());
-                dto.put("paymentMethod", sub.getPaymentMethod());
-                dto.put("isActive", sub.getIsActive());
-                dto.put("createdAt", sub.getCreatedAt());
-                
-                // Add simplified professor info
-                if (sub.getProfessorId() != null) {
-                    com.quizbackend.entity.Professor prof = professorService.getAllProfessors().stream()
-                        .filter(p -> p.getUserId().equals(sub.getProfessorId()))
-                        .findFirst()
-                        .orElse(null);
-                    
-                    if (prof != null) {
-                        Map<String, Object> profInfo = new HashMap<>();
-                        profInfo.put("userId", prof.getUserId());
-                        profInfo.put("firstName", prof.getFirstName());
-                        profInfo.put("lastName", prof.getLastName());
-                        dto.put("professor", profInfo);
-                    }
-                }
-                
-                return dto;
-            }).toList();
-            
-            return ResponseEntity.ok(subscriptionDTOs);
+            Page<Map<String, Object>> subscriptions = professorSubscriptionService.getSubscriptionSummaries(
+                    active, expiresAfter, expiresBefore, page, size);
+            return ResponseEntity.ok()
+                    .header("X-Total-Count", String.valueOf(subscriptions.getTotalElements()))
+                    .body(subscriptions.getContent());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -227,6 +258,131 @@ public class AdminController {
         }
     }
 
+    // Newest quizzes and students, plans, and daily trends over the last `days` days
+    @GetMapping("/dashboard/report")
+    public ResponseEntity<?> getDashboardReport(@RequestParam(defaultValue = "30") int days) {
+        try {
+            return ResponseEntity.ok(adminService.getDashboardReport(days));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Outbound HTTP latency, error and circuit breaker state per host
+    @GetMapping("/system/outbound-http")
+    public ResponseEntity<?> getOutboundHttpStats() {
+        return ResponseEntity.ok(outboundHttpGuard.snapshot());
+    }
+
+    // Password hashing pool latency and queue depth
+    @GetMapping("/system/password-hashing")
+    public ResponseEntity<?> getPasswordHashingStats() {
+        return ResponseEntity.ok(passwordHasher.snapshot());
+    }
+
+    // Rate limiter allowed/rejected counts per scope
+    @GetMapping("/system/rate-limits")
+    public ResponseEntity<?> getRateLimitStats() {
+        return ResponseEntity.ok(rateLimitFilter.snapshot());
+    }
+
+    // Live participation feed connections and delivery counts
+    @GetMapping("/system/participation-feeds")
+    public ResponseEntity<?> getParticipationFeedStats() {
+        return ResponseEntity.ok(participationFeedService.snapshot());
+    }
+
+    // Running live sessions, answer throughput and stream delivery counts
+    @GetMapping("/system/live-sessions")
+    public ResponseEntity<?> getLiveSessionStats() {
+        return ResponseEntity.ok(liveSessionService.snapshot());
+    }
+
+    // Dashboard counter values, last recount time and corrections made by recounts
+    @GetMapping("/system/dashboard-counters")
+    public ResponseEntity<?> getDashboardCounterStats() {
+        return ResponseEntity.ok(dashboardMetricsService.snapshot());
+    }
+
+    // Entitlement cache effectiveness and subscription expiry sweeper progress
+    @GetMapping("/system/entitlements")
+    public ResponseEntity<?> getEntitlementStats() {
+        return ResponseEntity.ok(Map.of(
+                "cache", entitlementService.snapshot(),
+                "expirySweeper", subscriptionExpiryService.snapshot()));
+    }
+
+    // Plan limits, tracked quota counters and rejections per quota
+    @GetMapping("/system/quotas")
+    public ResponseEntity<?> getQuotaStats() {
+        return ResponseEntity.ok(quotaService.snapshot());
+    }
+
+    // Guest retention settings, backlog and totals purged
+    @GetMapping("/system/guest-retention")
+    public ResponseEntity<?> getGuestRetentionStats() {
+        return ResponseEntity.ok(guestRetentionService.snapshot());
+    }
+
+    // Participation archive settings, backlog and rows moved so far
+    @GetMapping("/system/participation-archive")
+    public ResponseEntity<?> getParticipationArchiveStats() {
+        return ResponseEntity.ok(participationArchiveService.snapshot());
+    }
+
+    // Background removal of deleted quizzes: backlog and rows removed so far
+    @GetMapping("/system/quiz-purge")
+    public ResponseEntity<?> getQuizPurgeStats() {
+        return ResponseEntity.ok(quizPurgeService.snapshot());
+    }
+
+    // SQL fingerprints by total time, with requests over their query budget and N+1 warnings
+    @GetMapping("/system/sql")
+    public ResponseEntity<?> getSqlStats(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(sqlStatementMonitor.snapshot(limit));
+    }
+
+    // Continuous JFR recording state, slow request counts and bookmarked dumps
+    @GetMapping("/system/profiling")
+    public ResponseEntity<?> getProfilingStats() {
+        return ResponseEntity.ok(flightRecorderMonitor.snapshot());
+    }
+
+    // Dump the last minutes of the recording, with top allocation sites, hot methods and lock contention
+    @PostMapping("/system/profiling/dumps")
+    public ResponseEntity<?> dumpProfile(@RequestParam(defaultValue = "5") int minutes,
+                                         @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(flightRecorderMonitor.dump(minutes, limit));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/system/profiling/dumps/{dumpId}")
+    public ResponseEntity<?> getProfileDump(@PathVariable int dumpId) {
+        try {
+            return ResponseEntity.ok(flightRecorderMonitor.getDump(dumpId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Raw .jfr file, for JDK Mission Control
+    @GetMapping("/system/profiling/dumps/{dumpId}/file")
+    public ResponseEntity<?> downloadProfileDump(@PathVariable int dumpId) {
+        try {
+            FileSystemResource file = new FileSystemResource(flightRecorderMonitor.getDumpFile(dumpId));
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            ContentDisposition.attachment().filename(file.getFilename()).build().toString())
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .body(file);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     // Reclamation Management
     @GetMapping("/reclamations")
     public ResponseEntity<?> getAllReclamations() {
@@ -238,6 +394,19 @@ public class AdminController {
         }
     }
 
+    // Keyset-paginated inbox: most urgent first, then newest; filters combine
+    @GetMapping("/reclamations/inbox")
+    public ResponseEntity<?> getReclamationInbox(@RequestParam(required = false) String status,
+                                                 @RequestParam(required = false) String priority,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(adminService.getReclamationInbox(status, priority, cursor, size));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @PutMapping("/reclamations/{reclamationId}/status")
     public ResponseEntity<?> updateReclamationStatus(@PathVariable Integer reclamationId, @RequestBody Map<String, String> request) {
         try {
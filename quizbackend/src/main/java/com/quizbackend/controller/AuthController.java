@@ -1,20 +1,14 @@
 package com.quizbackend.controller;
 
 import com.quizbackend.entity.User;
-import com.quizbackend.entity.Student;
-import com.quizbackend.entity.Professor;
 import com.quizbackend.service.AuthService;
-import com.quizbackend.service.ProfessorService;
-import com.quizbackend.service.StudentService;
 import com.quizbackend.service.AdminService;
-import com.quizbackend.repository.UserRepository;
 import com.quizbackend.security.JwtUtil;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
@@ -29,101 +23,58 @@ public class AuthController {
     @Autowired
     private AuthService authService;
 
-    @Autowired
-    private ProfessorService professorService;
-
-    @Autowired
-    private StudentService studentService;
-
     @Autowired
     private AdminService adminService;
 
     @Autowired
     private JwtUtil jwtUtil;
 
-    @Autowired
-    private UserRepository userRepository;
-
+    // The endpoints that hash passwords let exceptions reach GlobalExceptionHandler: a busy hashing
+    // pool becomes 503 with Retry-After, anything else the usual 400 {"error": ...}
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest request) {
-        try {
-            logger.info("Login attempt for username={}", request.getUsername());
-            Map<String, Object> response = authService.login(request.getUsername(), request.getPassword());
-            logger.info("Login successful for username={}", request.getUsername());
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            logger.warn("Login failed for username={}: {}", request.getUsername(), e.getMessage());
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-        }
+        logger.info("Login attempt for username={}", request.getUsername());
+        Map<String, Object> response = authService.login(request.getUsername(), request.getPassword());
+        logger.info("Login successful for username={}", request.getUsername());
+        return ResponseEntity.ok(response);
     }
 
     @PostMapping("/register/student")
-    @Transactional
     public ResponseEntity<?> registerStudent(@RequestBody StudentRegisterRequest request) {
-        try {
-            logger.info("RegisterStudent request received: username={}, email={}, firstName={}, lastName={}",
-                    request.getUsername(), request.getEmail(), request.getFirstName(), request.getLastName());
-
-            // Register user with email verification
-            Map<String, Object> authResponse = authService.registerStudent(
-                request.getUsername(),
-                request.getEmail(),
-                request.getPassword(),
-                request.getFirstName(),
-                request.getLastName()
-            );
-            logger.info("User registered with email verification: username={}", request.getUsername());
-
-            // Create student profile
-            User user = userRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found after registration"));
-            Student student = studentService.createStudent(user, request.getFirstName(), request.getLastName());
-            logger.info("Student entity saved: id={}, user={}, firstName={}, lastName={}",
-                student.getId(),
-                student.getUser() != null ? "id=" + student.getUser().getId() + ",username=" + student.getUser().getUsername() : "NULL",
-                student.getFirstName(), student.getLastName());
-
-            // Add student info to response
-            authResponse.put("studentId", student.getId());
-            
-            return ResponseEntity.ok(authResponse);
-        } catch (Exception e) {
-            logger.error("Error registering student: {}", e.getMessage(), e);
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-        }
+        logger.info("RegisterStudent request received: username={}, email={}, firstName={}, lastName={}",
+                request.getUsername(), request.getEmail(), request.getFirstName(), request.getLastName());
+
+        // Register user and student profile with email verification
+        Map<String, Object> authResponse = authService.registerStudent(
+            request.getUsername(),
+            request.getEmail(),
+            request.getPassword(),
+            request.getFirstName(),
+            request.getLastName()
+        );
+        logger.info("Student registered with email verification: username={}, studentId={}",
+                request.getUsername(), authResponse.get("studentId"));
+
+        return ResponseEntity.ok(authResponse);
     }
 
     @PostMapping("/register/professor")
-    @Transactional
     public ResponseEntity<?> registerProfessor(@RequestBody ProfessorRegisterRequest request) {
-        try {
-            logger.info("RegisterProfessor request received: username={}, email={}, firstName={}, lastName={}",
-                    request.getUsername(), request.getEmail(), request.getFirstName(), request.getLastName());
-
-            // Register user with email verification
-            Map<String, Object> authResponse = authService.registerProfessor(
-                request.getUsername(),
-                request.getEmail(),
-                request.getPassword(),
-                request.getFirstName(),
-                request.getLastName()
-            );
-            logger.info("User registered with email verification: username={}", request.getUsername());
-
-            // Create professor profile
-            User user = userRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found after registration"));
-            Professor professor = professorService.createProfessor(user, request.getFirstName(), request.getLastName());
-            logger.info("Professor entity saved: {}", professor);
-
-            // Add professor info to response
-            authResponse.put("professorId", professor.getUserId());
-            
-            return ResponseEntity.ok(authResponse);
-        } catch (Exception e) {
-            logger.error("Error registering professor: {}", e.getMessage(), e);
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-        }
+        logger.info("RegisterProfessor request received: username={}, email={}, firstName={}, lastName={}",
+                request.getUsername(), request.getEmail(), request.getFirstName(), request.getLastName());
+
+        // Register user and professor profile with email verification
+        Map<String, Object> authResponse = authService.registerProfessor(
+            request.getUsername(),
+            request.getEmail(),
+            request.getPassword(),
+            request.getFirstName(),
+            request.getLastName()
+        );
+        logger.info("Professor registered with email verification: username={}, professorId={}",
+                request.getUsername(), authResponse.get("professorId"));
+
+        return ResponseEntity.ok(authResponse);
     }
 
     @GetMapping("/me")
@@ -159,12 +110,8 @@ public class AuthController {
 
     @PostMapping("/reset-password")
     public ResponseEntity<?> resetPassword(@RequestBody ResetPasswordRequest request) {
-        try {
-            Map<String, Object> response = authService.resetPassword(request.getToken(), request.getNewPassword());
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-        }
+        Map<String, Object> response = authService.resetPassword(request.getToken(), request.getNewPassword());
+        return ResponseEntity.ok(response);
     }
 
     @PostMapping("/resend-verification")
@@ -0,0 +1,142 @@
+package com.quizbackend.controller;
+
+import com.quizbackend.entity.Professor;
+import com.quizbackend.service.AuthService;
+import com.quizbackend.service.LiveSessionService;
+import com.quizbackend.service.ProfessorService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/quiz/live")
+@CrossOrigin(origins = "*")
+public class LiveSessionController {
+
+    @Autowired
+    private LiveSessionService liveSessionService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private ProfessorService professorService;
+
+    // Helper method to get professor ID from username
+    private Integer getProfessorId(Authentication authentication) {
+        if (authentication == null) {
+            throw new RuntimeException("Authentication required");
+        }
+        Professor professor = professorService.getProfessorByUsername(authentication.getName());
+        if (professor == null) {
+            throw new RuntimeException("Professor not found for username: " + authentication.getName());
+        }
+        return professor.getUserId();
+    }
+
+    // Students are identified by their token, guests by the guest ID they were given
+    private Integer getUserId(Authentication authentication) {
+        return authentication != null ? authService.getCurrentUser(authentication.getName()).getId() : null;
+    }
+
+    // Professor endpoints
+    @PostMapping("/{quizId}/open")
+    public ResponseEntity<?> openSession(@PathVariable Integer quizId, Authentication authentication) {
+        try {
+            return ResponseEntity.ok(liveSessionService.open(quizId, getProfessorId(authentication)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{code}/next")
+    public ResponseEntity<?> nextQuestion(@PathVariable String code,
+                                          @RequestParam(required = false) Integer seconds,
+                                          Authentication authentication) {
+        try {
+            return ResponseEntity.ok(liveSessionService.next(code, getProfessorId(authentication), seconds));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{code}/end")
+    public ResponseEntity<?> endSession(@PathVariable String code, Authentication authentication) {
+        try {
+            return ResponseEntity.ok(liveSessionService.end(code, getProfessorId(authentication)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Participant endpoints (students or guests)
+    @PostMapping("/{code}/join")
+    public ResponseEntity<?> joinSession(@PathVariable String code,
+                                         @RequestBody(required = false) LiveAnswerRequest request,
+                                         Authentication authentication) {
+        try {
+            Integer guestId = request != null ? request.getGuestId() : null;
+            return ResponseEntity.ok(liveSessionService.join(code, getUserId(authentication), guestId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{code}/answer")
+    public ResponseEntity<?> answerQuestion(@PathVariable String code, @RequestBody LiveAnswerRequest request,
+                                            Authentication authentication) {
+        try {
+            // response_ids for a question with several correct responses, response_id otherwise
+            List<Integer> responseIds = request.getResponseIds() != null ? request.getResponseIds()
+                    : request.getResponseId() != null ? List.of(request.getResponseId()) : null;
+            return ResponseEntity.ok(liveSessionService.answer(code, getUserId(authentication),
+                    request.getGuestId(), request.getQuestionId(), responseIds));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{code}")
+    public ResponseEntity<?> getSessionState(@PathVariable String code) {
+        try {
+            return ResponseEntity.ok(liveSessionService.getState(code));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{code}/stream")
+    public SseEmitter streamSession(@PathVariable String code) throws IOException {
+        try {
+            return liveSessionService.stream(code);
+        } catch (Exception e) {
+            SseEmitter emitter = new SseEmitter();
+            emitter.send(SseEmitter.event().name("error").data(Map.of("error", e.getMessage())));
+            emitter.complete();
+            return emitter;
+        }
+    }
+
+    // Request DTOs
+    public static class LiveAnswerRequest {
+        private Integer guestId;
+        private Integer questionId;
+        private Integer responseId;
+        private List<Integer> responseIds;
+
+        public Integer getGuestId() { return guestId; }
+        public void setGuestId(Integer guestId) { this.guestId = guestId; }
+        public Integer getQuestionId() { return questionId; }
+        public void setQuestionId(Integer questionId) { this.questionId = questionId; }
+        public Integer getResponseId() { return responseId; }
+        public void setResponseId(Integer responseId) { this.responseId = responseId; }
+        public List<Integer> getResponseIds() { return responseIds; }
+        public void setResponseIds(List<Integer> responseIds) { this.responseIds = responseIds; }
+    }
+}
@@ -3,8 +3,10 @@ package com.quizbackend.controller;
 import com.quizbackend.entity.Professor;
 import com.quizbackend.entity.ProfessorSubscription;
 import com.quizbackend.dto.ProfessorSubscriptionResponse;
+import com.quizbackend.service.EntitlementService;
 import com.quizbackend.service.ProfessorSubscriptionService;
 import com.quizbackend.service.ProfessorService;
+import com.quizbackend.service.QuotaService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -28,6 +30,9 @@ public class ProfessorSubscriptionController {
     @Autowired
     private ProfessorService professorService;
 
+    @Autowired
+    private QuotaService quotaService;
+
     @GetMapping("/{professorId}")
     public ResponseEntity<?> getProfessorSubscription(@PathVariable Integer professorId) {
         try {
@@ -47,7 +52,8 @@ public class ProfessorSubscriptionController {
             }
             
             // Get the most recent active subscription
-            ProfessorSubscription currentSubscription = professorSubscriptionService.getCurrentSubscription(professorId);
+            EntitlementService.CurrentSubscription currentSubscription =
+                    professorSubscriptionService.getCurrentSubscription(professorId);
             
             Map<String, Object> response = new HashMap<>();
             response.put("hasActiveSubscription", currentSubscription != null);
@@ -55,8 +61,8 @@ public class ProfessorSubscriptionController {
             response.put("role", professor.getRole());
             
             if (currentSubscription != null) {
-                response.put("daysRemaining", professorSubscriptionService.getDaysRemaining(currentSubscription));
-                response.put("isExpiringSoon", professorSubscriptionService.isExpiringSoon(currentSubscription));
+                response.put("daysRemaining", professorSubscriptionService.getDaysRemaining(currentSubscription.endDate()));
+                response.put("isExpiringSoon", professorSubscriptionService.isExpiringSoon(currentSubscription.endDate()));
             } else {
                 response.put("daysRemaining", null);
                 response.put("isExpiringSoon", null);
@@ -69,6 +75,15 @@ public class ProfessorSubscriptionController {
         }
     }
 
+    @GetMapping("/{professorId}/quota")
+    public ResponseEntity<?> getQuotaUsage(@PathVariable Integer professorId) {
+        try {
+            return ResponseEntity.ok(quotaService.getUsage(professorId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/{professorId}/plans")
     public ResponseEntity<?> getAvailablePlans() {
         try {
@@ -1,5 +1,6 @@
 package com.quizbackend.controller;
 
+import com.quizbackend.config.QueryBudget;
 import com.quizbackend.entity.Quiz;
 import com.quizbackend.entity.Question;
 import com.quizbackend.entity.Response;
@@ -10,22 +11,38 @@ import com.quizbackend.service.QuizService;
 import com.quizbackend.dto.ParticipationDto;
 import com.quizbackend.dto.SubmitQuizRequest;
 import com.quizbackend.service.AuthService;
+import com.quizbackend.service.ParticipationFeedService;
 import com.quizbackend.service.ProfessorService;
+import com.quizbackend.service.QuizAnalyticsService;
+import com.quizbackend.service.QuizExportService;
+import com.quizbackend.service.ScoreDistributionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.stream.Collectors;
 
 import java.util.List;
 import java.util.Map;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 @RestController
 @RequestMapping("/quiz")
 @CrossOrigin(origins = "*")
 public class QuizController {
 
+    private static final Logger logger = LoggerFactory.getLogger(QuizController.class);
+
     @Autowired
     private QuizService quizService;
 
@@ -35,6 +52,18 @@ public class QuizController {
     @Autowired
     private ProfessorService professorService;
 
+    @Autowired
+    private ParticipationFeedService participationFeedService;
+
+    @Autowired
+    private QuizAnalyticsService quizAnalyticsService;
+
+    @Autowired
+    private QuizExportService quizExportService;
+
+    @Autowired
+    private ScoreDistributionService scoreDistributionService;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     // Helper method to get professor ID from username
@@ -104,7 +133,7 @@ public class QuizController {
     }
 @PostMapping("/{quizId}/questions")
 public ResponseEntity<?> addQuestion(@PathVariable Integer quizId, @RequestBody Map<String, Object> rawJson, Authentication authentication) {
-    System.out.println("Raw JSON received: " + rawJson);
+    logger.debug("Adding question to quiz {}: {}", quizId, rawJson);
     // Convert to Question manually
     Question question = new Question();
     question.setQuestionText((String) rawJson.get("questionText"));
@@ -116,7 +145,7 @@ public ResponseEntity<?> addQuestion(@PathVariable Integer quizId, @RequestBody
         Question createdQuestion = quizService.addQuestion(quizId, question, professorId);
         return ResponseEntity.ok(createdQuestion);
     } catch (Exception e) {
-        e.printStackTrace();
+        logger.warn("Could not add question to quiz {}: {}", quizId, e.getMessage());
         return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
     }
 }
@@ -203,6 +232,101 @@ public ResponseEntity<?> addQuestion(@PathVariable Integer quizId, @RequestBody
         }
     }
 
+    // Live participation feed (SSE): one snapshot event, then joined/submitted/fraud deltas
+    @GetMapping("/{quizId}/participations/stream")
+    public SseEmitter streamQuizParticipations(@PathVariable Integer quizId, Authentication authentication) throws IOException {
+        // Subscribe before loading the snapshot so changes committed in between are not lost
+        ParticipationFeedService.Subscriber subscriber = participationFeedService.subscribe(quizId);
+        try {
+            String username = authentication.getName();
+            Integer professorId = getProfessorId(username);
+
+            List<ParticipationDto> snapshot = quizService.getQuizParticipations(quizId, professorId).stream()
+                .map(ParticipationDto::fromEntity)
+                .collect(Collectors.toList());
+            participationFeedService.open(subscriber, snapshot);
+        } catch (Exception e) {
+            participationFeedService.cancel(subscriber);
+            subscriber.getEmitter().send(SseEmitter.event().name("error").data(Map.of("error", e.getMessage())));
+            subscriber.getEmitter().complete();
+        }
+        return subscriber.getEmitter();
+    }
+
+    // Streamed CSV download of all participations, for quizzes too large for the JSON list
+    @GetMapping("/{quizId}/participations/export")
+    public ResponseEntity<StreamingResponseBody> exportQuizParticipations(@PathVariable Integer quizId, Authentication authentication) {
+        try {
+            String username = authentication.getName();
+            Integer professorId = getProfessorId(username);
+
+            Quiz quiz = quizExportService.getExportableQuiz(quizId, professorId);
+            StreamingResponseBody body = out -> quizExportService.writeParticipationsCsv(quizId, out);
+            return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                    .filename("quiz-" + quiz.getCode() + "-results.csv").build().toString())
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .body(body);
+        } catch (Exception e) {
+            Map<String, String> error = Map.of("error", e.getMessage());
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                .body(out -> out.write(objectMapper.writeValueAsBytes(error)));
+        }
+    }
+
+    @GetMapping("/{quizId}/analytics")
+    public ResponseEntity<?> getQuizAnalytics(@PathVariable Integer quizId, Authentication authentication) {
+        try {
+            String username = authentication.getName();
+            Integer professorId = getProfessorId(username);
+
+            return ResponseEntity.ok(quizAnalyticsService.getQuizAnalytics(quizId, professorId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{quizId}/score-distribution")
+    public ResponseEntity<?> getScoreDistribution(@PathVariable Integer quizId,
+                                                  @RequestParam(defaultValue = "10") int binWidth,
+                                                  Authentication authentication) {
+        try {
+            String username = authentication.getName();
+            Integer professorId = getProfessorId(username);
+
+            return ResponseEntity.ok(scoreDistributionService.getQuizDistribution(quizId, professorId, binWidth));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Percentiles across all of the professor's quizzes, merged from the per-quiz histograms
+    @GetMapping("/my-quizzes/score-distribution")
+    public ResponseEntity<?> getMyScoreDistribution(@RequestParam(defaultValue = "10") int binWidth,
+                                                    Authentication authentication) {
+        try {
+            String username = authentication.getName();
+            Integer professorId = getProfessorId(username);
+
+            return ResponseEntity.ok(scoreDistributionService.getProfessorDistribution(professorId, binWidth));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Recount from stored answers, for participations submitted before analytics were tracked
+    @PostMapping("/{quizId}/analytics/rebuild")
+    public ResponseEntity<?> rebuildQuizAnalytics(@PathVariable Integer quizId, Authentication authentication) {
+        try {
+            String username = authentication.getName();
+            Integer professorId = getProfessorId(username);
+
+            return ResponseEntity.ok(quizAnalyticsService.rebuild(quizId, professorId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     // Public endpoints for joining quizzes
     @GetMapping("/join/{code}")
     public ResponseEntity<?> getQuizByCode(@PathVariable String code) {
@@ -249,17 +373,15 @@ public ResponseEntity<?> addQuestion(@PathVariable Integer quizId, @RequestBody
     @PostMapping("/{quizId}/submit")
     public ResponseEntity<?> submitQuiz(@PathVariable Integer quizId, @RequestBody String rawJson, Authentication authentication) {
         try {
-            // Add logging to debug deserialization
-            System.out.println("🔍 Raw JSON request body: " + rawJson);
             SubmitQuizRequest request = objectMapper.readValue(rawJson, SubmitQuizRequest.class);
-            System.out.println("🔍 SubmitQuizRequest received: " + request);
+            // Hot path under exam load: key/value fields, and the raw body only at TRACE
+            logger.trace("Submission body for quiz {}: {}", quizId, rawJson);
             if (request != null) {
-                System.out.println("🔍 SelectedResponseIds: " + request.getSelectedResponseIds());
-                System.out.println("🔍 GuestId: " + request.getGuestId());
-                if (request.getSelectedResponseIds() != null) {
-                    System.out.println("🔍 SelectedResponseIds size: " + request.getSelectedResponseIds().size());
-                    System.out.println("🔍 SelectedResponseIds values: " + request.getSelectedResponseIds());
-                }
+                logger.atDebug()
+                        .addKeyValue("quizId", quizId)
+                        .addKeyValue("guestId", request.getGuestId())
+                        .addKeyValue("responses", request.getSelectedResponseIds() != null ? request.getSelectedResponseIds().size() : null)
+                        .log("Quiz submission received");
             }
 
             Integer userId = null;
@@ -269,17 +391,17 @@ public ResponseEntity<?> addQuestion(@PathVariable Integer quizId, @RequestBody
             }
 
             if (request == null) {
-                System.out.println("❌ Request is null");
+                logger.debug("Rejected submission for quiz {}: empty request", quizId);
                 return ResponseEntity.badRequest().body(Map.of("error", "Request must not be null"));
             }
 
             if (request.getSelectedResponseIds() == null) {
-                System.out.println("❌ SelectedResponseIds is null");
+                logger.debug("Rejected submission for quiz {}: no response ids", quizId);
                 return ResponseEntity.badRequest().body(Map.of("error", "Ids must not be null"));
             }
 
             if (request.getSelectedResponseIds().isEmpty()) {
-                System.out.println("❌ SelectedResponseIds is empty");
+                logger.debug("Rejected submission for quiz {}: no response ids", quizId);
                 return ResponseEntity.badRequest().body(Map.of("error", "Ids must not be empty"));
             }
 
@@ -341,13 +463,13 @@ public ResponseEntity<?> addQuestion(@PathVariable Integer quizId, @RequestBody
             // This ensures fraud tracking begins from the moment they access the quiz
             try {
                 Participation participation = quizService.registerParticipationForQuizAccess(id, userId, null, null);
-                System.out.println("✅ Participation created immediately upon quiz access: " + participation.getId());
+                logger.debug("Participation {} created on access to quiz {}", participation.getId(), id);
             } catch (RuntimeException e) {
                 // If participation already exists (duplicate access), that's fine - just log it
                 if (!e.getMessage().contains("already participated")) {
                     throw e;
                 }
-                System.out.println("ℹ️ Student already participated in this quiz: " + e.getMessage());
+                logger.debug("Participation already registered for quiz {}: {}", id, e.getMessage());
             }
             
             Quiz quiz = quizService.getQuizByIdWithQuestions(id);
@@ -387,6 +509,7 @@ public ResponseEntity<?> addQuestion(@PathVariable Integer quizId, @RequestBody
 
     // Student endpoints
     @GetMapping("/my-participations")
+    @QueryBudget(8)
     public ResponseEntity<?> getMyParticipations(Authentication authentication) {
         try {
             String username = authentication.getName();
@@ -400,7 +523,7 @@ public ResponseEntity<?> addQuestion(@PathVariable Integer quizId, @RequestBody
                 dto.setUserId(p.getUserId());
                 dto.setGuestId(p.getGuestId());
                 dto.setStudentResponses(p.getStudentResponses());
-                Quiz q = quizService.getQuizById(p.getQuizId());
+                Quiz q = p.getQuiz();
                 if (q != null) {
                     ParticipationDto.QuizSummary qs = new ParticipationDto.QuizSummary();
                     qs.setId(q.getId());
@@ -1,5 +1,6 @@
 package com.quizbackend.controller;
 
+import com.quizbackend.config.QueryBudget;
 import com.quizbackend.dto.ParticipationDto;
 import com.quizbackend.dto.QuizHistoryDTO;
 import com.quizbackend.dto.StudentStatsDTO;
@@ -134,6 +135,7 @@ public class StudentController {
      * Récupère l'historique des quiz de l'étudiant
      */
     @GetMapping("/history")
+    @QueryBudget(15)
     public ResponseEntity<?> getQuizHistory(Authentication authentication) {
         try {
             String username = authentication.getName();
@@ -185,6 +187,7 @@ public class StudentController {
      * Récupère le classement global
      */
     @GetMapping("/leaderboard")
+    @QueryBudget(8)
     public ResponseEntity<?> getLeaderboard(
             @RequestParam(defaultValue = "10") int limit
     ) {
@@ -205,6 +208,7 @@ public class StudentController {
      * Récupère les étudiants les plus actifs
      */
     @GetMapping("/most-active")
+    @QueryBudget(8)
     public ResponseEntity<?> getMostActiveStudents(
             @RequestParam(defaultValue = "10") int limit
     ) {
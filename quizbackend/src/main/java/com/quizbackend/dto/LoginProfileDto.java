@@ -0,0 +1,41 @@
+package com.quizbackend.dto;
+
+import com.quizbackend.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Flat login view: user row, student or professor profile, and the professor's
+ * current subscription, loaded by UserRepository.findLoginProfile in one query.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoginProfileDto {
+    private Integer userId;
+    private String username;
+    private String email;
+    private String password;
+    private User.Role role;
+    private Boolean enabled;
+    private Boolean emailVerified;
+
+    private Integer studentId;
+    private String studentFirstName;
+    private String studentLastName;
+
+    private Integer professorId;
+    private String professorFirstName;
+    private String professorLastName;
+
+    private Integer subscriptionId;
+    private String subscriptionPlanType;
+    private BigDecimal subscriptionPrice;
+    private LocalDateTime subscriptionStartDate;
+    private LocalDateTime subscriptionEndDate;
+    private Boolean subscriptionActive;
+}
@@ -0,0 +1,42 @@
+package com.quizbackend.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Classical item analysis of a quiz: difficulty (p-value), point-biserial discrimination
+ * and how often each response was chosen.
+ */
+@Data
+public class QuizAnalyticsDto {
+    private Integer quizId;
+    private Long submissions;
+    private Double meanScore;
+    private Double scoreStdDev;
+    private List<QuestionStats> questions = new ArrayList<>();
+
+    @Data
+    public static class QuestionStats {
+        private Integer questionId;
+        private String questionText;
+        private Long answered;
+        private Long correct;
+        // Share of submissions that got the question right; null before any submission
+        private Double difficulty;
+        // Correlation between getting the question right and the total score; null when undefined
+        private Double discrimination;
+        private List<ResponseStats> responses = new ArrayList<>();
+    }
+
+    @Data
+    public static class ResponseStats {
+        private Integer responseId;
+        private String responseText;
+        private Boolean isCorrect;
+        private Long selections;
+        // Share of submissions that selected this response
+        private Double frequency;
+    }
+}
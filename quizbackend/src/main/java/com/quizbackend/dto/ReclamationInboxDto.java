@@ -0,0 +1,18 @@
+package com.quizbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of the reclamation inbox; pass nextCursor back to get the following page (null on the last one)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReclamationInboxDto {
+    private List<ReclamationSummaryDto> items;
+    private String nextCursor;
+}
@@ -0,0 +1,31 @@
+package com.quizbackend.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.quizbackend.entity.Reclamation;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A reclamation as listed in the admin inbox, with its submitter's username from the same query
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReclamationSummaryDto {
+    private Integer id;
+    private Integer userId;
+    private String username;
+    private String subject;
+    private String message;
+    private Reclamation.Status status;
+    private Reclamation.Priority priority;
+    // Stored sort key, for the inbox cursor
+    @JsonIgnore
+    private Integer priorityRank;
+    private String responseText;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,31 @@
+package com.quizbackend.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Score percentiles and histogram of one quiz, or of all quizzes of a professor when quizId is null.
+ * Percentiles are interpolated within one-point buckets; all are null before any submission.
+ */
+@Data
+public class ScoreDistributionDto {
+    private Integer quizId;
+    private Integer quizzes;
+    private Long submissions;
+    private Double median;
+    private Double p90;
+    private Map<String, Double> percentiles = new LinkedHashMap<>();
+    private List<Bin> histogram = new ArrayList<>();
+
+    @Data
+    public static class Bin {
+        // Scores in [from, to), the last bin also includes 100
+        private Integer from;
+        private Integer to;
+        private Long count;
+    }
+}
@@ -0,0 +1,71 @@
+package com.quizbackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A participation moved out of the participations table by ParticipationArchiveService once it is
+ * older than the archive age. It keeps its id, so its participation_answers rows still apply.
+ */
+@Entity
+@Table(name = "participations_archive", indexes = {
+        @Index(name = "idx_participations_archive_user", columnList = "user_id, created_at"),
+        @Index(name = "idx_participations_archive_quiz", columnList = "quiz_id, score"),
+        @Index(name = "idx_participations_archive_guest", columnList = "guest_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedParticipation {
+
+    @Id
+    private Integer id;
+
+    @Column(name = "quiz_id", nullable = false)
+    private Integer quizId;
+
+    @Column(name = "user_id")
+    private Integer userId;
+
+    @Column(name = "guest_id")
+    private Integer guestId;
+
+    @Column(precision = 5, scale = 2)
+    private BigDecimal score;
+
+    @Column(name = "is_fraud", nullable = false)
+    private Boolean isFraud = false;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "submitted_at")
+    private LocalDateTime submittedAt;
+
+    @Column(name = "student_responses", columnDefinition = "TEXT")
+    private String studentResponses;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    /**
+     * Detached copy in the live shape, for code paths written against Participation
+     */
+    public Participation toParticipation() {
+        Participation participation = new Participation();
+        participation.setId(id);
+        participation.setQuizId(quizId);
+        participation.setUserId(userId);
+        participation.setGuestId(guestId);
+        participation.setScore(score);
+        participation.setIsFraud(isFraud);
+        participation.setCreatedAt(createdAt);
+        participation.setSubmittedAt(submittedAt);
+        participation.setStudentResponses(studentResponses);
+        return participation;
+    }
+}
@@ -0,0 +1,39 @@
+package com.quizbackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Per-day activity totals for the admin report trends, recomputed for recent days by ActivityRollupService
+ */
+@Entity
+@Table(name = "daily_activity")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyActivity {
+
+    @Id
+    @Column(name = "activity_date")
+    private LocalDate activityDate;
+
+    @Column(name = "new_quizzes", nullable = false)
+    private Long newQuizzes = 0L;
+
+    @Column(name = "new_students", nullable = false)
+    private Long newStudents = 0L;
+
+    @Column(nullable = false)
+    private Long submissions = 0L;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public DailyActivity(LocalDate activityDate) {
+        this.activityDate = activityDate;
+    }
+}
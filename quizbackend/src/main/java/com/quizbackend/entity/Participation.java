@@ -1,6 +1,7 @@
 package com.quizbackend.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.quizbackend.event.DashboardCountListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -9,8 +10,12 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(DashboardCountListener.class)
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
-@Table(name = "participations")
+@Table(name = "participations", indexes = {
+        @Index(name = "idx_participations_submitted_at", columnList = "submitted_at"),
+        @Index(name = "idx_participations_created_at", columnList = "created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -38,6 +43,9 @@ public class Participation {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    @Column(name = "submitted_at")
+    private LocalDateTime submittedAt;
+
     @Column(name = "student_responses", columnDefinition = "TEXT")
     private String studentResponses;
 
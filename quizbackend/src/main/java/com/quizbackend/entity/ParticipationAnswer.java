@@ -0,0 +1,45 @@
+package com.quizbackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.io.Serializable;
+
+/**
+ * One selected response of a submitted participation, so answers can be aggregated in SQL
+ * instead of parsing Participation.studentResponses. Rows are written in JDBC batches by
+ * ParticipationAnswerRepository; quiz_id and question_id are copied in for grouping.
+ */
+@Entity
+@Table(name = "participation_answers", indexes = {
+        @Index(name = "idx_participation_answers_quiz_question", columnList = "quiz_id, question_id, response_id")
+})
+@IdClass(ParticipationAnswer.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParticipationAnswer {
+
+    @Id
+    @Column(name = "participation_id")
+    private Integer participationId;
+
+    @Id
+    @Column(name = "response_id")
+    private Integer responseId;
+
+    @Column(name = "question_id", nullable = false)
+    private Integer questionId;
+
+    @Column(name = "quiz_id", nullable = false)
+    private Integer quizId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Integer participationId;
+        private Integer responseId;
+    }
+}
@@ -11,8 +11,10 @@ import java.util.List;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.quizbackend.event.DashboardCountListener;
 
 @Entity
+@EntityListeners(DashboardCountListener.class)
 @Table(name = "professors")
 @Data
 @NoArgsConstructor
@@ -9,7 +9,11 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "professor_subscriptions")
+@Table(name = "professor_subscriptions", indexes = {
+        @Index(name = "idx_professor_subscriptions_current", columnList = "professor_id, is_active, end_date"),
+        @Index(name = "idx_professor_subscriptions_expiry", columnList = "is_active, end_date"),
+        @Index(name = "idx_professor_subscriptions_created_at", columnList = "created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,39 @@
+package com.quizbackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "question_analytics", indexes = {
+        @Index(name = "idx_question_analytics_quiz", columnList = "quiz_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestionAnalytics {
+
+    @Id
+    @Column(name = "question_id")
+    private Integer questionId;
+
+    @Column(name = "quiz_id", nullable = false)
+    private Integer quizId;
+
+    // Submissions that selected at least one response of this question
+    @Column(nullable = false)
+    private Long answered = 0L;
+
+    @Column(nullable = false)
+    private Long correct = 0L;
+
+    // Sum of the total scores of submissions that got this question right
+    @Column(name = "correct_score_sum", nullable = false)
+    private Double correctScoreSum = 0.0;
+
+    public QuestionAnalytics(Integer questionId, Integer quizId) {
+        this.questionId = questionId;
+        this.quizId = quizId;
+    }
+}
@@ -0,0 +1,39 @@
+package com.quizbackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Running score totals of a quiz's submissions; together with QuestionAnalytics and
+ * ResponseAnalytics this is enough to derive item statistics without reading participations.
+ */
+@Entity
+@Table(name = "quiz_analytics")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizAnalytics {
+
+    @Id
+    @Column(name = "quiz_id")
+    private Integer quizId;
+
+    @Column(nullable = false)
+    private Long submissions = 0L;
+
+    @Column(name = "score_sum", nullable = false)
+    private Double scoreSum = 0.0;
+
+    @Column(name = "score_square_sum", nullable = false)
+    private Double scoreSquareSum = 0.0;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public QuizAnalytics(Integer quizId) {
+        this.quizId = quizId;
+    }
+}
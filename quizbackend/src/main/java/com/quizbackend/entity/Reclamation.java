@@ -1,5 +1,7 @@
 package com.quizbackend.entity;
 
+import com.quizbackend.event.DashboardCountListener;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -7,7 +9,12 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "reclamations")
+@EntityListeners(DashboardCountListener.class)
+@Table(name = "reclamations", indexes = {
+        // Inbox order (most urgent, then newest) with and without a status filter
+        @Index(name = "idx_reclamations_inbox_status", columnList = "status, priority_rank, created_at, id"),
+        @Index(name = "idx_reclamations_inbox", columnList = "priority_rank, created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -34,6 +41,11 @@ public class Reclamation {
     @Column(nullable = false)
     private Priority priority = Priority.MEDIUM;
 
+    // Priority as a sortable number (LOW = 0 .. URGENT = 3); the enum is stored by name
+    @JsonIgnore
+    @Column(name = "priority_rank")
+    private Integer priorityRank;
+
     @Column(name = "responseText", columnDefinition = "TEXT")
     private String responseText;
 
@@ -47,15 +59,22 @@ public class Reclamation {
     @JoinColumn(name = "user_id", insertable = false, updatable = false)
     private User user;
 
+    // Status as last loaded or written, to tell when the pending count changes
+    @JsonIgnore
+    @Transient
+    private transient Status persistedStatus;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        priorityRank = priority != null ? priority.ordinal() : null;
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        priorityRank = priority != null ? priority.ordinal() : null;
     }
 
     public enum Status {
@@ -65,6 +84,7 @@ public class Reclamation {
         CLOSED
     }
 
+    // Declared from least to most urgent; priorityRank is the ordinal
     public enum Priority {
         LOW,
         MEDIUM,
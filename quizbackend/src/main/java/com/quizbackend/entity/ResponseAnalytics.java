@@ -0,0 +1,35 @@
+package com.quizbackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "response_analytics", indexes = {
+        @Index(name = "idx_response_analytics_quiz", columnList = "quiz_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResponseAnalytics {
+
+    @Id
+    @Column(name = "response_id")
+    private Integer responseId;
+
+    @Column(name = "question_id", nullable = false)
+    private Integer questionId;
+
+    @Column(name = "quiz_id", nullable = false)
+    private Integer quizId;
+
+    @Column(nullable = false)
+    private Long selections = 0L;
+
+    public ResponseAnalytics(Integer responseId, Integer questionId, Integer quizId) {
+        this.responseId = responseId;
+        this.questionId = questionId;
+        this.quizId = quizId;
+    }
+}
@@ -0,0 +1,40 @@
+package com.quizbackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Histogram of a quiz's submitted scores, excluding participations marked as fraud.
+ * Bucket i counts scores in [i, i + 1); the last bucket holds perfect scores. Histograms
+ * of different quizzes merge by adding bucket counts.
+ */
+@Entity
+@Table(name = "score_distributions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScoreDistribution {
+
+    public static final int BUCKETS = 101;
+
+    @Id
+    @Column(name = "quiz_id")
+    private Integer quizId;
+
+    @Column(nullable = false)
+    private Long submissions = 0L;
+
+    // BUCKETS big-endian 4-byte counts
+    @Column(name = "bucket_counts", nullable = false, length = BUCKETS * 4)
+    private byte[] bucketCounts = new byte[BUCKETS * 4];
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public ScoreDistribution(Integer quizId) {
+        this.quizId = quizId;
+    }
+}
@@ -1,4 +1,5 @@
 package com.quizbackend.entity;
+import com.quizbackend.event.DashboardCountListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -8,7 +9,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "students")
+@EntityListeners(DashboardCountListener.class)
+@Table(name = "students", indexes = {
+        @Index(name = "idx_students_created_at", columnList = "created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,47 @@
+package com.quizbackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * What a student's archived participations contribute to their statistics, added to the live
+ * aggregates so archiving does not change totals, averages or leaderboards
+ */
+@Entity
+@Table(name = "student_archive_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentArchiveStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Integer userId;
+
+    @Column(nullable = false)
+    private Long participations = 0L;
+
+    // Participations with a score; averages are over these, like AVG(score)
+    @Column(name = "scored_participations", nullable = false)
+    private Long scoredParticipations = 0L;
+
+    @Column(name = "score_sum", nullable = false, precision = 14, scale = 2)
+    private BigDecimal scoreSum = BigDecimal.ZERO;
+
+    @Column(name = "best_score", precision = 5, scale = 2)
+    private BigDecimal bestScore;
+
+    @Column(name = "perfect_scores", nullable = false)
+    private Long perfectScores = 0L;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public StudentArchiveStats(Integer userId) {
+        this.userId = userId;
+    }
+}
@@ -1,4 +1,5 @@
 package com.quizbackend.entity;
+import com.quizbackend.event.DashboardCountListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -9,6 +10,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(DashboardCountListener.class)
 @Table(name = "subscriptions")
 @Data
 @NoArgsConstructor
@@ -6,8 +6,10 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.quizbackend.event.DashboardCountListener;
 
 @Entity
+@EntityListeners(DashboardCountListener.class)
 @Table(name = "users")
 @Data
 @NoArgsConstructor
@@ -0,0 +1,87 @@
+package com.quizbackend.event;
+
+import com.quizbackend.entity.Guest;
+import com.quizbackend.entity.Participation;
+import com.quizbackend.entity.Professor;
+import com.quizbackend.entity.Quiz;
+import com.quizbackend.entity.Reclamation;
+import com.quizbackend.entity.Student;
+import com.quizbackend.entity.Subscription;
+import com.quizbackend.entity.User;
+import com.quizbackend.service.DashboardMetricsService;
+import com.quizbackend.service.DashboardMetricsService.Counter;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Entity listener feeding the admin dashboard counters. Created by Hibernate through Spring's
+ * bean container; the metrics service is looked up lazily because it needs the repositories,
+ * which are only available once the entity manager factory listing this class is built.
+ */
+public class DashboardCountListener {
+
+    @Autowired
+    private ObjectProvider<DashboardMetricsService> dashboardMetrics;
+
+    @PostPersist
+    public void onPersist(Object entity) {
+        Counter counter = counterFor(entity);
+        if (counter != null) {
+            dashboardMetrics.getObject().adjust(counter, 1);
+        }
+        if (entity instanceof Reclamation reclamation) {
+            onPendingChange(null, reclamation);
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        Counter counter = counterFor(entity);
+        if (counter != null) {
+            dashboardMetrics.getObject().adjust(counter, -1);
+        }
+        if (entity instanceof Reclamation reclamation
+                && reclamation.getPersistedStatus() == Reclamation.Status.PENDING) {
+            dashboardMetrics.getObject().adjust(Counter.PENDING_RECLAMATIONS, -1);
+        }
+    }
+
+    @PostLoad
+    public void onLoad(Object entity) {
+        if (entity instanceof Reclamation reclamation) {
+            reclamation.setPersistedStatus(reclamation.getStatus());
+        }
+    }
+
+    @PostUpdate
+    public void onUpdate(Object entity) {
+        if (entity instanceof Reclamation reclamation) {
+            onPendingChange(reclamation.getPersistedStatus(), reclamation);
+        }
+    }
+
+    private void onPendingChange(Reclamation.Status before, Reclamation reclamation) {
+        Reclamation.Status after = reclamation.getStatus();
+        reclamation.setPersistedStatus(after);
+        boolean wasPending = before == Reclamation.Status.PENDING;
+        boolean isPending = after == Reclamation.Status.PENDING;
+        if (wasPending != isPending) {
+            dashboardMetrics.getObject().adjust(Counter.PENDING_RECLAMATIONS, isPending ? 1 : -1);
+        }
+    }
+
+    private Counter counterFor(Object entity) {
+        if (entity instanceof User) return Counter.USERS;
+        if (entity instanceof Professor) return Counter.PROFESSORS;
+        if (entity instanceof Student) return Counter.STUDENTS;
+        if (entity instanceof Guest) return Counter.GUESTS;
+        if (entity instanceof Quiz) return Counter.QUIZZES;
+        if (entity instanceof Subscription) return Counter.SUBSCRIPTIONS;
+        if (entity instanceof Participation) return Counter.PARTICIPATIONS;
+        return null;
+    }
+}
@@ -0,0 +1,16 @@
+package com.quizbackend.event;
+
+import com.quizbackend.dto.ParticipationDto;
+
+/**
+ * Published by QuizService whenever a participation changes; delivered to live
+ * monitoring feeds after the surrounding transaction commits.
+ */
+public record ParticipationEvent(Type type, Integer quizId, ParticipationDto participation) {
+
+    public enum Type {
+        JOINED,
+        SUBMITTED,
+        FRAUD
+    }
+}
@@ -0,0 +1,19 @@
+package com.quizbackend.exception;
+
+/**
+ * Thrown when the password hashing pool cannot take more work within its max wait.
+ * Mapped to 503 with a Retry-After header by GlobalExceptionHandler.
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,13 @@
+package com.quizbackend.exception;
+
+/**
+ * Thrown on the statement that takes a request past its query budget, when
+ * sql.query-budget.enforce is set (tests); in production the overrun is only logged.
+ * The request answers 500 even if a controller catches it (see QueryBudgetResponseAdvice).
+ */
+public class QueryBudgetExceededException extends RuntimeException {
+
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,69 @@
+package com.quizbackend.repository;
+
+import com.quizbackend.entity.ArchivedParticipation;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface ArchivedParticipationRepository extends JpaRepository<ArchivedParticipation, Integer> {
+
+    List<ArchivedParticipation> findByUserIdOrderByCreatedAtDesc(Integer userId);
+
+    List<ArchivedParticipation> findByQuizId(Integer quizId);
+
+    long countByQuizId(Integer quizId);
+
+    // Same grouping as ParticipationRepository.countScoresByQuizIds
+    @Query("SELECT a.quizId, a.score, COUNT(a) FROM ArchivedParticipation a WHERE a.quizId IN :quizIds GROUP BY a.quizId, a.score")
+    List<Object[]> countScoresByQuizIds(@Param("quizIds") Collection<Integer> quizIds);
+
+    boolean existsByQuizIdAndUserId(Integer quizId, Integer userId);
+
+    // Same columns as ParticipationRepository.streamResultRowsByQuizId
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT a.id, a.userId, u.username, u.email, a.guestId, g.pseudo, a.score, a.isFraud, a.createdAt, " +
+           "CASE WHEN a.studentResponses IS NOT NULL THEN true ELSE false END " +
+           "FROM ArchivedParticipation a LEFT JOIN User u ON u.id = a.userId LEFT JOIN Guest g ON g.id = a.guestId " +
+           "WHERE a.quizId = :quizId ORDER BY a.id")
+    Stream<Object[]> streamResultRowsByQuizId(@Param("quizId") Integer quizId);
+
+    // Same count as ParticipationRepository.countByProfessorIdSince
+    @Query("SELECT COUNT(a) FROM ArchivedParticipation a JOIN Quiz q ON q.id = a.quizId " +
+           "WHERE q.professorId = :professorId AND a.createdAt >= :from")
+    long countByProfessorIdSince(@Param("professorId") Integer professorId, @Param("from") LocalDateTime from);
+
+    // Same selection as ParticipationRepository.findSubmittedScoresByQuizId
+    @Query("SELECT a.score FROM ArchivedParticipation a WHERE a.quizId = :quizId AND a.studentResponses IS NOT NULL AND a.isFraud = false")
+    List<BigDecimal> findSubmittedScoresByQuizId(@Param("quizId") Integer quizId);
+
+    // Move participations into the archive; ids are kept so their answers still line up
+    @Modifying
+    @Query("INSERT INTO ArchivedParticipation (id, quizId, userId, guestId, score, isFraud, createdAt, submittedAt, " +
+           "studentResponses, archivedAt) " +
+           "SELECT p.id, p.quizId, p.userId, p.guestId, p.score, p.isFraud, p.createdAt, p.submittedAt, " +
+           "p.studentResponses, CURRENT_TIMESTAMP FROM Participation p WHERE p.id IN :ids")
+    int copyFromParticipations(@Param("ids") Collection<Integer> ids);
+
+    @Query("SELECT a.id FROM ArchivedParticipation a WHERE a.quizId IN :quizIds")
+    List<Integer> findIdsByQuizIds(@Param("quizIds") Collection<Integer> quizIds, org.springframework.data.domain.Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM ArchivedParticipation a WHERE a.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Integer> ids);
+
+    @Modifying
+    @Query("DELETE FROM ArchivedParticipation a WHERE a.guestId IN :guestIds")
+    int deleteByGuestIds(@Param("guestIds") Collection<Integer> guestIds);
+}
@@ -0,0 +1,14 @@
+package com.quizbackend.repository;
+
+import com.quizbackend.entity.DailyActivity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyActivityRepository extends JpaRepository<DailyActivity, LocalDate> {
+
+    List<DailyActivity> findByActivityDateBetweenOrderByActivityDate(LocalDate from, LocalDate to);
+}
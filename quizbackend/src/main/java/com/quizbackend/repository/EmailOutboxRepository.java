@@ -0,0 +1,33 @@
+package com.quizbackend.repository;
+
+import com.quizbackend.entity.EmailOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Integer> {
+
+    @Query("SELECT e.id FROM EmailOutbox e WHERE e.status = :status AND e.nextAttemptAt <= :now ORDER BY e.id")
+    List<Integer> findDueIds(@Param("status") EmailOutbox.Status status, @Param("now") LocalDateTime now, Pageable pageable);
+
+    // Claims the rows still due; rows another dispatcher claimed first no longer match
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox e SET e.claimToken = :token, e.nextAttemptAt = :leaseUntil " +
+           "WHERE e.id IN :ids AND e.status = :status AND e.nextAttemptAt <= :now")
+    int claim(@Param("ids") Collection<Integer> ids, @Param("status") EmailOutbox.Status status,
+              @Param("now") LocalDateTime now, @Param("token") String token, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    List<EmailOutbox> findByClaimTokenAndStatusOrderByIdAsc(String claimToken, EmailOutbox.Status status);
+
+    long countByStatus(EmailOutbox.Status status);
+}
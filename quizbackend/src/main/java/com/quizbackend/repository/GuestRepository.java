@@ -1,9 +1,25 @@
 package com.quizbackend.repository;
 
 import com.quizbackend.entity.Guest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface GuestRepository extends JpaRepository<Guest, Integer> {
+
+    // Oldest guests first, for the retention purge
+    @Query("SELECT g.id FROM Guest g WHERE g.createdAt < :cutoff ORDER BY g.createdAt, g.id")
+    List<Integer> findIdsCreatedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Guest g WHERE g.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Integer> ids);
 }
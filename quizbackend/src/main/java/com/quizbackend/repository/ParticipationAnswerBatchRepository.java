@@ -0,0 +1,16 @@
+package com.quizbackend.repository;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * JDBC batch writes for participation answers, mixed into ParticipationAnswerRepository
+ */
+public interface ParticipationAnswerBatchRepository {
+
+    /**
+     * Store the selected responses of each participation (participation id to response ids) in
+     * one batch. Responses that do not belong to the participation's quiz are dropped.
+     */
+    void insertAnswers(Integer quizId, Map<Integer, ? extends Collection<Integer>> selectedByParticipation);
+}
@@ -0,0 +1,42 @@
+package com.quizbackend.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+public class ParticipationAnswerBatchRepositoryImpl implements ParticipationAnswerBatchRepository {
+
+    // Question id is looked up, and quiz membership checked, by the insert itself
+    private static final String INSERT_ANSWER =
+            "INSERT INTO participation_answers (participation_id, response_id, question_id, quiz_id) " +
+            "SELECT ?, r.id, r.question_id, q.quiz_id FROM responses r " +
+            "JOIN questions q ON q.id = r.question_id WHERE r.id = ? AND q.quiz_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Same DataSource as the JPA transaction manager, so these writes join the caller's transaction
+    public ParticipationAnswerBatchRepositoryImpl(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void insertAnswers(Integer quizId, Map<Integer, ? extends Collection<Integer>> selectedByParticipation) {
+        List<Object[]> rows = new ArrayList<>();
+        selectedByParticipation.forEach((participationId, responseIds) -> {
+            for (Integer responseId : new LinkedHashSet<>(responseIds)) {
+                if (responseId == null) {
+                    continue;
+                }
+                rows.add(new Object[]{participationId, responseId, quizId});
+            }
+        });
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ANSWER, rows);
+        }
+    }
+}
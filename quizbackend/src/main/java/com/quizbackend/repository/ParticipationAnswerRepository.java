@@ -0,0 +1,49 @@
+package com.quizbackend.repository;
+
+import com.quizbackend.entity.ParticipationAnswer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ParticipationAnswerRepository
+        extends JpaRepository<ParticipationAnswer, ParticipationAnswer.Key>, ParticipationAnswerBatchRepository {
+
+    @Query("SELECT a.responseId FROM ParticipationAnswer a WHERE a.participationId = :participationId")
+    List<Integer> findResponseIdsByParticipationId(@Param("participationId") Integer participationId);
+
+    // [participationId, responseId] for every answer of a quiz
+    @Query("SELECT a.participationId, a.responseId FROM ParticipationAnswer a WHERE a.quizId = :quizId")
+    List<Object[]> findAnswerPairsByQuizId(@Param("quizId") Integer quizId);
+
+    @Modifying
+    @Query("DELETE FROM ParticipationAnswer a WHERE a.participationId = :participationId")
+    int deleteByParticipationId(@Param("participationId") Integer participationId);
+
+    @Modifying
+    @Query("DELETE FROM ParticipationAnswer a WHERE a.participationId IN " +
+           "(SELECT p.id FROM Participation p WHERE p.guestId IN :guestIds)")
+    int deleteByGuestIds(@Param("guestIds") Collection<Integer> guestIds);
+
+    @Modifying
+    @Query("DELETE FROM ParticipationAnswer a WHERE a.participationId IN " +
+           "(SELECT ap.id FROM ArchivedParticipation ap WHERE ap.guestId IN :guestIds)")
+    int deleteArchivedByGuestIds(@Param("guestIds") Collection<Integer> guestIds);
+
+    @Modifying
+    @Query("DELETE FROM ParticipationAnswer a WHERE a.participationId IN :participationIds")
+    int deleteByParticipationIds(@Param("participationIds") Collection<Integer> participationIds);
+
+    @Modifying
+    @Query("DELETE FROM ParticipationAnswer a WHERE a.quizId = :quizId")
+    int deleteByQuizId(@Param("quizId") Integer quizId);
+
+    @Modifying
+    @Query("DELETE FROM ParticipationAnswer a WHERE a.quizId IN :quizIds")
+    int deleteByQuizIds(@Param("quizIds") Collection<Integer> quizIds);
+}
@@ -1,27 +1,104 @@
 package com.quizbackend.repository;
 
 import com.quizbackend.entity.Participation;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ParticipationRepository extends JpaRepository<Participation, Integer> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     List<Participation> findByQuizId(Integer quizId);
     
     @Query("SELECT p FROM Participation p LEFT JOIN FETCH p.user LEFT JOIN FETCH p.guest WHERE p.quizId = :quizId")
     List<Participation> findByQuizIdWithUserAndGuest(Integer quizId);
     
+    // Forward-only result rows for exports: [id, userId, username, email, guestId, pseudo, score, isFraud, createdAt, submitted].
+    // Scalar rows are never managed by the persistence context, so it does not grow while streaming.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p.id, p.userId, u.username, u.email, p.guestId, g.pseudo, p.score, p.isFraud, p.createdAt, " +
+           "CASE WHEN p.studentResponses IS NOT NULL THEN true ELSE false END " +
+           "FROM Participation p LEFT JOIN p.user u LEFT JOIN p.guest g WHERE p.quizId = :quizId ORDER BY p.id")
+    Stream<Object[]> streamResultRowsByQuizId(@Param("quizId") Integer quizId);
+
+    // [day, count] of submissions since the given time
+    @Query("SELECT cast(p.submittedAt as LocalDate), COUNT(p) FROM Participation p WHERE p.submittedAt >= :from " +
+           "GROUP BY cast(p.submittedAt as LocalDate)")
+    List<Object[]> countSubmittedPerDaySince(@Param("from") java.time.LocalDateTime from);
+
+    // Same for submissions made before submission times were recorded, dated by when they were started
+    @Query("SELECT cast(p.createdAt as LocalDate), COUNT(p) FROM Participation p WHERE p.submittedAt IS NULL " +
+           "AND p.studentResponses IS NOT NULL AND p.createdAt >= :from GROUP BY cast(p.createdAt as LocalDate)")
+    List<Object[]> countUntimedSubmissionsPerDaySince(@Param("from") java.time.LocalDateTime from);
+
+    // Scores of submitted participations that count towards statistics
+    @Query("SELECT p.score FROM Participation p WHERE p.quizId = :quizId AND p.studentResponses IS NOT NULL AND p.isFraud = false")
+    List<java.math.BigDecimal> findSubmittedScoresByQuizId(@Param("quizId") Integer quizId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     List<Participation> findByUserId(Integer userId);
+
+    // Inner join: participations of a deleted quiz waiting for the purge are left out
+    @Query("SELECT p FROM Participation p JOIN FETCH p.quiz WHERE p.userId = :userId")
+    List<Participation> findByUserIdWithQuiz(@Param("userId") Integer userId);
     List<Participation> findByGuestId(Integer guestId);
     Optional<Participation> findByQuizIdAndUserId(Integer quizId, Integer userId);
     Optional<Participation> findByQuizIdAndGuestId(Integer quizId, Integer guestId);
     boolean existsByQuizIdAndUserId(Integer quizId, Integer userId);
     boolean existsByQuizIdAndGuestId(Integer quizId, Integer guestId);
 
+    @Modifying
+    @Query("DELETE FROM Participation p WHERE p.guestId IN :guestIds")
+    int deleteByGuestIds(@Param("guestIds") Collection<Integer> guestIds);
+
+    @Modifying
+    @Query("DELETE FROM Participation p WHERE p.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Integer> ids);
+
+    @Query("SELECT p.id FROM Participation p WHERE p.quizId IN :quizIds")
+    List<Integer> findIdsByQuizIds(@Param("quizIds") Collection<Integer> quizIds, org.springframework.data.domain.Pageable pageable);
+
+    // Oldest participations first, for archiving
+    @Query("SELECT p.id FROM Participation p WHERE p.createdAt < :cutoff ORDER BY p.createdAt, p.id")
+    List<Integer> findIdsCreatedBefore(@Param("cutoff") java.time.LocalDateTime cutoff, org.springframework.data.domain.Pageable pageable);
+
+    // Per-student totals of the given participations: [userId, count, scored count, score sum, best score, perfect scores]
+    @Query("SELECT p.userId, COUNT(p), COUNT(p.score), SUM(p.score), MAX(p.score), " +
+           "SUM(CASE WHEN p.score = 100 THEN 1 ELSE 0 END) " +
+           "FROM Participation p WHERE p.id IN :ids AND p.userId IS NOT NULL GROUP BY p.userId")
+    List<Object[]> summarizeByUserForIds(@Param("ids") Collection<Integer> ids);
+
+    // [userId, count, scored count, score sum] per student, merged with archived totals for leaderboards
+    @Query("SELECT p.userId, COUNT(p), COUNT(p.score), SUM(p.score) FROM Participation p " +
+           "WHERE p.userId IS NOT NULL GROUP BY p.userId")
+    List<Object[]> summarizeByUser();
+
+    // [scored count, score sum] of one student's live participations
+    @Query("SELECT COUNT(p.score), SUM(p.score) FROM Participation p WHERE p.userId = :userId")
+    List<Object[]> summarizeScoresByUserId(@Param("userId") Integer userId);
+
+    long countByQuizIdAndScoreGreaterThan(Integer quizId, java.math.BigDecimal score);
+
+    // [quizId, score, count] over the given quizzes, to rank scores without a count per participation
+    @Query("SELECT p.quizId, p.score, COUNT(p) FROM Participation p WHERE p.quizId IN :quizIds GROUP BY p.quizId, p.score")
+    List<Object[]> countScoresByQuizIds(@Param("quizIds") Collection<Integer> quizIds);
+
+    // Participants of a quiz and participations started in a professor's quizzes, for plan quotas
+    long countByQuizId(Integer quizId);
+
+    @Query("SELECT COUNT(p) FROM Participation p JOIN p.quiz q WHERE q.professorId = :professorId AND p.createdAt >= :from")
+    long countByProfessorIdSince(@Param("professorId") Integer professorId, @Param("from") java.time.LocalDateTime from);
+
     // Aggregation queries for student statistics
     @Query("SELECT COUNT(p) FROM Participation p WHERE p.userId = ?1")
     long countByUserId(Integer userId);
@@ -35,13 +112,14 @@ public interface ParticipationRepository extends JpaRepository<Participation, In
     @Query("SELECT COUNT(p) FROM Participation p WHERE p.userId = ?1 AND p.score = 100")
     long countPerfectScoresByUserId(Integer userId);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     @Query("SELECT p FROM Participation p WHERE p.userId = ?1 ORDER BY p.createdAt DESC")
     List<Participation> findByUserIdOrderByCreatedAtDesc(Integer userId);
 
     // For leaderboard and active students
-    @Query("SELECT p.userId, COUNT(p), AVG(p.score) FROM Participation p GROUP BY p.userId ORDER BY AVG(p.score) DESC")
+    @Query("SELECT p.userId, COUNT(p), CAST(AVG(p.score) AS BigDecimal) FROM Participation p GROUP BY p.userId ORDER BY AVG(p.score) DESC")
     List<Object[]> findLeaderboardByAverageScore();
 
-    @Query("SELECT p.userId, COUNT(p), AVG(p.score) FROM Participation p GROUP BY p.userId ORDER BY COUNT(p) DESC")
+    @Query("SELECT p.userId, COUNT(p), CAST(AVG(p.score) AS BigDecimal) FROM Participation p GROUP BY p.userId ORDER BY COUNT(p) DESC")
     List<Object[]> findMostActiveByParticipationCount();
 }
@@ -3,9 +3,13 @@ package com.quizbackend.repository;
 import com.quizbackend.entity.Professor;
 import com.quizbackend.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,4 +19,16 @@ public interface ProfessorRepository extends JpaRepository<Professor, Integer> {
     
     @Query("SELECT p FROM Professor p WHERE p.user.email = ?1")
     Optional<Professor> findByEmail(String email);
+
+    // Professors created before roles were recorded have none and are on the free plan
+    @Query("SELECT COALESCE(p.role, 'PROFESSOR_FREE') FROM Professor p WHERE p.userId = :professorId")
+    Optional<String> findRoleByUserId(@Param("professorId") Integer professorId);
+
+    // VIP professors among the given ones that no longer have an active, unexpired subscription
+    @Modifying
+    @Query("UPDATE Professor p SET p.role = 'PROFESSOR_FREE' " +
+           "WHERE p.userId IN :professorIds AND p.role = 'PROFESSOR_VIP' " +
+           "AND NOT EXISTS (SELECT ps.id FROM ProfessorSubscription ps " +
+           "WHERE ps.professorId = p.userId AND ps.isActive = true AND ps.endDate > :now)")
+    int downgradeExpiredVip(@Param("professorIds") Collection<Integer> professorIds, @Param("now") LocalDateTime now);
 }
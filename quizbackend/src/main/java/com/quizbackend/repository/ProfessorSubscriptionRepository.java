@@ -2,21 +2,57 @@ package com.quizbackend.repository;
 
 import com.quizbackend.entity.ProfessorSubscription;
 import com.quizbackend.entity.Professor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProfessorSubscriptionRepository extends JpaRepository<ProfessorSubscription, Integer> {
     
     List<ProfessorSubscription> findByProfessorId(Integer professorId);
+
+    Optional<ProfessorSubscription> findFirstByProfessorIdAndIsActiveTrueAndEndDateAfterOrderByEndDateDesc(Integer professorId, LocalDateTime now);
     
+    // Active subscriptions past their end date, oldest first: [id, professorId]
+    @Query("SELECT ps.id, ps.professorId FROM ProfessorSubscription ps " +
+           "WHERE ps.isActive = true AND ps.endDate <= :now ORDER BY ps.endDate, ps.id")
+    List<Object[]> findDueForExpiry(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE ProfessorSubscription ps SET ps.isActive = false WHERE ps.id IN :ids AND ps.isActive = true")
+    int deactivateByIds(@Param("ids") Collection<Integer> ids);
+
     List<ProfessorSubscription> findByIsActiveTrue();
     
     List<ProfessorSubscription> findByIsActiveFalse();
     
     @Query("SELECT ps FROM ProfessorSubscription ps ORDER BY ps.createdAt DESC")
     List<ProfessorSubscription> findAllOrderByCreatedAtDesc();
+
+    // Admin listing with the owner's name in one query: [id, professorId, planType, price, startDate, endDate,
+    // paymentMethod, isActive, createdAt, firstName, lastName]; null filters are ignored, expiry bounds are [after, before)
+    @Query(value = "SELECT ps.id, ps.professorId, ps.planType, ps.price, ps.startDate, ps.endDate, ps.paymentMethod, " +
+                   "ps.isActive, ps.createdAt, p.firstName, p.lastName " +
+                   "FROM ProfessorSubscription ps LEFT JOIN ps.professor p " +
+                   "WHERE (:active IS NULL OR ps.isActive = :active) " +
+                   "AND (:expiresAfter IS NULL OR ps.endDate >= :expiresAfter) " +
+                   "AND (:expiresBefore IS NULL OR ps.endDate < :expiresBefore) " +
+                   "ORDER BY ps.createdAt DESC, ps.id DESC",
+           countQuery = "SELECT COUNT(ps) FROM ProfessorSubscription ps " +
+                        "WHERE (:active IS NULL OR ps.isActive = :active) " +
+                        "AND (:expiresAfter IS NULL OR ps.endDate >= :expiresAfter) " +
+                        "AND (:expiresBefore IS NULL OR ps.endDate < :expiresBefore)")
+    Page<Object[]> findSummaries(@Param("active") Boolean active,
+                                 @Param("expiresAfter") LocalDateTime expiresAfter,
+                                 @Param("expiresBefore") LocalDateTime expiresBefore,
+                                 Pageable pageable);
 }
\ No newline at end of file
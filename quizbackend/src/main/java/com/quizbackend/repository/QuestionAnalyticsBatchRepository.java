@@ -0,0 +1,17 @@
+package com.quizbackend.repository;
+
+import com.quizbackend.entity.QuestionAnalytics;
+
+import java.util.Collection;
+
+/**
+ * JDBC batch upserts for question analytics, mixed into QuestionAnalyticsRepository
+ */
+public interface QuestionAnalyticsBatchRepository {
+
+    /**
+     * Add each delta's counts to its question's row, creating the row if missing, in one batch.
+     * Nothing is read or locked beforehand.
+     */
+    void addDeltas(Collection<QuestionAnalytics> deltas);
+}
@@ -0,0 +1,38 @@
+package com.quizbackend.repository;
+
+import com.quizbackend.entity.QuestionAnalytics;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+public class QuestionAnalyticsBatchRepositoryImpl implements QuestionAnalyticsBatchRepository {
+
+    private static final String ADD_DELTA =
+            "INSERT INTO question_analytics (question_id, quiz_id, answered, correct, correct_score_sum) " +
+            "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE answered = answered + VALUES(answered), " +
+            "correct = correct + VALUES(correct), correct_score_sum = correct_score_sum + VALUES(correct_score_sum)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Same DataSource as the JPA transaction manager, so these writes join the caller's transaction
+    public QuestionAnalyticsBatchRepositoryImpl(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void addDeltas(Collection<QuestionAnalytics> deltas) {
+        // In key order, so concurrent submissions lock shared rows in the same order
+        List<Object[]> rows = deltas.stream()
+                .filter(delta -> delta.getAnswered() != 0 || delta.getCorrect() != 0 || delta.getCorrectScoreSum() != 0)
+                .sorted(Comparator.comparing(QuestionAnalytics::getQuestionId))
+                .map(delta -> new Object[]{delta.getQuestionId(), delta.getQuizId(), delta.getAnswered(),
+                        delta.getCorrect(), delta.getCorrectScoreSum()})
+                .toList();
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(ADD_DELTA, rows);
+        }
+    }
+}
@@ -2,11 +2,19 @@ package com.quizbackend.repository;
 
 import com.quizbackend.entity.Question;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface QuestionRepository extends JpaRepository<Question, Integer> {
     List<Question> findByQuizId(Integer quizId);
+
+    @Modifying
+    @Query("DELETE FROM Question q WHERE q.quizId IN :quizIds")
+    int deleteByQuizIds(@Param("quizIds") Collection<Integer> quizIds);
 }
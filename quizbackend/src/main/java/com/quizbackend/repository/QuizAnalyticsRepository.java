@@ -0,0 +1,44 @@
+package com.quizbackend.repository;
+
+import com.quizbackend.entity.QuizAnalytics;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+@Repository
+public interface QuizAnalyticsRepository extends JpaRepository<QuizAnalytics, Integer> {
+
+    // Locking read: sees rows committed after the transaction's snapshot was taken
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<QuizAnalytics> findByQuizId(Integer quizId);
+
+    // Creates the row or, when it exists, write-locks it, in the caller's transaction
+    @Modifying
+    @Query(value = "INSERT INTO quiz_analytics (quiz_id, submissions, score_sum, score_square_sum) VALUES (:quizId, 0, 0, 0) " +
+            "ON DUPLICATE KEY UPDATE quiz_id = quiz_id",
+            nativeQuery = true)
+    int insertEmpty(@Param("quizId") Integer quizId);
+
+    // Adds in place, creating the row on the quiz's first submission; no read lock beforehand
+    @Modifying
+    @Query(value = "INSERT INTO quiz_analytics (quiz_id, submissions, score_sum, score_square_sum, updated_at) " +
+            "VALUES (:quizId, :submissions, :scoreSum, :scoreSquareSum, :updatedAt) ON DUPLICATE KEY UPDATE " +
+            "submissions = submissions + VALUES(submissions), score_sum = score_sum + VALUES(score_sum), " +
+            "score_square_sum = score_square_sum + VALUES(score_square_sum), updated_at = VALUES(updated_at)",
+            nativeQuery = true)
+    int addTotals(@Param("quizId") Integer quizId, @Param("submissions") long submissions,
+                  @Param("scoreSum") double scoreSum, @Param("scoreSquareSum") double scoreSquareSum,
+                  @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying
+    @Query("DELETE FROM QuizAnalytics a WHERE a.quizId IN :quizIds")
+    int deleteByQuizIds(@Param("quizIds") Collection<Integer> quizIds);
+}
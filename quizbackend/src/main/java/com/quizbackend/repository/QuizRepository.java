@@ -1,11 +1,15 @@
 package com.quizbackend.repository;
 
 import com.quizbackend.entity.Quiz;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +19,30 @@ public interface QuizRepository extends JpaRepository<Quiz, Integer> {
     Optional<Quiz> findByCode(String code);
     boolean existsByCode(String code);
 
+    // Quizzes that count towards a professor's plan quota (everything not archived)
+    long countByProfessorIdAndStatusNot(Integer professorId, Quiz.Status status);
+
     @Query("SELECT q FROM Quiz q LEFT JOIN FETCH q.questions qs LEFT JOIN FETCH qs.responses WHERE q.id = :id")
     Optional<Quiz> findByIdWithQuestions(@Param("id") Integer id);
+
+    // Newest quizzes for the admin report: [id, title, code, status, professorId, createdAt]
+    @Query("SELECT q.id, q.title, q.code, q.status, q.professorId, q.createdAt FROM Quiz q ORDER BY q.createdAt DESC")
+    List<Object[]> findRecent(Pageable pageable);
+
+    // [day, count] of quizzes created since the given time
+    @Query("SELECT cast(q.createdAt as LocalDate), COUNT(q) FROM Quiz q WHERE q.createdAt >= :from " +
+           "GROUP BY cast(q.createdAt as LocalDate)")
+    List<Object[]> countCreatedPerDaySince(@Param("from") LocalDateTime from);
+
+    // Soft-deleted quizzes are hidden from entity queries, so the purge reads and removes them natively
+    @Query(value = "SELECT id FROM quizzes WHERE deleted_at IS NOT NULL ORDER BY deleted_at, id", nativeQuery = true)
+    List<Integer> findDeletedIds(Pageable pageable);
+
+    @Modifying
+    @Query(value = "DELETE FROM quizzes WHERE id IN (:ids) AND deleted_at IS NOT NULL", nativeQuery = true)
+    int deleteDeletedByIds(@Param("ids") Collection<Integer> ids);
+
+    // Codes stay unique across soft-deleted quizzes too, which only a native query sees
+    @Query(value = "SELECT COUNT(*) FROM quizzes WHERE code = :code", nativeQuery = true)
+    long countByCodeIncludingDeleted(@Param("code") String code);
 }
@@ -1,10 +1,16 @@
 package com.quizbackend.repository;
 
+import com.quizbackend.dto.ReclamationSummaryDto;
 import com.quizbackend.entity.Reclamation;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -13,9 +19,35 @@ public interface ReclamationRepository extends JpaRepository<Reclamation, Intege
     List<Reclamation> findByUserId(Integer userId);
     
     List<Reclamation> findByStatus(Reclamation.Status status);
+
+    long countByStatus(Reclamation.Status status);
     
     List<Reclamation> findByPriority(Reclamation.Priority priority);
     
     @Query("SELECT r FROM Reclamation r ORDER BY r.createdAt DESC")
     List<Reclamation> findAllOrderByCreatedAtDesc();
+
+    // Inbox page: most urgent first, then newest. Null filters are ignored; the after* values are the
+    // last row of the previous page (keyset), all null for the first page.
+    @Query("SELECT new com.quizbackend.dto.ReclamationSummaryDto(r.id, r.userId, u.username, r.subject, r.message, " +
+           "r.status, r.priority, r.priorityRank, r.responseText, r.createdAt, r.updatedAt) " +
+           "FROM Reclamation r LEFT JOIN r.user u " +
+           "WHERE (:status IS NULL OR r.status = :status) " +
+           "AND (:priorityRank IS NULL OR r.priorityRank = :priorityRank) " +
+           "AND (:afterRank IS NULL OR r.priorityRank < :afterRank " +
+           "     OR (r.priorityRank = :afterRank AND (r.createdAt < :afterCreatedAt " +
+           "         OR (r.createdAt = :afterCreatedAt AND r.id < :afterId)))) " +
+           "ORDER BY r.priorityRank DESC, r.createdAt DESC, r.id DESC")
+    List<ReclamationSummaryDto> findInboxPage(@Param("status") Reclamation.Status status,
+                                              @Param("priorityRank") Integer priorityRank,
+                                              @Param("afterRank") Integer afterRank,
+                                              @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                              @Param("afterId") Integer afterId,
+                                              Pageable pageable);
+
+    // Rows stored before priority_rank existed have none and would never appear in the inbox
+    @Modifying
+    @Transactional
+    @Query("UPDATE Reclamation r SET r.priorityRank = :rank WHERE r.priority = :priority AND r.priorityRank IS NULL")
+    int fillPriorityRank(@Param("priority") Reclamation.Priority priority, @Param("rank") Integer rank);
 }
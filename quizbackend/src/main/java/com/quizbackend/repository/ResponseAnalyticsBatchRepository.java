@@ -0,0 +1,17 @@
+package com.quizbackend.repository;
+
+import com.quizbackend.entity.ResponseAnalytics;
+
+import java.util.Collection;
+
+/**
+ * JDBC batch upserts for response analytics, mixed into ResponseAnalyticsRepository
+ */
+public interface ResponseAnalyticsBatchRepository {
+
+    /**
+     * Add each delta's selections to its response's row, creating the row if missing, in one
+     * batch. Nothing is read or locked beforehand.
+     */
+    void addDeltas(Collection<ResponseAnalytics> deltas);
+}
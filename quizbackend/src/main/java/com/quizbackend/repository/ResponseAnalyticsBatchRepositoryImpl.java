@@ -0,0 +1,37 @@
+package com.quizbackend.repository;
+
+import com.quizbackend.entity.ResponseAnalytics;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+public class ResponseAnalyticsBatchRepositoryImpl implements ResponseAnalyticsBatchRepository {
+
+    private static final String ADD_DELTA =
+            "INSERT INTO response_analytics (response_id, question_id, quiz_id, selections) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE selections = selections + VALUES(selections)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Same DataSource as the JPA transaction manager, so these writes join the caller's transaction
+    public ResponseAnalyticsBatchRepositoryImpl(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void addDeltas(Collection<ResponseAnalytics> deltas) {
+        // In key order, so concurrent submissions lock shared rows in the same order
+        List<Object[]> rows = deltas.stream()
+                .filter(delta -> delta.getSelections() != 0)
+                .sorted(Comparator.comparing(ResponseAnalytics::getResponseId))
+                .map(delta -> new Object[]{delta.getResponseId(), delta.getQuestionId(), delta.getQuizId(),
+                        delta.getSelections()})
+                .toList();
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(ADD_DELTA, rows);
+        }
+    }
+}
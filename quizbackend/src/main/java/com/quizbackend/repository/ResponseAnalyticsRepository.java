@@ -0,0 +1,25 @@
+package com.quizbackend.repository;
+
+import com.quizbackend.entity.ResponseAnalytics;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ResponseAnalyticsRepository extends JpaRepository<ResponseAnalytics, Integer>, ResponseAnalyticsBatchRepository {
+
+    List<ResponseAnalytics> findByQuizId(Integer quizId);
+
+    @Modifying
+    @Query("DELETE FROM ResponseAnalytics a WHERE a.quizId = :quizId")
+    int deleteByQuizId(@Param("quizId") Integer quizId);
+
+    @Modifying
+    @Query("DELETE FROM ResponseAnalytics a WHERE a.quizId IN :quizIds")
+    int deleteByQuizIds(@Param("quizIds") Collection<Integer> quizIds);
+}
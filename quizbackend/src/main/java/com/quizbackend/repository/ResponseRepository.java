@@ -2,8 +2,12 @@ package com.quizbackend.repository;
 
 import com.quizbackend.entity.Response;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -11,4 +15,11 @@ public interface ResponseRepository extends JpaRepository<Response, Integer> {
     List<Response> findByQuestionId(Integer questionId);
     List<Response> findByQuestionIdAndIsCorrectTrue(Integer questionId);
     List<Response> findAllById(Iterable<Integer> ids);
+
+    @Query("SELECT r FROM Response r WHERE r.questionId IN (SELECT q.id FROM Question q WHERE q.quizId = :quizId)")
+    List<Response> findByQuizId(@Param("quizId") Integer quizId);
+
+    @Modifying
+    @Query("DELETE FROM Response r WHERE r.questionId IN (SELECT q.id FROM Question q WHERE q.quizId IN :quizIds)")
+    int deleteByQuizIds(@Param("quizIds") Collection<Integer> quizIds);
 }
@@ -0,0 +1,35 @@
+package com.quizbackend.repository;
+
+import com.quizbackend.entity.ScoreDistribution;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ScoreDistributionRepository extends JpaRepository<ScoreDistribution, Integer> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<ScoreDistribution> findByQuizId(Integer quizId);
+
+    // Creates the row or, when it exists, write-locks it, in the caller's transaction
+    @Modifying
+    @Query(value = "INSERT INTO score_distributions (quiz_id, submissions, bucket_counts) VALUES (:quizId, 0, :bucketCounts) " +
+            "ON DUPLICATE KEY UPDATE quiz_id = quiz_id",
+            nativeQuery = true)
+    int insertEmpty(@Param("quizId") Integer quizId, @Param("bucketCounts") byte[] bucketCounts);
+
+    @Query("SELECT d FROM ScoreDistribution d WHERE d.quizId IN (SELECT q.id FROM Quiz q WHERE q.professorId = :professorId)")
+    List<ScoreDistribution> findByProfessorId(@Param("professorId") Integer professorId);
+
+    @Modifying
+    @Query("DELETE FROM ScoreDistribution d WHERE d.quizId IN :quizIds")
+    int deleteByQuizIds(@Param("quizIds") Collection<Integer> quizIds);
+}
@@ -0,0 +1,9 @@
+package com.quizbackend.repository;
+
+import com.quizbackend.entity.StudentArchiveStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StudentArchiveStatsRepository extends JpaRepository<StudentArchiveStats, Integer> {
+}
@@ -2,10 +2,14 @@ package com.quizbackend.repository;
 
 import com.quizbackend.entity.Student;
 import com.quizbackend.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,4 +25,18 @@ public interface StudentRepository extends JpaRepository<Student, Integer> {
 
     @Query("SELECT s FROM Student s ORDER BY s.createdAt DESC")
     List<Student> findAllOrderByCreatedAtDesc();
+
+    // Newest students for the admin report: [id, userId, username, firstName, lastName, createdAt]
+    @Query("SELECT s.id, u.id, u.username, s.firstName, s.lastName, s.createdAt FROM Student s JOIN s.user u " +
+           "ORDER BY s.createdAt DESC")
+    List<Object[]> findRecent(Pageable pageable);
+
+    // [userId, username, firstName, lastName] of the given users, for the leaderboards
+    @Query("SELECT u.id, u.username, s.firstName, s.lastName FROM Student s JOIN s.user u WHERE u.id IN :userIds")
+    List<Object[]> findNamesByUserIds(@Param("userIds") Collection<Integer> userIds);
+
+    // [day, count] of students registered since the given time
+    @Query("SELECT cast(s.createdAt as LocalDate), COUNT(s) FROM Student s WHERE s.createdAt >= :from " +
+           "GROUP BY cast(s.createdAt as LocalDate)")
+    List<Object[]> countCreatedPerDaySince(@Param("from") LocalDateTime from);
 }
@@ -1,7 +1,9 @@
 package com.quizbackend.repository;
 
 import com.quizbackend.entity.Subscription;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,4 +12,9 @@ import java.util.List;
 public interface SubscriptionRepository extends JpaRepository<Subscription, Integer> {
     List<Subscription> findAll();
     Subscription findByName(String name);
+
+    // Plans with how many professors are on each: [id, name, price, durationDays, professors]
+    @Query("SELECT s.id, s.name, s.price, s.durationDays, COUNT(p) FROM Subscription s LEFT JOIN s.professors p " +
+           "GROUP BY s.id, s.name, s.price, s.durationDays ORDER BY s.price")
+    List<Object[]> findPlanSummaries(Pageable pageable);
 }
\ No newline at end of file
@@ -1,11 +1,15 @@
 package com.quizbackend.repository;
 
+import com.quizbackend.dto.LoginProfileDto;
 import com.quizbackend.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
@@ -18,4 +22,28 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     Optional<User> findByEmailVerificationToken(String emailVerificationToken);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    /**
+     * Everything the login response needs in one round-trip. The subscription join keeps
+     * only the active, unexpired subscription with the latest end date (LIMIT 1).
+     */
+    @Query("SELECT new com.quizbackend.dto.LoginProfileDto(" +
+           "u.id, u.username, u.email, u.password, u.role, u.enabled, u.emailVerified, " +
+           "s.id, s.firstName, s.lastName, " +
+           "p.userId, p.firstName, p.lastName, " +
+           "ps.id, ps.planType, ps.price, ps.startDate, ps.endDate, ps.isActive) " +
+           "FROM User u " +
+           "LEFT JOIN Student s ON s.user = u " +
+           "LEFT JOIN Professor p ON p.userId = u.id " +
+           "LEFT JOIN ProfessorSubscription ps ON ps.id = (" +
+           "SELECT ps2.id FROM ProfessorSubscription ps2 " +
+           "WHERE ps2.professorId = p.userId AND ps2.isActive = true AND ps2.endDate > :now " +
+           "ORDER BY ps2.endDate DESC LIMIT 1) " +
+           "WHERE u.username = :username")
+    Optional<LoginProfileDto> findLoginProfile(@Param("username") String username, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Integer id, @Param("password") String password);
 }
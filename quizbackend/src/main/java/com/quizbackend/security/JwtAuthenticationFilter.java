@@ -1,5 +1,7 @@
 package com.quizbackend.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -20,13 +22,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                   FilterChain filterChain) throws ServletException, IOException {
         
         String token = extractTokenFromRequest(request);
         
-        if (token != null && jwtUtil.validateToken(token) && !jwtUtil.isTokenExpired(token)) {
+        boolean valid = false;
+        if (token != null) {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            valid = jwtUtil.validateToken(token) && !jwtUtil.isTokenExpired(token);
+            sample.stop(meterRegistry.timer("auth.jwt.verify", "outcome", valid ? "valid" : "invalid"));
+        }
+
+        if (valid) {
             String username = jwtUtil.getUsernameFromToken(token);
             String role = jwtUtil.getRoleFromToken(token);
             
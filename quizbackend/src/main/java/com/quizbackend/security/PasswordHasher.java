@@ -0,0 +1,174 @@
+package com.quizbackend.security;
+
+import com.quizbackend.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs bcrypt on a small dedicated pool so login/registration storms cannot take every
+ * core away from the rest of the API. Callers wait at most max-wait for their hash;
+ * beyond that, or when the queue is full, they get a PasswordHashingBusyException.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHasher.class);
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ThreadPoolExecutor executor;
+    private final Duration maxWait;
+    private final long retryAfterSeconds;
+    private final boolean rehashOnLogin;
+
+    private final LongAdder hashes = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    private Timer encodeTimer;
+    private Timer matchesTimer;
+
+    public PasswordHasher(
+            @Value("${auth.password.hash-threads:0}") int threads,
+            @Value("${auth.password.hash-queue-capacity:200}") int queueCapacity,
+            @Value("${auth.password.hash-max-wait:3s}") Duration maxWait,
+            @Value("${auth.password.retry-after-seconds:2}") long retryAfterSeconds,
+            @Value("${auth.password.rehash-on-login:true}") boolean rehashOnLogin) {
+        // Default to half the cores, leaving the rest for regular request work
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity, true),
+                r -> {
+                    Thread thread = new Thread(r, "password-hash-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.maxWait = maxWait;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.rehashOnLogin = rehashOnLogin;
+        logger.info("Password hashing pool: threads={}, queueCapacity={}, maxWait={}", poolSize, queueCapacity, maxWait);
+    }
+
+    @PostConstruct
+    void registerMeters() {
+        // Hash time only; the wait for a pool thread shows up in the queue gauge and the request timers
+        encodeTimer = Timer.builder("auth.password.hash").tag("operation", "encode").register(meterRegistry);
+        matchesTimer = Timer.builder("auth.password.hash").tag("operation", "matches").register(meterRegistry);
+        Gauge.builder("auth.password.hash.queue", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("auth.password.hash.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+        meterRegistry.more().counter("auth.password.hash.rejected", List.of(), rejected);
+    }
+
+    public String encode(String rawPassword) {
+        return run(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return run(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * True when the stored hash uses an older work factor and should be re-encoded
+     * after a successful login
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return rehashOnLogin && passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    public Map<String, Object> snapshot() {
+        long count = hashes.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threads", executor.getMaximumPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("queueRemainingCapacity", executor.getQueue().remainingCapacity());
+        stats.put("hashes", count);
+        stats.put("rejected", rejected.sum());
+        stats.put("avgHashMs", count == 0 ? 0 : totalNanos.sum() / count / 1_000_000);
+        stats.put("maxHashMs", maxNanos.get() / 1_000_000);
+        return stats;
+    }
+
+    private <T> T run(Timer timer, Callable<T> work) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return work.call();
+                } finally {
+                    long nanos = System.nanoTime() - start;
+                    timer.record(nanos, TimeUnit.NANOSECONDS);
+                    hashes.increment();
+                    totalNanos.add(nanos);
+                    maxNanos.accumulateAndGet(nanos, Math::max);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw busy("Password hashing queue is full");
+        }
+
+        try {
+            return future.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Drop the queued task so it does not burn CPU or a queue slot for a caller that gave up
+            future.cancel(false);
+            executor.remove((Runnable) future);
+            throw busy("Timed out waiting for password hashing");
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            executor.remove((Runnable) future);
+            Thread.currentThread().interrupt();
+            throw busy("Interrupted waiting for password hashing");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("Password hashing failed", cause);
+        }
+    }
+
+    private PasswordHashingBusyException busy(String message) {
+        rejected.increment();
+        logger.warn("{} (queueDepth={}, active={})", message, executor.getQueue().size(), executor.getActiveCount());
+        return new PasswordHashingBusyException("Server is busy, please retry shortly", retryAfterSeconds);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
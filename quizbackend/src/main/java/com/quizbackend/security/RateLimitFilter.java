@@ -0,0 +1,391 @@
+package com.quizbackend.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token-bucket rate limiting for the endpoints that are cheap to call and expensive to serve:
+ * credential endpoints (bcrypt) keyed by client IP and account, quiz join/start/submit keyed by
+ * user, or by IP and guest for anonymous guests, with a quota per role, and live session join and
+ * answer calls keyed by session and participant with their own quota. A whole class behind one
+ * school NAT therefore gets one bucket per person, not one for the room. Runs after
+ * JwtAuthenticationFilter so the role is known, and rejects with 429 before any controller or
+ * database work.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private static final List<String> AUTH_PATHS = List.of(
+            "/auth/login", "/auth/register/**", "/auth/forgot-password",
+            "/auth/reset-password", "/auth/resend-verification");
+
+    private static final List<String> QUIZ_PATHS = List.of(
+            "/quiz/join/**", "/quiz/guest/**", "/quiz/*/start", "/quiz/*/submit");
+
+    // State and stream reads are not limited: they are cheap and every participant opens them at once
+    private static final List<String> LIVE_PATHS = List.of("/quiz/live/*/join", "/quiz/live/*/answer");
+
+    private static final String GUEST = "GUEST";
+
+    // Larger bodies are passed through unread and keyed by IP alone
+    private static final int MAX_KEYED_BODY = 16 * 1024;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> allowed = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> rejected = new ConcurrentHashMap<>();
+    private final LongAdder evicted = new LongAdder();
+
+    private final boolean enabled;
+    private final boolean trustForwardedFor;
+    private final Duration idleTimeout;
+    private final Quota authQuota;
+    private final Quota liveQuota;
+    private final Map<String, Quota> roleQuotas = new LinkedHashMap<>();
+
+    public RateLimitFilter(
+            @Value("${rate-limit.enabled:true}") boolean enabled,
+            @Value("${rate-limit.trust-forwarded-for:false}") boolean trustForwardedFor,
+            @Value("${rate-limit.idle-timeout:10m}") Duration idleTimeout,
+            @Value("${rate-limit.quota.auth:10,20}") String auth,
+            @Value("${rate-limit.quota.live:10,30}") String live,
+            @Value("${rate-limit.quota.guest:20,30}") String guest,
+            @Value("${rate-limit.quota.student:30,60}") String student,
+            @Value("${rate-limit.quota.professor-free:30,60}") String professorFree,
+            @Value("${rate-limit.quota.professor-vip:60,120}") String professorVip) {
+        this.enabled = enabled;
+        this.trustForwardedFor = trustForwardedFor;
+        this.idleTimeout = idleTimeout;
+        this.authQuota = Quota.parse(auth);
+        this.liveQuota = Quota.parse(live);
+        roleQuotas.put(GUEST, Quota.parse(guest));
+        roleQuotas.put("STUDENT", Quota.parse(student));
+        roleQuotas.put("PROFESSOR_FREE", Quota.parse(professorFree));
+        roleQuotas.put("PROFESSOR_VIP", Quota.parse(professorVip));
+        // Admins share the highest professor quota
+        roleQuotas.put("ADMIN", roleQuotas.get("PROFESSOR_VIP"));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getServletPath();
+
+        String scope;
+        String key;
+        Quota quota;
+        if (matches(AUTH_PATHS, path)) {
+            request = new CachedBodyRequest(request);
+            scope = "AUTH";
+            // Per account: a campus login storm shares one IP but not one username
+            key = "auth:ip:" + clientIp(request) + ":account:" + bodyField((CachedBodyRequest) request, "username", "email");
+            quota = authQuota;
+        } else if (matches(LIVE_PATHS, path)) {
+            request = new CachedBodyRequest(request);
+            scope = "LIVE";
+            // /quiz/live/{code}/join: one bucket per participant of each session
+            key = "live:" + path.split("/")[3] + ":" + participant(request, (CachedBodyRequest) request);
+            quota = liveQuota;
+        } else if (matches(QUIZ_PATHS, path)) {
+            request = new CachedBodyRequest(request);
+            scope = roleOf(SecurityContextHolder.getContext().getAuthentication());
+            key = "quiz:" + participant(request, (CachedBodyRequest) request);
+            quota = roleQuotas.getOrDefault(scope, roleQuotas.get(GUEST));
+        } else {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        TokenBucket bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(quota));
+        long waitNanos = bucket.tryConsume();
+        if (waitNanos == 0) {
+            allowed.computeIfAbsent(scope, s -> new LongAdder()).increment();
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        rejected.computeIfAbsent(scope, s -> new LongAdder()).increment();
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+        logger.debug("Rate limited {} on {} (retry in {}s)", key, path, retryAfter);
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"Too many requests, please retry later\"}");
+    }
+
+    /**
+     * Drop buckets that have been idle long enough to have refilled completely
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.eviction-interval:60000}")
+    public void evictIdleBuckets() {
+        long cutoff = System.nanoTime() - idleTimeout.toNanos();
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.lastAccessNanos() < cutoff);
+        int removed = before - buckets.size();
+        if (removed > 0) {
+            evicted.add(removed);
+            logger.debug("Evicted {} idle rate limit buckets, {} remaining", removed, buckets.size());
+        }
+    }
+
+    /**
+     * Allowed/rejected counts per scope and bucket table size, for the admin monitoring endpoint
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("activeBuckets", buckets.size());
+        stats.put("evictedBuckets", evicted.sum());
+        Map<String, Long> allowedCounts = new TreeMap<>();
+        allowed.forEach((scope, count) -> allowedCounts.put(scope, count.sum()));
+        Map<String, Long> rejectedCounts = new TreeMap<>();
+        rejected.forEach((scope, count) -> rejectedCounts.put(scope, count.sum()));
+        stats.put("allowed", allowedCounts);
+        stats.put("rejected", rejectedCounts);
+        return stats;
+    }
+
+    private boolean matches(List<String> patterns, String path) {
+        for (String pattern : patterns) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The authenticated user, or for anonymous guests the client IP with the guest id (or the
+     * pseudo being created) from the path or JSON body
+     */
+    private String participant(HttpServletRequest request, CachedBodyRequest body) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (!GUEST.equals(roleOf(authentication))) {
+            return "user:" + authentication.getName();
+        }
+        String guest = bodyField(body, "guestId", "guest_id", "pseudo");
+        if (guest.isEmpty() && pathMatcher.match("/quiz/guest/*", request.getServletPath())) {
+            guest = request.getServletPath().substring("/quiz/guest/".length());
+        }
+        return "ip:" + clientIp(request) + ":guest:" + guest;
+    }
+
+    /**
+     * First non-blank of the given top-level fields of a JSON body, or "" when there is none
+     */
+    private String bodyField(CachedBodyRequest request, String... names) {
+        byte[] body = request.body();
+        if (body == null || body.length == 0) {
+            return "";
+        }
+        try {
+            JsonNode root = objectMapper.readTree(body);
+            if (root != null && root.isObject()) {
+                for (String name : names) {
+                    JsonNode value = root.get(name);
+                    if (value != null && value.isValueNode() && !value.asText().isBlank()) {
+                        return value.asText().trim().toLowerCase();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // Not JSON: the controller answers it, the IP alone keys it
+        }
+        return "";
+    }
+
+    private String roleOf(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return GUEST;
+        }
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            String name = authority.getAuthority();
+            if (name.startsWith("ROLE_")) {
+                return name.substring(5);
+            }
+        }
+        return GUEST;
+    }
+
+    private String clientIp(HttpServletRequest request) {
+        if (trustForwardedFor) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                int comma = forwarded.indexOf(',');
+                return (comma < 0 ? forwarded : forwarded.substring(0, comma)).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    /**
+     * Burst capacity and sustained refill rate, configured as "capacity,perMinute"
+     */
+    private record Quota(long capacity, double tokensPerNano) {
+        static Quota parse(String value) {
+            String[] parts = value.split(",");
+            long capacity = Long.parseLong(parts[0].trim());
+            long perMinute = Long.parseLong(parts[1].trim());
+            return new Quota(capacity, perMinute / (double) TimeUnit.MINUTES.toNanos(1));
+        }
+    }
+
+    private record BucketState(double tokens, long refilledAt) {
+    }
+
+    /**
+     * Reads up to MAX_KEYED_BODY bytes of the body ahead of the controller so the key can use
+     * them, then replays them followed by whatever was left unread
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] prefix;
+        private final boolean complete;
+        private ServletInputStream stream;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            prefix = request.getInputStream().readNBytes(MAX_KEYED_BODY + 1);
+            complete = prefix.length <= MAX_KEYED_BODY;
+        }
+
+        byte[] body() {
+            return complete ? prefix : null;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (stream == null) {
+                InputStream rest = getRequest().getInputStream();
+                ByteArrayInputStream head = new ByteArrayInputStream(prefix);
+                stream = new ServletInputStream() {
+                    private boolean finished;
+
+                    @Override
+                    public int read() throws IOException {
+                        int next = head.read();
+                        if (next < 0 && !complete) {
+                            next = rest.read();
+                        }
+                        finished = next < 0;
+                        return next;
+                    }
+
+                    @Override
+                    public int read(byte[] buffer, int offset, int length) throws IOException {
+                        int read = head.read(buffer, offset, length);
+                        if (read < 0 && !complete) {
+                            read = rest.read(buffer, offset, length);
+                        }
+                        finished = read < 0;
+                        return read;
+                    }
+
+                    @Override
+                    public boolean isFinished() {
+                        return finished;
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    @Override
+                    public void setReadListener(ReadListener listener) {
+                        throw new UnsupportedOperationException("Non-blocking reads are not supported");
+                    }
+                };
+            }
+            return stream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : "UTF-8";
+            return new BufferedReader(new InputStreamReader(getInputStream(), encoding));
+        }
+    }
+
+    /**
+     * Lock-free token bucket: the state is replaced with compare-and-set, so concurrent
+     * requests for the same key never block each other.
+     */
+    private static final class TokenBucket {
+        private final Quota quota;
+        private final AtomicReference<BucketState> state;
+
+        TokenBucket(Quota quota) {
+            this.quota = quota;
+            this.state = new AtomicReference<>(new BucketState(quota.capacity(), System.nanoTime()));
+        }
+
+        /**
+         * @return 0 when a token was taken, otherwise the nanoseconds until one is available
+         */
+        long tryConsume() {
+            while (true) {
+                BucketState current = state.get();
+                long now = System.nanoTime();
+                double tokens = Math.min(quota.capacity(),
+                        current.tokens() + (now - current.refilledAt()) * quota.tokensPerNano());
+                if (tokens < 1) {
+                    // Still record the access so an actively abused bucket is never evicted
+                    if (state.compareAndSet(current, new BucketState(tokens, now))) {
+                        return (long) Math.ceil((1 - tokens) / quota.tokensPerNano());
+                    }
+                } else if (state.compareAndSet(current, new BucketState(tokens - 1, now))) {
+                    return 0;
+                }
+            }
+        }
+
+        long lastAccessNanos() {
+            return state.get().refilledAt();
+        }
+    }
+}
@@ -1,11 +1,11 @@
 package com.quizbackend.service;
 
+import com.quizbackend.dto.ReclamationInboxDto;
+import com.quizbackend.dto.ReclamationSummaryDto;
 import com.quizbackend.entity.Admin;
 import com.quizbackend.entity.User;
 import com.quizbackend.entity.Reclamation;
-import com.quizbackend.entity.Quiz;
 import com.quizbackend.entity.Professor;
-import com.quizbackend.entity.Student;
 import com.quizbackend.entity.Guest;
 import com.quizbackend.entity.Subscription;
 import com.quizbackend.repository.AdminRepository;
@@ -18,12 +18,21 @@ import com.quizbackend.repository.GuestRepository;
 import com.quizbackend.repository.SubscriptionRepository;
 import com.quizbackend.repository.ParticipationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @Transactional
@@ -56,6 +65,22 @@ public class AdminService {
     @Autowired
     private ParticipationRepository participationRepository;
 
+    @Autowired
+    private DashboardMetricsService dashboardMetricsService;
+
+    @Autowired
+    private ActivityRollupService activityRollupService;
+
+    private static final int MAX_INBOX_PAGE_SIZE = 100;
+    private static final int REPORT_LIST_SIZE = 10;
+    private static final int MAX_REPORT_PLANS = 50;
+    private static final int MAX_REPORT_DAYS = 365;
+
+    private final Map<Integer, CachedReport> reportCache = new ConcurrentHashMap<>();
+
+    @Value("${admin.report.cache-ttl:60s}")
+    private Duration reportCacheTtl;
+
     public Admin createAdmin(User user, String firstName, String lastName) {
         Admin admin = new Admin();
         admin.setUserId(user.getId());
@@ -77,19 +102,72 @@ public class AdminService {
         return adminRepository.save(admin);
     }
 
+    @Transactional(readOnly = true)
     public List<Admin> getAllAdmins() {
         return adminRepository.findAll();
     }
 
     // Reclamation Management
+    @Transactional(readOnly = true)
     public List<Reclamation> getAllReclamations() {
         return reclamationRepository.findAllOrderByCreatedAtDesc();
     }
     
+    @Transactional(readOnly = true)
     public List<Reclamation> getReclamationsByStatus(Reclamation.Status status) {
         return reclamationRepository.findByStatus(status);
     }
 
+    /**
+     * A page of the reclamation inbox. The cursor encodes the (priority, created_at, id) of the last
+     * row returned, so each page is an index range scan whatever its depth.
+     */
+    @Transactional(readOnly = true)
+    public ReclamationInboxDto getReclamationInbox(String status, String priority, String cursor, int size) {
+        if (size < 1 || size > MAX_INBOX_PAGE_SIZE) {
+            throw new RuntimeException("Size must be between 1 and " + MAX_INBOX_PAGE_SIZE);
+        }
+        Reclamation.Status statusFilter = status != null ? Reclamation.Status.valueOf(status.toUpperCase()) : null;
+        Integer priorityFilter = priority != null ? Reclamation.Priority.valueOf(priority.toUpperCase()).ordinal() : null;
+
+        Integer afterRank = null;
+        LocalDateTime afterCreatedAt = null;
+        Integer afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(",");
+                afterRank = Integer.valueOf(parts[0]);
+                afterCreatedAt = LocalDateTime.parse(parts[1]);
+                afterId = Integer.valueOf(parts[2]);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Invalid cursor");
+            }
+        }
+
+        // One extra row tells whether another page follows
+        List<ReclamationSummaryDto> rows = reclamationRepository.findInboxPage(statusFilter, priorityFilter,
+                afterRank, afterCreatedAt, afterId, PageRequest.of(0, size + 1));
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = new ArrayList<>(rows.subList(0, size));
+            ReclamationSummaryDto last = rows.get(size - 1);
+            String key = last.getPriorityRank() + "," + last.getCreatedAt() + "," + last.getId();
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+        }
+        return new ReclamationInboxDto(rows, nextCursor);
+    }
+
+    /**
+     * Rank the reclamations stored before priority_rank existed, so the inbox pages them too
+     */
+    public int backfillReclamationPriorityRanks() {
+        int updated = 0;
+        for (Reclamation.Priority priority : Reclamation.Priority.values()) {
+            updated += reclamationRepository.fillPriorityRank(priority, priority.ordinal());
+        }
+        return updated;
+    }
+
     public Reclamation getReclamationById(Integer id) {
         return reclamationRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Reclamation not found"));
@@ -113,19 +191,20 @@ public class AdminService {
         reclamationRepository.delete(reclamation);
     }
 
-    // Dashboard Statistics
+    // Dashboard Statistics, answered from the in-memory counters
+    @Transactional(readOnly = true)
     public Map<String, Object> getDashboardStats() {
         Map<String, Object> stats = new HashMap<>();
         
         // Count statistics
-        long totalUsers = userRepository.count();
-        long totalProfessors = professorRepository.count();
-        long totalStudents = studentRepository.count();
-        long totalGuests = guestRepository.count();
-        long totalQuizzes = quizRepository.count();
-        long totalSubscriptions = subscriptionRepository.count();
-        long totalParticipations = participationRepository.count();
-        long pendingReclamations = reclamationRepository.findByStatus(Reclamation.Status.PENDING).size();
+        long totalUsers = dashboardMetricsService.get(DashboardMetricsService.Counter.USERS);
+        long totalProfessors = dashboardMetricsService.get(DashboardMetricsService.Counter.PROFESSORS);
+        long totalStudents = dashboardMetricsService.get(DashboardMetricsService.Counter.STUDENTS);
+        long totalGuests = dashboardMetricsService.get(DashboardMetricsService.Counter.GUESTS);
+        long totalQuizzes = dashboardMetricsService.get(DashboardMetricsService.Counter.QUIZZES);
+        long totalSubscriptions = dashboardMetricsService.get(DashboardMetricsService.Counter.SUBSCRIPTIONS);
+        long totalParticipations = dashboardMetricsService.get(DashboardMetricsService.Counter.PARTICIPATIONS);
+        long pendingReclamations = dashboardMetricsService.get(DashboardMetricsService.Counter.PENDING_RECLAMATIONS);
         
         // Structure data as expected by frontend
         Map<String, Object> users = new HashMap<>();
@@ -146,34 +225,75 @@ public class AdminService {
         stats.put("subscriptions", subscriptions);
         stats.put("totalParticipations", totalParticipations);
         stats.put("pendingReclamations", pendingReclamations);
+        stats.put("computedAt", dashboardMetricsService.getComputedAt());
         
         return stats;
     }
 
-    // Dashboard Report
-    public Map<String, Object> getDashboardReport() {
+    // Dashboard Report: bounded projections plus daily trends, cached briefly per trend length
+    @Transactional(readOnly = true)
+    public Map<String, Object> getDashboardReport(int days) {
+        if (days < 1 || days > MAX_REPORT_DAYS) {
+            throw new RuntimeException("Days must be between 1 and " + MAX_REPORT_DAYS);
+        }
+        CachedReport cached = reportCache.get(days);
+        if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+            return cached.report();
+        }
+
         Map<String, Object> report = new HashMap<>();
-        
-        // Get recent data
-        List<Quiz> recentQuizzes = quizRepository.findAll().stream()
-                .sorted((q1, q2) -> q2.getCreatedAt().compareTo(q1.getCreatedAt()))
-                .limit(10)
-                .toList();
-        
-        List<Student> recentStudents = studentRepository.findAllOrderByCreatedAtDesc().stream()
-                .limit(10)
-                .toList();
-        
-        List<Subscription> allSubscriptions = subscriptionRepository.findAll();
-        
+        PageRequest top = PageRequest.of(0, REPORT_LIST_SIZE);
+
+        List<Map<String, Object>> recentQuizzes = new ArrayList<>();
+        for (Object[] row : quizRepository.findRecent(top)) {
+            Map<String, Object> quiz = new LinkedHashMap<>();
+            quiz.put("id", row[0]);
+            quiz.put("title", row[1]);
+            quiz.put("code", row[2]);
+            quiz.put("status", row[3]);
+            quiz.put("professorId", row[4]);
+            quiz.put("createdAt", row[5]);
+            recentQuizzes.add(quiz);
+        }
+
+        List<Map<String, Object>> recentStudents = new ArrayList<>();
+        for (Object[] row : studentRepository.findRecent(top)) {
+            Map<String, Object> student = new LinkedHashMap<>();
+            student.put("id", row[0]);
+            student.put("userId", row[1]);
+            student.put("username", row[2]);
+            student.put("firstName", row[3]);
+            student.put("lastName", row[4]);
+            student.put("createdAt", row[5]);
+            recentStudents.add(student);
+        }
+
+        List<Map<String, Object>> subscriptions = new ArrayList<>();
+        for (Object[] row : subscriptionRepository.findPlanSummaries(PageRequest.of(0, MAX_REPORT_PLANS))) {
+            Map<String, Object> plan = new LinkedHashMap<>();
+            plan.put("id", row[0]);
+            plan.put("name", row[1]);
+            plan.put("price", row[2]);
+            plan.put("durationDays", row[3]);
+            plan.put("professors", row[4]);
+            subscriptions.add(plan);
+        }
+
         report.put("recentQuizzes", recentQuizzes);
         report.put("recentStudents", recentStudents);
-        report.put("subscriptions", allSubscriptions);
-        
+        report.put("subscriptions", subscriptions);
+        report.put("trends", activityRollupService.getTrend(days));
+        report.put("computedAt", LocalDateTime.now());
+
+        reportCache.put(days, new CachedReport(report, System.currentTimeMillis() + reportCacheTtl.toMillis()));
         return report;
     }
 
+    private record CachedReport(Map<String, Object> report, long expiresAt) {
+    }
+
     // Get all subscription plans
+    @Transactional(readOnly = true)
     public List<Subscription> getAllSubscriptionPlans() {
         return subscriptionRepository.findAll();
     }
@@ -1,16 +1,19 @@
 package com.quizbackend.service;
 
+import com.quizbackend.dto.LoginProfileDto;
+import com.quizbackend.entity.Professor;
+import com.quizbackend.entity.Student;
 import com.quizbackend.entity.User;
 import com.quizbackend.repository.UserRepository;
-import com.quizbackend.repository.StudentRepository;
-import com.quizbackend.repository.ProfessorRepository;
-import com.quizbackend.entity.ProfessorSubscription;
+import com.quizbackend.exception.PasswordHashingBusyException;
 import com.quizbackend.security.JwtUtil;
+import com.quizbackend.security.PasswordHasher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -27,13 +30,7 @@ public class AuthService {
     private UserRepository userRepository;
 
     @Autowired
-    private StudentRepository studentRepository;
-
-    @Autowired
-    private ProfessorRepository professorRepository;
-
-    @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
 
     @Autowired
     private JwtUtil jwtUtil;
@@ -42,116 +39,115 @@ public class AuthService {
     private ProfessorSubscriptionService professorSubscriptionService;
 
     @Autowired
-    private EmailService emailService;
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
 
     public Map<String, Object> login(String username, String password) {
         logger.info("Login attempt for username: {}", username);
         
-        Optional<User> userOpt = userRepository.findByUsername(username);
+        // Single round-trip: user, profile and current subscription
+        Optional<LoginProfileDto> profileOpt = userRepository.findLoginProfile(username, LocalDateTime.now());
         
-        if (userOpt.isEmpty() || !passwordEncoder.matches(password, userOpt.get().getPassword())) {
+        if (profileOpt.isEmpty() || !passwordHasher.matches(password, profileOpt.get().getPassword())) {
             logger.warn("Invalid login attempt for username={}", username);
             throw new RuntimeException("Invalid username or password");
         }
 
-        User user = userOpt.get();
+        LoginProfileDto profile = profileOpt.get();
 
         // Check if account is enabled
-        if (!user.getEnabled()) {
+        if (!profile.getEnabled()) {
             logger.warn("Login attempt with disabled account: {}", username);
             throw new RuntimeException("Your account is disabled. Please contact the administrator.");
         }
 
+        if (passwordHasher.needsRehash(profile.getPassword())) {
+            try {
+                userRepository.updatePassword(profile.getUserId(), passwordHasher.encode(password));
+                logger.info("Upgraded password hash work factor for user: {}", username);
+            } catch (PasswordHashingBusyException e) {
+                // Best effort: the old hash still works, retry on a later login
+                logger.debug("Skipped password rehash for {}: hashing pool busy", username);
+            }
+        }
+
         // Removed email verification check - users can login even without email verification
         logger.info("Login successful for user with emailVerified={}, enabled={}",
-                   user.getEmailVerified(), user.getEnabled());
+                   profile.getEmailVerified(), profile.getEnabled());
 
-        String token = jwtUtil.generateToken(user.getUsername(), user.getRole().name());
+        User.Role role = profile.getRole();
+        String token = jwtUtil.generateToken(profile.getUsername(), role.name());
 
         // Get user-specific details
         Map<String, Object> userData = new HashMap<>();
-        userData.put("id", user.getId());
-        userData.put("username", user.getUsername());
-        userData.put("email", user.getEmail());
-        userData.put("role", user.getRole().name());
+        userData.put("id", profile.getUserId());
+        userData.put("username", profile.getUsername());
+        userData.put("email", profile.getEmail());
+        userData.put("role", role.name());
 
         // Add student-specific fields if this is a student
-        if (user.getRole() == User.Role.STUDENT) {
-            logger.debug("User is STUDENT, fetching student profile for userId={}", user.getId());
-            // Get student details from database
-            Optional<com.quizbackend.entity.Student> studentOpt = studentRepository.findByUser(user);
-            if (studentOpt.isPresent()) {
-                com.quizbackend.entity.Student student = studentOpt.get();
-                userData.put("firstName", student.getFirstName());
-                userData.put("lastName", student.getLastName());
+        if (role == User.Role.STUDENT) {
+            if (profile.getStudentId() != null) {
+                userData.put("firstName", profile.getStudentFirstName());
+                userData.put("lastName", profile.getStudentLastName());
                 logger.debug("Student profile found: id={}, firstName={}, lastName={}",
-                    student.getId(), student.getFirstName(), student.getLastName());
+                    profile.getStudentId(), profile.getStudentFirstName(), profile.getStudentLastName());
             } else {
                 // Fallback if student profile doesn't exist - this indicates the bug
                 logger.error("STUDENT ROLE USER HAS NO STUDENT ENTITY: userId={}, username={}. This indicates signup process failure.",
-                    user.getId(), user.getUsername());
+                    profile.getUserId(), profile.getUsername());
                 userData.put("firstName", null);
                 userData.put("lastName", null);
-                logger.warn("Student profile not found for user: {}", user.getUsername());
+                logger.warn("Student profile not found for user: {}", profile.getUsername());
             }
         }
 
         // Add professor-specific fields if this is a professor
-        if (user.getRole() == User.Role.PROFESSOR_FREE || user.getRole() == User.Role.PROFESSOR_VIP) {
-            logger.debug("User is PROFESSOR, fetching professor profile for userId={}", user.getId());
-            // Get professor details from database
-            Optional<com.quizbackend.entity.Professor> professorOpt = professorRepository.findById(user.getId());
-            if (professorOpt.isPresent()) {
-                com.quizbackend.entity.Professor professor = professorOpt.get();
-                userData.put("firstName", professor.getFirstName());
-                userData.put("lastName", professor.getLastName());
-                userData.put("professorId", professor.getUserId());
+        if (role == User.Role.PROFESSOR_FREE || role == User.Role.PROFESSOR_VIP) {
+            if (profile.getProfessorId() != null) {
+                userData.put("firstName", profile.getProfessorFirstName());
+                userData.put("lastName", profile.getProfessorLastName());
+                userData.put("professorId", profile.getProfessorId());
                 logger.debug("Professor profile found: id={}, firstName={}, lastName={}",
-                    professor.getUserId(), professor.getFirstName(), professor.getLastName());
-                
-                // Get subscription information
-                try {
-                    ProfessorSubscription currentSubscription = professorSubscriptionService.getCurrentSubscription(professor.getUserId());
-                    if (currentSubscription != null) {
-                        Map<String, Object> subscriptionInfo = new HashMap<>();
-                        subscriptionInfo.put("id", currentSubscription.getId());
-                        subscriptionInfo.put("planType", currentSubscription.getPlanType());
-                        subscriptionInfo.put("price", currentSubscription.getPrice());
-                        subscriptionInfo.put("startDate", currentSubscription.getStartDate());
-                        subscriptionInfo.put("endDate", currentSubscription.getEndDate());
-                        subscriptionInfo.put("isActive", currentSubscription.getIsActive());
-                        subscriptionInfo.put("daysRemaining", professorSubscriptionService.getDaysRemaining(currentSubscription));
-                        subscriptionInfo.put("isExpiringSoon", professorSubscriptionService.isExpiringSoon(currentSubscription));
-                        
-                        userData.put("currentSubscription", subscriptionInfo);
-                        logger.debug("Subscription found for professor: {}", subscriptionInfo);
-                    } else {
-                        userData.put("currentSubscription", null);
-                        logger.debug("No active subscription found for professor");
-                    }
-                } catch (Exception e) {
-                    // If subscription lookup fails, continue without subscription info
+                    profile.getProfessorId(), profile.getProfessorFirstName(), profile.getProfessorLastName());
+
+                if (profile.getSubscriptionId() != null) {
+                    Map<String, Object> subscriptionInfo = new HashMap<>();
+                    subscriptionInfo.put("id", profile.getSubscriptionId());
+                    subscriptionInfo.put("planType", profile.getSubscriptionPlanType());
+                    subscriptionInfo.put("price", profile.getSubscriptionPrice());
+                    subscriptionInfo.put("startDate", profile.getSubscriptionStartDate());
+                    subscriptionInfo.put("endDate", profile.getSubscriptionEndDate());
+                    subscriptionInfo.put("isActive", profile.getSubscriptionActive());
+                    subscriptionInfo.put("daysRemaining", professorSubscriptionService.getDaysRemaining(profile.getSubscriptionEndDate()));
+                    subscriptionInfo.put("isExpiringSoon", professorSubscriptionService.isExpiringSoon(profile.getSubscriptionEndDate()));
+
+                    userData.put("currentSubscription", subscriptionInfo);
+                    logger.debug("Subscription found for professor: {}", subscriptionInfo);
+                } else {
                     userData.put("currentSubscription", null);
-                    logger.warn("Could not load subscription info: {}", e.getMessage());
+                    logger.debug("No active subscription found for professor");
                 }
             } else {
                 // Fallback if professor profile doesn't exist - this indicates the bug
                 logger.error("PROFESSOR ROLE USER HAS NO PROFESSOR ENTITY: userId={}, username={}. This indicates signup process failure.",
-                    user.getId(), user.getUsername());
+                    profile.getUserId(), profile.getUsername());
                 userData.put("firstName", null);
                 userData.put("lastName", null);
                 userData.put("currentSubscription", null);
-                logger.warn("Professor profile not found for user: {}", user.getUsername());
+                logger.warn("Professor profile not found for user: {}", profile.getUsername());
             }
         }
 
         Map<String, Object> response = new HashMap<>();
         response.put("token", token);
         response.put("user", userData);
-        response.put("role", user.getRole().name());
+        response.put("role", role.name());
 
-        logger.info("User logged in successfully: username={}, role={}", user.getUsername(), user.getRole());
+        logger.info("User logged in successfully: username={}, role={}", profile.getUsername(), role);
 
         return response;
     }
@@ -159,19 +155,13 @@ public class AuthService {
     public User register(String username, String email, String password, User.Role role, String firstName, String lastName) {
         logger.info("Registering user: username={}, email={}, role={}, firstName={}, lastName={}", username, email, role, firstName, lastName);
 
-        if (userRepository.existsByUsername(username)) {
-            logger.warn("Username already exists: {}", username);
-            throw new RuntimeException("Username already exists");
-        }
-        if (userRepository.existsByEmail(email)) {
-            logger.warn("Email already exists: {}", email);
-            throw new RuntimeException("Email already exists");
-        }
+        String encodedPassword = passwordHasher.encode(password);
+        checkAvailable(username, email);
 
         User user = new User();
         user.setUsername(username);
         user.setEmail(email);
-        user.setPassword(passwordEncoder.encode(password));
+        user.setPassword(encodedPassword);
         user.setRole(role);
 
         User savedUser = userRepository.save(user);
@@ -195,74 +185,127 @@ public class AuthService {
     }
 
     /**
-     * Register student with email verification
+     * Register student with email verification, creating the user and its student profile in
+     * one transaction
      */
     public Map<String, Object> registerStudent(String username, String email, String password, String firstName, String lastName) {
         logger.info("Registering student with email verification: username={}, email={}, firstName={}, lastName={}",
                    username, email, firstName, lastName);
 
-        if (userRepository.existsByUsername(username)) {
-            logger.warn("Username already exists: {}", username);
-            throw new RuntimeException("Username already exists");
-        }
-        if (userRepository.existsByEmail(email)) {
-            logger.warn("Email already exists: {}", email);
-            throw new RuntimeException("Email already exists");
-        }
+        // Hash before any repository call: the wait for the hashing pool must not hold a pooled
+        // connection, and a busy pool surfaces as 503 rather than a registration error
+        String encodedPassword = passwordHasher.encode(password);
 
-        try {
-            // Create user with email verification fields
-            String verificationToken = UUID.randomUUID().toString();
-            LocalDateTime tokenExpiry = LocalDateTime.now().plusHours(24); // 24 hours expiry
-
-            User user = new User();
-            user.setUsername(username);
-            user.setEmail(email);
-            user.setPassword(passwordEncoder.encode(password));
-            user.setRole(User.Role.STUDENT);
-            user.setEmailVerified(false);
-            user.setEnabled(true); // Account enabled by default
-            user.setEmailVerificationToken(verificationToken);
-            user.setEmailVerificationTokenExpiry(tokenExpiry);
-
-            User savedUser = userRepository.save(user);
-
-            logger.info("Student user saved to DB: id={}, username={}, emailVerified={}",
-                       savedUser.getId(), savedUser.getUsername(), savedUser.getEmailVerified());
-
-            // Send verification email - if this fails, we delete the user
+        return transactionTemplate.execute(status -> {
+            checkAvailable(username, email);
             try {
-                emailService.sendVerificationEmail(savedUser.getEmail(), savedUser.getUsername(), verificationToken);
-                logger.info("Verification email sent successfully for student: {}", savedUser.getUsername());
+                // Create user with email verification fields
+                String verificationToken = UUID.randomUUID().toString();
+                LocalDateTime tokenExpiry = LocalDateTime.now().plusHours(24); // 24 hours expiry
+
+                User user = new User();
+                user.setUsername(username);
+                user.setEmail(email);
+                user.setPassword(encodedPassword);
+                user.setRole(User.Role.STUDENT);
+                user.setEmailVerified(false);
+                user.setEnabled(true); // Account enabled by default
+                user.setEmailVerificationToken(verificationToken);
+                user.setEmailVerificationTokenExpiry(tokenExpiry);
+
+                // Saved with the user through the cascade
+                Student student = new Student();
+                student.setUser(user);
+                student.setFirstName(firstName);
+                student.setLastName(lastName);
+                user.setStudent(student);
+
+                User savedUser = userRepository.save(user);
+
+                logger.info("Student user saved to DB: id={}, studentId={}, username={}, emailVerified={}",
+                           savedUser.getId(), savedUser.getStudent().getId(), savedUser.getUsername(), savedUser.getEmailVerified());
+
+                // Queue verification email in the same transaction as the user row
+                emailOutboxService.enqueueVerificationEmail(savedUser.getEmail(), savedUser.getUsername(), verificationToken);
+                logger.info("Verification email queued for student: {}", savedUser.getUsername());
+
+                Map<String, Object> response = new HashMap<>();
+                response.put("message", "Student registered successfully. Please check your email to verify your account.");
+                response.put("userId", savedUser.getId());
+                response.put("studentId", savedUser.getStudent().getId());
+                response.put("emailVerificationRequired", true);
+                response.put("username", savedUser.getUsername());
+                response.put("email", savedUser.getEmail());
+
+                return response;
             } catch (Exception e) {
-                logger.error("Failed to send verification email for student: {}. Deleting user. Error: {}",
-                            savedUser.getUsername(), e.getMessage());
-                // Delete the user if email fails to ensure data consistency
-                userRepository.delete(savedUser);
-                throw new RuntimeException("Error sending verification email. Please try again.");
+                logger.error("Error during student registration for {}: {}", email, e.getMessage());
+                throw new RuntimeException("Error during registration: " + e.getMessage());
             }
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "Student registered successfully. Please check your email to verify your account.");
-            response.put("userId", savedUser.getId());
-            response.put("emailVerificationRequired", true);
-            response.put("username", savedUser.getUsername());
-            response.put("email", savedUser.getEmail());
-
-            return response;
-        } catch (Exception e) {
-            logger.error("Error during student registration for {}: {}", email, e.getMessage());
-            throw new RuntimeException("Error during registration: " + e.getMessage());
-        }
+        });
     }
 
     /**
-     * Register professor with email verification
+     * Register professor with email verification, creating the user and its professor profile
+     * in one transaction
      */
     public Map<String, Object> registerProfessor(String username, String email, String password, String firstName, String lastName) {
         logger.info("Registering professor with email verification: username={}, email={}, firstName={}, lastName={}",
                    username, email, firstName, lastName);
 
+        // Hash before any repository call, as for students
+        String encodedPassword = passwordHasher.encode(password);
+
+        return transactionTemplate.execute(status -> {
+            checkAvailable(username, email);
+            try {
+                // Create user with email verification fields
+                String verificationToken = UUID.randomUUID().toString();
+                LocalDateTime tokenExpiry = LocalDateTime.now().plusHours(24); // 24 hours expiry
+
+                User user = new User();
+                user.setUsername(username);
+                user.setEmail(email);
+                user.setPassword(encodedPassword);
+                user.setRole(User.Role.PROFESSOR_FREE);
+                user.setEmailVerified(false);
+                user.setEnabled(true); // Account enabled by default
+                user.setEmailVerificationToken(verificationToken);
+                user.setEmailVerificationTokenExpiry(tokenExpiry);
+
+                // Saved with the user through the cascade
+                Professor professor = new Professor();
+                professor.setUser(user);
+                professor.setFirstName(firstName);
+                professor.setLastName(lastName);
+                user.setProfessor(professor);
+
+                User savedUser = userRepository.save(user);
+
+                logger.info("Professor user saved to DB: id={}, username={}, emailVerified={}",
+                           savedUser.getId(), savedUser.getUsername(), savedUser.getEmailVerified());
+
+                // Queue verification email in the same transaction as the user row
+                emailOutboxService.enqueueVerificationEmail(savedUser.getEmail(), savedUser.getUsername(), verificationToken);
+                logger.info("Verification email queued for professor: {}", savedUser.getUsername());
+
+                Map<String, Object> response = new HashMap<>();
+                response.put("message", "Professor registered successfully. Please check your email to verify your account.");
+                response.put("userId", savedUser.getId());
+                response.put("professorId", savedUser.getProfessor().getUserId());
+                response.put("emailVerificationRequired", true);
+                response.put("username", savedUser.getUsername());
+                response.put("email", savedUser.getEmail());
+
+                return response;
+            } catch (Exception e) {
+                logger.error("Error during professor registration for {}: {}", email, e.getMessage());
+                throw new RuntimeException("Error during registration: " + e.getMessage());
+            }
+        });
+    }
+
+    private void checkAvailable(String username, String email) {
         if (userRepository.existsByUsername(username)) {
             logger.warn("Username already exists: {}", username);
             throw new RuntimeException("Username already exists");
@@ -271,51 +314,6 @@ public class AuthService {
             logger.warn("Email already exists: {}", email);
             throw new RuntimeException("Email already exists");
         }
-
-        try {
-            // Create user with email verification fields
-            String verificationToken = UUID.randomUUID().toString();
-            LocalDateTime tokenExpiry = LocalDateTime.now().plusHours(24); // 24 hours expiry
-
-            User user = new User();
-            user.setUsername(username);
-            user.setEmail(email);
-            user.setPassword(passwordEncoder.encode(password));
-            user.setRole(User.Role.PROFESSOR_FREE);
-            user.setEmailVerified(false);
-            user.setEnabled(true); // Account enabled by default
-            user.setEmailVerificationToken(verificationToken);
-            user.setEmailVerificationTokenExpiry(tokenExpiry);
-
-            User savedUser = userRepository.save(user);
-
-            logger.info("Professor user saved to DB: id={}, username={}, emailVerified={}",
-                       savedUser.getId(), savedUser.getUsername(), savedUser.getEmailVerified());
-
-            // Send verification email - if this fails, we delete the user
-            try {
-                emailService.sendVerificationEmail(savedUser.getEmail(), savedUser.getUsername(), verificationToken);
-                logger.info("Verification email sent successfully for professor: {}", savedUser.getUsername());
-            } catch (Exception e) {
-                logger.error("Failed to send verification email for professor: {}. Deleting user. Error: {}",
-                            savedUser.getUsername(), e.getMessage());
-                // Delete the user if email fails to ensure data consistency
-                userRepository.delete(savedUser);
-                throw new RuntimeException("Error sending verification email. Please try again.");
-            }
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "Professor registered successfully. Please check your email to verify your account.");
-            response.put("userId", savedUser.getId());
-            response.put("emailVerificationRequired", true);
-            response.put("username", savedUser.getUsername());
-            response.put("email", savedUser.getEmail());
-
-            return response;
-        } catch (Exception e) {
-            logger.error("Error during professor registration for {}: {}", email, e.getMessage());
-            throw new RuntimeException("Error during registration: " + e.getMessage());
-        }
     }
 
     public User getCurrentUser(String username) {
@@ -323,6 +321,7 @@ public class AuthService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
+    @Transactional
     public Map<String, Object> forgotPassword(String email) {
         Optional<User> userOpt = userRepository.findByEmail(email);
         if (userOpt.isEmpty()) {
@@ -336,10 +335,11 @@ public class AuthService {
         user.setResetToken(resetToken);
         user.setResetTokenExpiry(expiry);
         userRepository.save(user);
+        emailOutboxService.enqueuePasswordResetEmail(user.getEmail(), user.getUsername(), resetToken);
 
         Map<String, Object> response = new HashMap<>();
         response.put("message", "Password reset token generated successfully");
-        response.put("resetToken", resetToken); // In real implementation, this would be sent via email
+        response.put("resetToken", resetToken); // Also queued for delivery by email
 
         logger.info("Password reset token generated for user: {}", user.getUsername());
         return response;
@@ -374,7 +374,7 @@ public class AuthService {
             throw new RuntimeException("Reset token has expired");
         }
 
-        user.setPassword(passwordEncoder.encode(newPassword));
+        user.setPassword(passwordHasher.encode(newPassword));
         user.setResetToken(null);
         user.setResetTokenExpiry(null);
         userRepository.save(user);
@@ -389,6 +389,7 @@ public class AuthService {
     /**
      * Resend verification email
      */
+    @Transactional
     public Map<String, Object> resendVerificationEmail(String email) {
         logger.info("Resend verification email request for: {}", email);
 
@@ -414,18 +415,13 @@ public class AuthService {
         user.setEmailVerificationTokenExpiry(LocalDateTime.now().plusHours(24));
         userRepository.save(user);
 
-        // Resend email
-        try {
-            emailService.sendVerificationEmail(user.getEmail(), user.getUsername(), verificationToken);
-            logger.info("Verification email resent successfully to: {}", email);
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "Verification email sent successfully. Please check your inbox.");
-            return response;
-        } catch (Exception e) {
-            logger.error("Error resending verification email to {}: {}", email, e.getMessage());
-            throw new RuntimeException("Error sending verification email. Please try again later.");
-        }
+        // Queue email with the token update
+        emailOutboxService.enqueueVerificationEmail(user.getEmail(), user.getUsername(), verificationToken);
+        logger.info("Verification email queued for: {}", email);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Verification email sent successfully. Please check your inbox.");
+        return response;
     }
 
     public Map<String, Object> verifyEmail(String token) {
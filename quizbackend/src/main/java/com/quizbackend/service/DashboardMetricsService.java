@@ -0,0 +1,182 @@
+package com.quizbackend.service;
+
+import com.quizbackend.entity.Reclamation;
+import com.quizbackend.repository.ArchivedParticipationRepository;
+import com.quizbackend.repository.GuestRepository;
+import com.quizbackend.repository.ParticipationRepository;
+import com.quizbackend.repository.ProfessorRepository;
+import com.quizbackend.repository.QuizRepository;
+import com.quizbackend.repository.ReclamationRepository;
+import com.quizbackend.repository.StudentRepository;
+import com.quizbackend.repository.SubscriptionRepository;
+import com.quizbackend.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admin dashboard counters held in memory. Entity lifecycle callbacks (DashboardCountListener)
+ * adjust them when a change commits, and a scheduled recount corrects whatever callbacks cannot
+ * see, such as bulk deletes or writes from another instance.
+ */
+@Service
+public class DashboardMetricsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardMetricsService.class);
+
+    public enum Counter {
+        USERS,
+        PROFESSORS,
+        STUDENTS,
+        GUESTS,
+        QUIZZES,
+        SUBSCRIPTIONS,
+        PARTICIPATIONS,
+        PENDING_RECLAMATIONS
+    }
+
+    private final Map<Counter, AtomicLong> counters = new EnumMap<>(Counter.class);
+    private final LongAdder reconciliations = new LongAdder();
+    private final LongAdder corrections = new LongAdder();
+    private volatile LocalDateTime computedAt;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProfessorRepository professorRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private GuestRepository guestRepository;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+
+    @Autowired
+    private ParticipationRepository participationRepository;
+
+    @Autowired
+    private ArchivedParticipationRepository archivedParticipationRepository;
+
+    @Autowired
+    private ReclamationRepository reclamationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate recountTransaction;
+
+    public DashboardMetricsService() {
+        for (Counter counter : Counter.values()) {
+            counters.put(counter, new AtomicLong());
+        }
+    }
+
+    @PostConstruct
+    void initRecountTransaction() {
+        // Read-write so it is routed to the primary, and its own even when the dashboard's read-only transaction triggers it
+        recountTransaction = new TransactionTemplate(transactionManager);
+        recountTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Adjust a counter once the current transaction commits, so rolled back writes are not counted
+     */
+    public void adjust(Counter counter, long delta) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    counters.get(counter).addAndGet(delta);
+                }
+            });
+        } else {
+            counters.get(counter).addAndGet(delta);
+        }
+    }
+
+    /**
+     * Recount every counter from the database; runs at startup and then on a fixed delay. The recount
+     * runs on the primary and is applied as the change since the counters were read, so adjustments
+     * committed while it runs are kept.
+     */
+    @Scheduled(fixedDelayString = "${dashboard.reconcile-interval:300000}")
+    public synchronized void reconcile() {
+        Map<Counter, Long> read = new EnumMap<>(Counter.class);
+        Map<Counter, Long> counts = recountTransaction.execute(status -> {
+            // Read before the first query fixes the snapshot: changes committed in between are in both
+            counters.forEach((counter, value) -> read.put(counter, value.get()));
+            Map<Counter, Long> recounted = new EnumMap<>(Counter.class);
+            recounted.put(Counter.USERS, userRepository.count());
+            recounted.put(Counter.PROFESSORS, professorRepository.count());
+            recounted.put(Counter.STUDENTS, studentRepository.count());
+            recounted.put(Counter.GUESTS, guestRepository.count());
+            recounted.put(Counter.QUIZZES, quizRepository.count());
+            recounted.put(Counter.SUBSCRIPTIONS, subscriptionRepository.count());
+            // Archived participations still count towards the platform total
+            recounted.put(Counter.PARTICIPATIONS, participationRepository.count() + archivedParticipationRepository.count());
+            recounted.put(Counter.PENDING_RECLAMATIONS, reclamationRepository.countByStatus(Reclamation.Status.PENDING));
+            return recounted;
+        });
+
+        counts.forEach((counter, count) -> {
+            long drift = count - read.get(counter);
+            if (drift != 0) {
+                counters.get(counter).addAndGet(drift);
+                if (computedAt != null) {
+                    corrections.increment();
+                    logger.debug("Dashboard counter {} corrected by {}", counter, drift);
+                }
+            }
+        });
+        reconciliations.increment();
+        computedAt = LocalDateTime.now();
+    }
+
+    public long get(Counter counter) {
+        if (computedAt == null) {
+            reconcile();
+        }
+        return counters.get(counter).get();
+    }
+
+    /**
+     * When the counters were last recounted from the database; changes since then are applied live
+     */
+    public LocalDateTime getComputedAt() {
+        if (computedAt == null) {
+            reconcile();
+        }
+        return computedAt;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        counters.forEach((counter, value) -> stats.put(counter.name(), value.get()));
+        stats.put("computedAt", computedAt);
+        stats.put("reconciliations", reconciliations.sum());
+        stats.put("corrections", corrections.sum());
+        return stats;
+    }
+}
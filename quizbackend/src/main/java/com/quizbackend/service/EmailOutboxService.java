@@ -0,0 +1,179 @@
+package com.quizbackend.service;
+
+import com.quizbackend.entity.EmailOutbox;
+import com.quizbackend.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Transactional outbox for outgoing emails. Request threads only insert a row in the
+ * caller's transaction; a scheduled dispatcher sends due rows in Brevo batches with
+ * exponential backoff and a per-minute send budget. Due rows are claimed with a guarded
+ * UPDATE before sending, so several instances polling the same table never send a row twice;
+ * the claim pushes next_attempt_at past a lease, after which a crashed owner's rows are due again.
+ */
+@Service
+public class EmailOutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxService.class);
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${email.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${email.outbox.rate-per-minute:300}")
+    private int ratePerMinute;
+
+    @Value("${email.outbox.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${email.outbox.initial-backoff:30s}")
+    private Duration initialBackoff;
+
+    @Value("${email.outbox.max-backoff:30m}")
+    private Duration maxBackoff;
+
+    // How long a claimed row is reserved for the dispatcher that claimed it
+    @Value("${email.outbox.claim-lease:5m}")
+    private Duration claimLease;
+
+    // Fixed one-minute send window; only touched by the single scheduler thread
+    private long windowStartMillis = 0;
+    private int sentInWindow = 0;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public EmailOutbox enqueueVerificationEmail(String toEmail, String username, String token) {
+        return enqueue(EmailOutbox.Type.VERIFICATION, toEmail, username, emailService.verificationLink(token));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public EmailOutbox enqueuePasswordResetEmail(String toEmail, String username, String token) {
+        return enqueue(EmailOutbox.Type.PASSWORD_RESET, toEmail, username, emailService.passwordResetLink(token));
+    }
+
+    private EmailOutbox enqueue(EmailOutbox.Type type, String toEmail, String username, String link) {
+        EmailOutbox message = new EmailOutbox();
+        message.setType(type);
+        message.setToEmail(toEmail);
+        message.setToName(username);
+        message.setLink(link);
+        EmailOutbox saved = emailOutboxRepository.save(message);
+        logger.debug("Queued {} email id={} for {}", type, saved.getId(), toEmail);
+        return saved;
+    }
+
+    /**
+     * Send due outbox rows, grouped by email type, within the remaining per-minute budget
+     */
+    @Scheduled(fixedDelayString = "${email.outbox.poll-interval:2000}")
+    public void dispatchPending() {
+        int budget = remainingBudget();
+        if (budget <= 0) {
+            return;
+        }
+
+        List<EmailOutbox> due = claimDue(budget);
+        if (due.isEmpty()) {
+            return;
+        }
+
+        Map<EmailOutbox.Type, List<EmailOutbox>> byType = new EnumMap<>(EmailOutbox.Type.class);
+        for (EmailOutbox message : due) {
+            byType.computeIfAbsent(message.getType(), t -> new ArrayList<>()).add(message);
+        }
+
+        for (Map.Entry<EmailOutbox.Type, List<EmailOutbox>> entry : byType.entrySet()) {
+            List<EmailOutbox> messages = entry.getValue();
+            for (int from = 0; from < messages.size(); from += batchSize) {
+                List<EmailOutbox> batch = messages.subList(from, Math.min(from + batchSize, messages.size()));
+                sendBatch(entry.getKey(), batch);
+            }
+        }
+    }
+
+    private List<EmailOutbox> claimDue(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Integer> ids = emailOutboxRepository.findDueIds(EmailOutbox.Status.PENDING, now, PageRequest.of(0, limit));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String token = UUID.randomUUID().toString();
+        if (emailOutboxRepository.claim(ids, EmailOutbox.Status.PENDING, now, token, now.plus(claimLease)) == 0) {
+            return List.of();
+        }
+        return emailOutboxRepository.findByClaimTokenAndStatusOrderByIdAsc(token, EmailOutbox.Status.PENDING);
+    }
+
+    private void sendBatch(EmailOutbox.Type type, List<EmailOutbox> batch) {
+        sentInWindow += batch.size();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "sent";
+        try {
+            emailService.sendBatch(type, batch);
+            LocalDateTime now = LocalDateTime.now();
+            for (EmailOutbox message : batch) {
+                message.setStatus(EmailOutbox.Status.SENT);
+                message.setAttempts(message.getAttempts() + 1);
+                message.setSentAt(now);
+                message.setLastError(null);
+            }
+        } catch (Exception e) {
+            outcome = "failed";
+            logger.warn("Email batch of {} {} messages failed: {}", batch.size(), type, e.getMessage());
+            for (EmailOutbox message : batch) {
+                scheduleRetry(message, e.getMessage());
+            }
+        }
+        sample.stop(meterRegistry.timer("email.dispatch", "type", type.name(), "outcome", outcome));
+        meterRegistry.counter("email.messages", "type", type.name(), "outcome", outcome).increment(batch.size());
+        emailOutboxRepository.saveAll(batch);
+    }
+
+    private void scheduleRetry(EmailOutbox message, String error) {
+        int attempts = message.getAttempts() + 1;
+        message.setAttempts(attempts);
+        message.setLastError(error);
+        if (attempts >= maxAttempts) {
+            message.setStatus(EmailOutbox.Status.FAILED);
+            logger.error("Giving up on {} email id={} to {} after {} attempts",
+                    message.getType(), message.getId(), message.getToEmail(), attempts);
+            return;
+        }
+        long backoffMillis = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(attempts - 1, 20));
+        message.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(backoffMillis)));
+    }
+
+    private int remainingBudget() {
+        long now = System.currentTimeMillis();
+        if (now - windowStartMillis >= 60_000) {
+            windowStartMillis = now;
+            sentInWindow = 0;
+        }
+        return Math.max(0, ratePerMinute - sentInWindow);
+    }
+}
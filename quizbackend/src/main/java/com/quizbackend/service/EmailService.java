@@ -9,9 +9,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.client.ResourceAccessException;
 
+import com.quizbackend.entity.EmailOutbox;
 import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -37,15 +40,16 @@ public class EmailService {
     @Value("${email.from.replyTo}")
     private String replyTo;
 
+    @Value("${brevo.api.url:https://api.brevo.com/v3/smtp/email}")
+    private String brevoApiUrl;
+
     @Autowired
     private RestTemplate restTemplate;
 
-    private static final String BREVO_API_URL = "https://api.brevo.com/v3/smtp/email";
-
     @PostConstruct
     public void init() {
         logger.info("EmailService initialized with Brevo API");
-        logger.debug("Base URL: {}, Frontend URL: {}", baseUrl, frontendUrl);
+        logger.debug("Base URL: {}, Frontend URL: {}, Brevo URL: {}", baseUrl, frontendUrl, brevoApiUrl);
         logger.debug("Sender configuration - Name: {}, Email: {}, ReplyTo: {}",
                      fromName, fromEmail, replyTo);
     }
@@ -56,8 +60,7 @@ public class EmailService {
     public void sendVerificationEmail(String toEmail, String username, String token) {
         logger.info("Sending verification email to: {}", toEmail);
         
-        // Point to frontend URL instead of backend API
-        String verificationLink = String.format("%s/email-verified?token=%s", frontendUrl, token);
+        String verificationLink = verificationLink(token);
         String htmlContent = buildModernEmailTemplate(username, verificationLink);
         
         try {
@@ -75,7 +78,7 @@ public class EmailService {
     public void sendPasswordResetEmail(String toEmail, String username, String token) {
         logger.info("Sending password reset email to: {}", toEmail);
         
-        String resetLink = String.format("%s/reset-password?token=%s", frontendUrl, token);
+        String resetLink = passwordResetLink(token);
         String htmlContent = buildPasswordResetTemplate(username, resetLink);
         
         try {
@@ -122,7 +125,7 @@ public class EmailService {
         try {
             logger.debug("Calling Brevo API for email to: {}", toEmail);
             ResponseEntity<String> response = restTemplate.postForEntity(
-                BREVO_API_URL,
+                brevoApiUrl,
                 requestEntity,
                 String.class
             );
@@ -144,6 +147,91 @@ public class EmailService {
         }
     }
 
+    /**
+     * Build the frontend verification link for a token
+     */
+    public String verificationLink(String token) {
+        // Point to frontend URL instead of backend API
+        return String.format("%s/email-verified?token=%s", frontendUrl, token);
+    }
+
+    /**
+     * Build the frontend password reset link for a token
+     */
+    public String passwordResetLink(String token) {
+        return String.format("%s/reset-password?token=%s", frontendUrl, token);
+    }
+
+    /**
+     * Send a batch of same-type outbox emails in one Brevo call using messageVersions.
+     * The template is rendered once with {{params.*}} placeholders, each version carries
+     * its own recipient and params.
+     */
+    public void sendBatch(EmailOutbox.Type type, List<EmailOutbox> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        logger.debug("Preparing batch of {} {} emails", messages.size(), type);
+
+        String subject;
+        String htmlContent;
+        switch (type) {
+            case VERIFICATION -> {
+                subject = "Verify Your FlashMind Account ✨";
+                htmlContent = buildModernEmailTemplate("{{params.username}}", "{{params.link}}");
+            }
+            case PASSWORD_RESET -> {
+                subject = "Reset Your FlashMind Password 🔐";
+                htmlContent = buildPasswordResetTemplate("{{params.username}}", "{{params.link}}");
+            }
+            default -> throw new IllegalArgumentException("Unsupported email type: " + type);
+        }
+
+        Map<String, Object> emailPayload = new HashMap<>();
+
+        Map<String, String> senderMap = new HashMap<>();
+        senderMap.put("name", fromName);
+        senderMap.put("email", fromEmail);
+        emailPayload.put("sender", senderMap);
+        emailPayload.put("subject", subject);
+        emailPayload.put("htmlContent", htmlContent);
+
+        List<Map<String, Object>> versions = new ArrayList<>();
+        for (EmailOutbox message : messages) {
+            Map<String, String> toMap = new HashMap<>();
+            toMap.put("email", message.getToEmail());
+            toMap.put("name", message.getToName());
+
+            Map<String, String> params = new HashMap<>();
+            params.put("username", message.getToName());
+            params.put("link", message.getLink());
+
+            Map<String, Object> version = new HashMap<>();
+            version.put("to", Arrays.asList(toMap));
+            version.put("params", params);
+            versions.add(version);
+        }
+        emailPayload.put("messageVersions", versions);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("api-key", brevoApiKey);
+
+        HttpEntity<Map<String, Object>> requestEntity = new HttpEntity<>(emailPayload, headers);
+
+        try {
+            ResponseEntity<String> response = restTemplate.postForEntity(brevoApiUrl, requestEntity, String.class);
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                throw new RuntimeException("Brevo API returned status: " + response.getStatusCode());
+            }
+            logger.info("Batch of {} {} emails accepted by Brevo API", messages.size(), type);
+        } catch (ResourceAccessException e) {
+            throw new RuntimeException("Failed to connect to email service", e);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Failed to send email batch: " + e.getMessage(), e);
+        }
+    }
+
     /**
      * Build modern email template for verification
      */
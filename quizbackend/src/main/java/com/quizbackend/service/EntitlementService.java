@@ -0,0 +1,158 @@
+package com.quizbackend.service;
+
+import com.quizbackend.entity.ProfessorSubscription;
+import com.quizbackend.repository.ProfessorRepository;
+import com.quizbackend.repository.ProfessorSubscriptionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-professor entitlements (role and current plan) cached in memory. An entry stops being
+ * valid at its subscription's end date, so an expiring plan is reloaded at that instant
+ * without waiting for the sweeper; subscription and plan changes drop the entry on commit.
+ * Loads run in the caller's transaction, so a cache miss inside a write reads the primary.
+ */
+@Service
+public class EntitlementService {
+
+    public record Entitlement(Integer professorId, String role, Integer subscriptionId, String planType,
+                              LocalDateTime expiresAt, CurrentSubscription subscription) {
+
+        public boolean isVip() {
+            return "PROFESSOR_VIP".equals(role);
+        }
+
+        public boolean hasActiveSubscription() {
+            return subscriptionId != null;
+        }
+    }
+
+    /**
+     * Immutable copy of the current subscription row, safe to share between requests; serializes
+     * like the ProfessorSubscription entity
+     */
+    public record CurrentSubscription(Integer id, Integer professorId, String planType, BigDecimal price,
+                                      LocalDateTime startDate, LocalDateTime endDate, String paymentMethod,
+                                      Boolean isActive, LocalDateTime createdAt) {
+
+        static CurrentSubscription of(ProfessorSubscription subscription) {
+            return new CurrentSubscription(subscription.getId(), subscription.getProfessorId(),
+                    subscription.getPlanType(), subscription.getPrice(), subscription.getStartDate(),
+                    subscription.getEndDate(), subscription.getPaymentMethod(), subscription.getIsActive(),
+                    subscription.getCreatedAt());
+        }
+    }
+
+    private record Entry(Entitlement entitlement, LocalDateTime validUntil) {
+    }
+
+    @Autowired
+    private ProfessorRepository professorRepository;
+
+    @Autowired
+    private ProfessorSubscriptionRepository professorSubscriptionRepository;
+
+    // Upper bound on how long an entry is trusted, for changes made outside this service
+    @Value("${entitlements.cache-ttl:10m}")
+    private Duration cacheTtl;
+
+    private final Map<Integer, Entry> cache = new ConcurrentHashMap<>();
+    // Bumped by every invalidation; a load that raced with one is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public Entitlement get(Integer professorId) {
+        LocalDateTime now = LocalDateTime.now();
+        Entry entry = cache.get(professorId);
+        if (entry != null) {
+            if (now.isBefore(entry.validUntil())) {
+                hits.increment();
+                return entry.entitlement();
+            }
+            expirations.increment();
+            cache.remove(professorId, entry);
+        }
+        misses.increment();
+        long loadedAt = generation.get();
+        Entitlement entitlement = load(professorId, now);
+        LocalDateTime validUntil = now.plus(cacheTtl);
+        if (entitlement.expiresAt() != null && entitlement.expiresAt().isBefore(validUntil)) {
+            validUntil = entitlement.expiresAt();
+        }
+        if (generation.get() == loadedAt) {
+            cache.put(professorId, new Entry(entitlement, validUntil));
+        }
+        return entitlement;
+    }
+
+    /**
+     * Drop cached entitlements once the current transaction commits, so the next read sees the change
+     */
+    public void invalidate(Collection<Integer> professorIds) {
+        if (professorIds.isEmpty()) {
+            return;
+        }
+        generation.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(professorIds);
+                }
+            });
+        } else {
+            evict(professorIds);
+        }
+    }
+
+    public void invalidate(Integer professorId) {
+        invalidate(List.of(professorId));
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cachedProfessors", cache.size());
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("expirations", expirations.sum());
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+
+    private void evict(Collection<Integer> professorIds) {
+        generation.incrementAndGet();
+        professorIds.forEach(cache::remove);
+        invalidations.add(professorIds.size());
+    }
+
+    private Entitlement load(Integer professorId, LocalDateTime now) {
+        String role = professorRepository.findRoleByUserId(professorId)
+                .orElseThrow(() -> new RuntimeException("Professor not found with ID: " + professorId));
+        ProfessorSubscription subscription = professorSubscriptionRepository
+                .findFirstByProfessorIdAndIsActiveTrueAndEndDateAfterOrderByEndDateDesc(professorId, now)
+                .orElse(null);
+        if (subscription == null) {
+            return new Entitlement(professorId, role, null, null, null, null);
+        }
+        return new Entitlement(professorId, role, subscription.getId(), subscription.getPlanType(),
+                subscription.getEndDate(), CurrentSubscription.of(subscription));
+    }
+}
@@ -0,0 +1,96 @@
+package com.quizbackend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Retention job for anonymous players: guests older than guest-retention.ttl are deleted with
+ * their participations. Each batch is its own short transaction followed by a pause, and a run
+ * stops after guest-retention.max-batches-per-run, so the purge never holds locks for long and
+ * a large backlog is worked off over several runs.
+ */
+@Service
+public class GuestRetentionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GuestRetentionService.class);
+
+    @Autowired
+    private GuestService guestService;
+
+    @Value("${guest-retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${guest-retention.ttl:90d}")
+    private Duration ttl;
+
+    @Value("${guest-retention.batch-size:500}")
+    private int batchSize;
+
+    @Value("${guest-retention.batch-pause:200ms}")
+    private Duration batchPause;
+
+    @Value("${guest-retention.max-batches-per-run:100}")
+    private int maxBatchesPerRun;
+
+    private final LongAdder guestsPurged = new LongAdder();
+    private final LongAdder participationsPurged = new LongAdder();
+    private volatile LocalDateTime lastRunAt;
+    private volatile boolean backlog;
+
+    @Scheduled(fixedDelayString = "${guest-retention.interval:3600000}", initialDelayString = "${guest-retention.initial-delay:60000}")
+    public void purge() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(ttl);
+        int guests = 0;
+        int participations = 0;
+        int batches = 0;
+        int[] batch;
+        do {
+            batch = guestService.purgeBatch(cutoff, batchSize);
+            guests += batch[0];
+            participations += batch[1];
+            batches++;
+        } while (batch[0] >= batchSize && batches < maxBatchesPerRun && pause());
+        guestsPurged.add(guests);
+        participationsPurged.add(participations);
+        lastRunAt = LocalDateTime.now();
+        backlog = batch[0] >= batchSize;
+        if (guests > 0) {
+            logger.info("Purged {} guests created before {} and {} of their participations in {} batches{}",
+                    guests, cutoff, participations, batches, backlog ? ", more left for the next run" : "");
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ttl", ttl.toString());
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("backlog", backlog);
+        stats.put("guestsPurged", guestsPurged.sum());
+        stats.put("participationsPurged", participationsPurged.sum());
+        return stats;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(batchPause.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
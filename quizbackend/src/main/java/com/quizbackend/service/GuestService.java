@@ -1,11 +1,16 @@
 package com.quizbackend.service;
 
 import com.quizbackend.entity.Guest;
+import com.quizbackend.repository.ArchivedParticipationRepository;
 import com.quizbackend.repository.GuestRepository;
+import com.quizbackend.repository.ParticipationAnswerRepository;
+import com.quizbackend.repository.ParticipationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
@@ -15,6 +20,18 @@ public class GuestService {
     @Autowired
     private GuestRepository guestRepository;
 
+    @Autowired
+    private ParticipationRepository participationRepository;
+
+    @Autowired
+    private ArchivedParticipationRepository archivedParticipationRepository;
+
+    @Autowired
+    private ParticipationAnswerRepository participationAnswerRepository;
+
+    @Autowired
+    private DashboardMetricsService dashboardMetricsService;
+
     public Guest createGuest(String pseudo, String email) {
         Guest guest = new Guest();
         guest.setPseudo(pseudo);
@@ -30,4 +47,26 @@ public class GuestService {
     public List<Guest> getAllGuests() {
         return guestRepository.findAll();
     }
+
+    /**
+     * Delete one batch of guests created before the cutoff, with their participations (live and
+     * archived) and answers.
+     * Quiz analytics and score distributions are aggregates and keep what these guests contributed.
+     * Returns [guests deleted, participations deleted].
+     */
+    public int[] purgeBatch(LocalDateTime cutoff, int batchSize) {
+        List<Integer> ids = guestRepository.findIdsCreatedBefore(cutoff, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return new int[] {0, 0};
+        }
+        participationAnswerRepository.deleteByGuestIds(ids);
+        participationAnswerRepository.deleteArchivedByGuestIds(ids);
+        int participations = participationRepository.deleteByGuestIds(ids)
+                + archivedParticipationRepository.deleteByGuestIds(ids);
+        int guests = guestRepository.deleteByIds(ids);
+        // Bulk deletes bypass the entity listeners that keep the dashboard counters
+        dashboardMetricsService.adjust(DashboardMetricsService.Counter.PARTICIPATIONS, -participations);
+        dashboardMetricsService.adjust(DashboardMetricsService.Counter.GUESTS, -guests);
+        return new int[] {guests, participations};
+    }
 }
@@ -0,0 +1,815 @@
+package com.quizbackend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quizbackend.entity.Participation;
+import com.quizbackend.entity.Question;
+import com.quizbackend.entity.Quiz;
+import com.quizbackend.entity.Response;
+import com.quizbackend.entity.User;
+import com.quizbackend.repository.GuestRepository;
+import com.quizbackend.repository.ParticipationRepository;
+import com.quizbackend.repository.QuestionRepository;
+import com.quizbackend.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Classroom "live" mode: the professor advances questions and every participant answers
+ * within a countdown. Sessions live in memory keyed by quiz code; answers only touch
+ * per-participant slots and striped per-response counters, and running histograms are
+ * coalesced onto a fixed tick so broadcast cost does not grow with the answer rate. Each
+ * broadcast is serialized once and the same bytes are queued to every connection, and a
+ * connection whose write does not finish within the send timeout is dropped.
+ * Results are written to participations in one transaction when the session ends.
+ */
+@Service
+public class LiveSessionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveSessionService.class);
+
+    // A selection is a bitmask of response slots in a long, 0 meaning unanswered
+    private static final int MAX_RESPONSES = 63;
+
+    public enum Status {
+        LOBBY,     // Participants joining, no question shown yet
+        QUESTION,  // Current question accepting answers until its deadline
+        CLOSED,    // Current question past its deadline, waiting for the professor
+        ENDED
+    }
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private QuotaService quotaService;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private ParticipationRepository participationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GuestRepository guestRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<String, LiveSession> sessions = new ConcurrentHashMap<>();
+    private final ExecutorService sender;
+    private final ExecutorService writer;
+    private final long sendTimeoutMillis;
+    private final int maxParticipants;
+    private final int defaultQuestionSeconds;
+    private final int bufferSize;
+    private final long streamTimeoutMillis;
+    private final long idleTimeoutMillis;
+
+    private final LongAdder answersAccepted = new LongAdder();
+    private final LongAdder answersRejected = new LongAdder();
+    private final LongAdder eventsDelivered = new LongAdder();
+    private final LongAdder overflowDisconnects = new LongAdder();
+    private final LongAdder stalledDisconnects = new LongAdder();
+    private final LongAdder participationsSaved = new LongAdder();
+
+    public LiveSessionService(
+            @Value("${live-session.sender-threads:4}") int senderThreads,
+            @Value("${live-session.send-timeout:5s}") Duration sendTimeout,
+            @Value("${live-session.max-participants:1000}") int maxParticipants,
+            @Value("${live-session.question-seconds:30}") int defaultQuestionSeconds,
+            @Value("${live-session.buffer-size:32}") int bufferSize,
+            @Value("${live-session.stream-timeout:2h}") Duration streamTimeout,
+            @Value("${live-session.idle-timeout:2h}") Duration idleTimeout) {
+        AtomicInteger counter = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(senderThreads, r -> {
+            Thread thread = new Thread(r, "live-session-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // One thread per write in flight: at most one per sender thread, plus writes abandoned
+        // on stalled connections until their socket gives up
+        AtomicInteger writers = new AtomicInteger();
+        this.writer = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "live-session-writer-" + writers.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sendTimeoutMillis = sendTimeout.toMillis();
+        this.maxParticipants = maxParticipants;
+        this.defaultQuestionSeconds = defaultQuestionSeconds;
+        this.bufferSize = bufferSize;
+        this.streamTimeoutMillis = streamTimeout.toMillis();
+        this.idleTimeoutMillis = idleTimeout.toMillis();
+    }
+
+    /**
+     * Open a live session for one of the professor's active quizzes
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> open(Integer quizId, Integer professorId) {
+        Quiz quiz = quizService.getQuizById(quizId);
+        if (!quiz.getProfessorId().equals(professorId)) {
+            throw new RuntimeException("Unauthorized to run this quiz live");
+        }
+        if (quiz.getStatus() != Quiz.Status.ACTIVE) {
+            throw new RuntimeException("Quiz is not available for participation. Current status: " + quiz.getStatus());
+        }
+
+        List<Question> quizQuestions = questionRepository.findByQuizId(quizId);
+        List<LiveQuestion> questions = new ArrayList<>();
+        for (Question question : quizQuestions) {
+            if (question.getResponses().size() > MAX_RESPONSES) {
+                throw new RuntimeException("Question " + question.getId() + " has more than " + MAX_RESPONSES
+                        + " responses and cannot be played live");
+            }
+            if (!question.getResponses().isEmpty()) {
+                questions.add(new LiveQuestion(question));
+            }
+        }
+        if (questions.isEmpty()) {
+            throw new RuntimeException("Quiz has no questions with responses");
+        }
+
+        LiveSession session = new LiveSession(quiz, questions, quizQuestions.size());
+        if (sessions.putIfAbsent(quiz.getCode(), session) != null) {
+            throw new RuntimeException("A live session is already running for this quiz");
+        }
+        logger.info("Live session opened for quiz {} ({} questions)", quizId, questions.size());
+        return session.state();
+    }
+
+    /**
+     * Admit a student (userId) or guest (guestId) to the session lobby or a running session
+     */
+    public Map<String, Object> join(String code, Integer userId, Integer guestId) {
+        LiveSession session = getSession(code);
+        if (session.status == Status.ENDED) {
+            throw new RuntimeException("Live session has ended");
+        }
+        String key = participantKey(userId, guestId);
+        if (!session.participants.containsKey(key)) {
+            if (userId != null) {
+                User user = userRepository.findById(userId)
+                        .orElseThrow(() -> new RuntimeException("User not found"));
+                if (user.getRole() != User.Role.STUDENT) {
+                    throw new RuntimeException("Only students can participate in quizzes");
+                }
+                if (quizService.hasParticipated(session.quizId, userId)) {
+                    throw new RuntimeException("User has already participated in this quiz");
+                }
+            } else {
+                if (!guestRepository.existsById(guestId)) {
+                    throw new RuntimeException("Guest not found");
+                }
+                if (participationRepository.existsByQuizIdAndGuestId(session.quizId, guestId)) {
+                    throw new RuntimeException("Guest has already participated in this quiz");
+                }
+            }
+            // Live participations are stored when the session ends, so count the lobby against the plan now
+            quotaService.checkParticipantHeadroom(session.professorId, session.quizId, session.participants.size());
+            // Admit under the session lock so nobody joins after end() has scored the participants
+            synchronized (session) {
+                if (session.status == Status.ENDED) {
+                    throw new RuntimeException("Live session has ended");
+                }
+                if (session.participants.size() >= maxParticipants) {
+                    throw new RuntimeException("Live session is full");
+                }
+                if (session.participants.putIfAbsent(key, new Participant(userId, guestId, session.questions.size())) == null) {
+                    session.dirty.set(true);
+                }
+            }
+        }
+        return session.state();
+    }
+
+    /**
+     * Move to the next question and start its countdown; the previous one is closed first
+     */
+    public Map<String, Object> next(String code, Integer professorId, Integer seconds) {
+        LiveSession session = getOwnedSession(code, professorId);
+        synchronized (session) {
+            if (session.status == Status.ENDED) {
+                throw new RuntimeException("Live session has ended");
+            }
+            int index = session.round == null ? 0 : session.round.index() + 1;
+            if (index >= session.questions.size()) {
+                throw new RuntimeException("No more questions, end the session to save results");
+            }
+            if (session.status == Status.QUESTION) {
+                closeRound(session);
+            }
+            long now = System.currentTimeMillis();
+            int duration = seconds != null && seconds > 0 ? seconds : defaultQuestionSeconds;
+            session.round = new Round(index, now, now + duration * 1000L);
+            session.status = Status.QUESTION;
+            session.touch();
+            broadcast(session, event("question", session.questionPayload()));
+        }
+        return session.state();
+    }
+
+    /**
+     * Record a participant's answer to the current question: one response, or several for a
+     * question with more than one correct response. The first answer counts.
+     */
+    public Map<String, Object> answer(String code, Integer userId, Integer guestId,
+                                      Integer questionId, Collection<Integer> responseIds) {
+        LiveSession session = getSession(code);
+        Participant participant = session.participants.get(participantKey(userId, guestId));
+        if (participant == null) {
+            answersRejected.increment();
+            throw new RuntimeException("Join the live session before answering");
+        }
+        Round round = session.round;
+        long now = System.currentTimeMillis();
+        if (session.status != Status.QUESTION || round == null || now > round.deadline()) {
+            answersRejected.increment();
+            throw new RuntimeException("Question is not accepting answers");
+        }
+        LiveQuestion question = session.questions.get(round.index());
+        if (!question.id.equals(questionId)) {
+            answersRejected.increment();
+            throw new RuntimeException("Question is no longer current");
+        }
+        if (responseIds == null || responseIds.isEmpty()) {
+            answersRejected.increment();
+            throw new RuntimeException("Select at least one response");
+        }
+        long selection = 0;
+        for (Integer responseId : responseIds) {
+            Integer slot = question.slotByResponseId.get(responseId);
+            if (slot == null) {
+                answersRejected.increment();
+                throw new RuntimeException("Response does not belong to this question");
+            }
+            selection |= 1L << slot;
+        }
+        if (!participant.selected.compareAndSet(round.index(), 0, selection)) {
+            answersRejected.increment();
+            throw new RuntimeException("Question already answered");
+        }
+        participant.answeredAt.set(round.index(), now - round.startedAt());
+        for (int slot = 0; slot < question.tally.length; slot++) {
+            if ((selection & (1L << slot)) != 0) {
+                question.tally[slot].increment();
+            }
+        }
+        question.answered.increment();
+        session.dirty.set(true);
+        answersAccepted.increment();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("question_id", questionId);
+        result.put("response_ids", question.responseIds(selection));
+        result.put("accepted", true);
+        return result;
+    }
+
+    /**
+     * End the session, score every participant and persist the results in one batch
+     */
+    public Map<String, Object> end(String code, Integer professorId) {
+        LiveSession session = getOwnedSession(code, professorId);
+        List<Participation> results;
+        List<QuizAnalyticsService.Submission> submissions = new ArrayList<>();
+        synchronized (session) {
+            if (session.status == Status.ENDED) {
+                throw new RuntimeException("Live session has already ended");
+            }
+            if (session.status == Status.QUESTION) {
+                closeRound(session);
+            }
+            session.status = Status.ENDED;
+            results = buildResults(session, submissions);
+        }
+
+        List<Participation> saved;
+        try {
+            saved = results.isEmpty() ? List.of() : quizService.saveLiveSessionResults(session.quizId, results, submissions);
+        } catch (RuntimeException e) {
+            // Keep the session so the professor can retry ending it
+            synchronized (session) {
+                session.status = Status.CLOSED;
+            }
+            throw new RuntimeException("Failed to save live session results: " + e.getMessage());
+        }
+        participationsSaved.add(saved.size());
+        sessions.remove(code, session);
+        logger.info("Live session for quiz {} ended, {} participations saved", session.quizId, saved.size());
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("quiz_id", session.quizId);
+        payload.put("participants", session.participants.size());
+        payload.put("saved", saved.size());
+        broadcast(session, event("ended", payload));
+        session.subscribers.forEach(subscriber -> sender.execute(() -> complete(subscriber)));
+        return payload;
+    }
+
+    /**
+     * Open an event stream on the session; the current state is sent first
+     */
+    public SseEmitter stream(String code) {
+        return subscribe(code, new SseEmitter(streamTimeoutMillis));
+    }
+
+    // Package-private so tests can stand in for the client connection
+    SseEmitter subscribe(String code, SseEmitter emitter) {
+        LiveSession session = getSession(code);
+        Subscriber subscriber = new Subscriber(session, emitter, bufferSize);
+        session.subscribers.add(subscriber);
+        subscriber.emitter.onCompletion(() -> session.subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> session.subscribers.remove(subscriber));
+        subscriber.emitter.onError(e -> session.subscribers.remove(subscriber));
+        offer(subscriber, event("state", session.state()));
+        if (session.status == Status.QUESTION) {
+            offer(subscriber, event("question", session.questionPayload()));
+        }
+        return subscriber.emitter;
+    }
+
+    public Map<String, Object> getState(String code) {
+        return getSession(code).state();
+    }
+
+    /**
+     * Push running histograms of sessions that received answers or joins since the last tick,
+     * and close questions whose countdown has run out
+     */
+    @Scheduled(fixedDelayString = "${live-session.tick-interval:500}")
+    public void tick() {
+        long now = System.currentTimeMillis();
+        for (LiveSession session : sessions.values()) {
+            synchronized (session) {
+                if (session.status == Status.QUESTION && now > session.round.deadline()) {
+                    closeRound(session);
+                }
+            }
+            if (session.dirty.getAndSet(false)) {
+                broadcast(session, event("tally", session.tallyPayload()));
+            }
+        }
+    }
+
+    /**
+     * Keeps idle streams open through proxies and drops sessions the professor abandoned
+     */
+    @Scheduled(fixedDelayString = "${live-session.heartbeat-interval:15000}")
+    public void heartbeat() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        for (LiveSession session : sessions.values()) {
+            if (session.lastActivity < cutoff) {
+                expire(session);
+                continue;
+            }
+            broadcast(session, SseEmitter.event().comment("keep-alive").build());
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        Map<String, Object> active = new LinkedHashMap<>();
+        sessions.forEach((code, session) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("quizId", session.quizId);
+            entry.put("status", session.status);
+            entry.put("participants", session.participants.size());
+            entry.put("connections", session.subscribers.size());
+            active.put(code, entry);
+        });
+        stats.put("sessions", active);
+        stats.put("answersAccepted", answersAccepted.sum());
+        stats.put("answersRejected", answersRejected.sum());
+        stats.put("eventsDelivered", eventsDelivered.sum());
+        stats.put("overflowDisconnects", overflowDisconnects.sum());
+        stats.put("stalledDisconnects", stalledDisconnects.sum());
+        stats.put("participationsSaved", participationsSaved.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sessions.values().forEach(session -> {
+            if (session.status != Status.ENDED) {
+                logger.warn("Live session for quiz {} discarded on shutdown ({} participants)",
+                        session.quizId, session.participants.size());
+            }
+            session.subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        });
+        sender.shutdownNow();
+        writer.shutdownNow();
+    }
+
+    private void expire(LiveSession session) {
+        if (session.round == null) {
+            logger.info("Live session for quiz {} expired before any question, discarding", session.quizId);
+            synchronized (session) {
+                session.status = Status.ENDED;
+            }
+            sessions.remove(session.code, session);
+            session.subscribers.forEach(subscriber -> sender.execute(() -> complete(subscriber)));
+            return;
+        }
+        logger.warn("Live session for quiz {} idle too long, ending it", session.quizId);
+        try {
+            end(session.code, session.professorId);
+        } catch (RuntimeException e) {
+            logger.error("Failed to end idle live session for quiz {}: {}", session.quizId, e.getMessage());
+            sessions.remove(session.code, session);
+        }
+    }
+
+    // Caller holds the session lock
+    private void closeRound(LiveSession session) {
+        session.status = Status.CLOSED;
+        LiveQuestion question = session.questions.get(session.round.index());
+        Map<String, Object> payload = session.tallyPayload();
+        payload.put("correct_response_ids", question.correctIds);
+        broadcast(session, event("closed", payload));
+    }
+
+    private List<Participation> buildResults(LiveSession session, List<QuizAnalyticsService.Submission> submissions) {
+        int played = session.questions.size();
+        // Scored out of every question of the quiz, like a self-paced submission. Questions without
+        // responses are not played live; with nothing to select they count as answered correctly.
+        int total = session.totalQuestions;
+        int unplayed = total - played;
+        LocalDateTime ended = LocalDateTime.now();
+        List<Participation> results = new ArrayList<>(session.participants.size());
+        for (Participant participant : session.participants.values()) {
+            int correct = unplayed;
+            List<Map<String, Object>> answers = new ArrayList<>(played);
+            List<Integer> selectedIds = new ArrayList<>(played);
+            for (int i = 0; i < played; i++) {
+                LiveQuestion question = session.questions.get(i);
+                List<Integer> selection = question.responseIds(participant.selected.get(i));
+                // Correct when the selection is exactly the set of correct responses, as in calculateScore
+                boolean isCorrect = new HashSet<>(selection).equals(question.correctIds);
+                if (isCorrect) {
+                    correct++;
+                }
+                selectedIds.addAll(selection);
+                // Same shape the self-paced quiz page submits, plus every id of a multiple selection
+                Map<String, Object> answer = new LinkedHashMap<>();
+                answer.put("questionId", question.id);
+                answer.put("selectedResponseId", selection.size() == 1 ? selection.get(0) : null);
+                answer.put("selectedResponseIds", selection);
+                answer.put("isCorrect", isCorrect);
+                answer.put("timeSpent", selection.isEmpty() ? null : participant.answeredAt.get(i) / 1000);
+                answers.add(answer);
+            }
+
+            Participation participation = new Participation();
+            participation.setQuizId(session.quizId);
+            participation.setUserId(participant.userId);
+            participation.setGuestId(participant.guestId);
+            participation.setSubmittedAt(ended);
+            participation.setScore(BigDecimal.valueOf(correct)
+                    .divide(BigDecimal.valueOf(total), 2, RoundingMode.HALF_UP)
+                    .multiply(BigDecimal.valueOf(100)));
+            try {
+                participation.setStudentResponses(objectMapper.writeValueAsString(answers));
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Failed to serialize live answers: " + e.getMessage());
+            }
+            results.add(participation);
+            submissions.add(new QuizAnalyticsService.Submission(participation.getScore(), selectedIds));
+        }
+        return results;
+    }
+
+    /**
+     * Build an event with its JSON already rendered. Event builders are mutable and must not be
+     * shared between emitters, while the built parts are plain data safe to send to all of them.
+     */
+    private Set<ResponseBodyEmitter.DataWithMediaType> event(String name, Object payload) {
+        try {
+            return SseEmitter.event().name(name)
+                    .data(objectMapper.writeValueAsString(payload), MediaType.APPLICATION_JSON)
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize live session event: " + e.getMessage());
+        }
+    }
+
+    private void broadcast(LiveSession session, Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        for (Subscriber subscriber : session.subscribers) {
+            offer(subscriber, event);
+        }
+    }
+
+    private void offer(Subscriber subscriber, Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        if (subscriber.queue.offer(event)) {
+            if (subscriber.draining.compareAndSet(false, true)) {
+                sender.execute(() -> drain(subscriber));
+            }
+            return;
+        }
+        // A client this far behind would only see stale tallies; it reconnects for fresh state
+        if (subscriber.closed.compareAndSet(false, true)) {
+            overflowDisconnects.increment();
+            subscriber.session.subscribers.remove(subscriber);
+            sender.execute(() -> complete(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Set<ResponseBodyEmitter.DataWithMediaType> event;
+            while ((event = subscriber.queue.poll()) != null) {
+                send(subscriber, event);
+                eventsDelivered.increment();
+            }
+        } catch (TimeoutException e) {
+            stalledDisconnects.increment();
+            logger.debug("Live session stream for quiz {} stalled, dropping it", subscriber.session.quizId);
+            subscriber.session.subscribers.remove(subscriber);
+            subscriber.completed.set(true);
+            // The emitter stays locked by the stuck write: close it behind that write
+            writer.execute(() -> subscriber.emitter.completeWithError(e));
+            return;
+        } catch (IOException | IllegalStateException e) {
+            subscriber.session.subscribers.remove(subscriber);
+            subscriber.completed.set(true);
+            subscriber.emitter.completeWithError(e);
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // An event may have arrived after the last poll but before the flag was cleared
+        if (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true)) {
+            sender.execute(() -> drain(subscriber));
+            return;
+        }
+        if (subscriber.completing.get() && subscriber.completed.compareAndSet(false, true)) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    /**
+     * Write one event, waiting at most the send timeout. A client that stops reading fills its
+     * TCP window and blocks the write; that only holds a writer thread, never the sender pool
+     * shared by every session.
+     */
+    private void send(Subscriber subscriber, Set<ResponseBodyEmitter.DataWithMediaType> event)
+            throws IOException, TimeoutException {
+        Future<?> write = writer.submit(() -> {
+            subscriber.emitter.send(event);
+            return null;
+        });
+        try {
+            write.get(sendTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            write.cancel(true);
+            throw new IOException("Interrupted while sending", e);
+        } catch (TimeoutException e) {
+            write.cancel(true);
+            throw e;
+        }
+    }
+
+    /**
+     * Close the stream once queued events (e.g. "ended") are out. Only one drain runs per
+     * subscriber, so this goes through the same guard as offer(); whichever drain empties the
+     * queue last completes the emitter.
+     */
+    private void complete(Subscriber subscriber) {
+        subscriber.completing.set(true);
+        if (subscriber.draining.compareAndSet(false, true)) {
+            drain(subscriber);
+        }
+    }
+
+    private LiveSession getSession(String code) {
+        LiveSession session = sessions.get(code);
+        if (session == null) {
+            throw new RuntimeException("No live session running for this code");
+        }
+        return session;
+    }
+
+    private LiveSession getOwnedSession(String code, Integer professorId) {
+        LiveSession session = getSession(code);
+        if (!session.professorId.equals(professorId)) {
+            throw new RuntimeException("Unauthorized to control this live session");
+        }
+        return session;
+    }
+
+    private String participantKey(Integer userId, Integer guestId) {
+        if (userId != null) {
+            return "user:" + userId;
+        }
+        if (guestId != null) {
+            return "guest:" + guestId;
+        }
+        throw new RuntimeException("A student account or guest ID is required");
+    }
+
+    private record Round(int index, long startedAt, long deadline) {
+    }
+
+    /**
+     * Immutable copy of a question taken when the session opens, plus its answer counters
+     */
+    private static final class LiveQuestion {
+        private final Integer id;
+        private final String text;
+        private final List<Integer> responseIdBySlot = new ArrayList<>();
+        private final List<Map<String, Object>> responses = new ArrayList<>();
+        private final Set<Integer> correctIds = new HashSet<>();
+        private final Map<Integer, Integer> slotByResponseId = new HashMap<>();
+        private final LongAdder[] tally;
+        private final LongAdder answered = new LongAdder();
+
+        LiveQuestion(Question question) {
+            this.id = question.getId();
+            this.text = question.getQuestionText();
+            List<Response> source = question.getResponses();
+            this.tally = new LongAdder[source.size()];
+            for (int i = 0; i < source.size(); i++) {
+                Response response = source.get(i);
+                // Correctness is only revealed when the question closes
+                Map<String, Object> option = new LinkedHashMap<>();
+                option.put("id", response.getId());
+                option.put("response_text", response.getResponseText());
+                responses.add(option);
+                if (Boolean.TRUE.equals(response.getIsCorrect())) {
+                    correctIds.add(response.getId());
+                }
+                slotByResponseId.put(response.getId(), i);
+                responseIdBySlot.add(response.getId());
+                tally[i] = new LongAdder();
+            }
+        }
+
+        List<Integer> responseIds(long selection) {
+            List<Integer> ids = new ArrayList<>(Long.bitCount(selection));
+            for (int slot = 0; slot < responseIdBySlot.size(); slot++) {
+                if ((selection & (1L << slot)) != 0) {
+                    ids.add(responseIdBySlot.get(slot));
+                }
+            }
+            return ids;
+        }
+    }
+
+    private static final class Participant {
+        private final Integer userId;
+        private final Integer guestId;
+        // Bitmask of the selected response slots per question, 0 while unanswered
+        private final AtomicLongArray selected;
+        // Milliseconds from question start to answer
+        private final AtomicLongArray answeredAt;
+
+        Participant(Integer userId, Integer guestId, int questionCount) {
+            this.userId = userId;
+            this.guestId = guestId;
+            this.selected = new AtomicLongArray(questionCount);
+            this.answeredAt = new AtomicLongArray(questionCount);
+        }
+    }
+
+    private static final class Subscriber {
+        private final LiveSession session;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue;
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+        private final AtomicBoolean completing = new AtomicBoolean(false);
+        private final AtomicBoolean completed = new AtomicBoolean(false);
+
+        Subscriber(LiveSession session, SseEmitter emitter, int bufferSize) {
+            this.session = session;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+
+    private static final class LiveSession {
+        private final Integer quizId;
+        private final String code;
+        private final String title;
+        private final Integer professorId;
+        private final List<LiveQuestion> questions;
+        // All questions of the quiz, including those without responses that are not played
+        private final int totalQuestions;
+        private final Map<String, Participant> participants = new ConcurrentHashMap<>();
+        private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        private final AtomicBoolean dirty = new AtomicBoolean(false);
+        // Written under the session lock, read lock-free on the answer path
+        private volatile Status status = Status.LOBBY;
+        private volatile Round round;
+        private volatile long lastActivity = System.currentTimeMillis();
+
+        LiveSession(Quiz quiz, List<LiveQuestion> questions, int totalQuestions) {
+            this.quizId = quiz.getId();
+            this.code = quiz.getCode();
+            this.title = quiz.getTitle();
+            this.professorId = quiz.getProfessorId();
+            this.questions = questions;
+            this.totalQuestions = totalQuestions;
+        }
+
+        void touch() {
+            lastActivity = System.currentTimeMillis();
+        }
+
+        Map<String, Object> state() {
+            Round current = round;
+            Map<String, Object> state = new LinkedHashMap<>();
+            state.put("code", code);
+            state.put("quiz_id", quizId);
+            state.put("title", title);
+            state.put("status", status);
+            state.put("question_count", questions.size());
+            state.put("question_index", current == null ? null : current.index());
+            state.put("participants", participants.size());
+            return state;
+        }
+
+        Map<String, Object> questionPayload() {
+            Round current = round;
+            LiveQuestion question = questions.get(current.index());
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("index", current.index());
+            payload.put("total", questions.size());
+            payload.put("question_id", question.id);
+            payload.put("question_text", question.text);
+            payload.put("responses", question.responses);
+            // Lets the page offer several selections without revealing which responses are correct
+            payload.put("multiple", question.correctIds.size() > 1);
+            payload.put("deadline", current.deadline());
+            payload.put("seconds_remaining", Math.max(0, (current.deadline() - System.currentTimeMillis()) / 1000));
+            return payload;
+        }
+
+        Map<String, Object> tallyPayload() {
+            Round current = round;
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("participants", participants.size());
+            if (current == null) {
+                return payload;
+            }
+            LiveQuestion question = questions.get(current.index());
+            Map<Object, Long> counts = new LinkedHashMap<>();
+            for (int i = 0; i < question.tally.length; i++) {
+                counts.put(question.responses.get(i).get("id"), question.tally[i].sum());
+            }
+            payload.put("question_id", question.id);
+            payload.put("answered", question.answered.sum());
+            payload.put("counts", counts);
+            return payload;
+        }
+    }
+}
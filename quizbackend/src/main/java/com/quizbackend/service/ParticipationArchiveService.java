@@ -0,0 +1,92 @@
+package com.quizbackend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cold tier for participations: rows older than participation-archive.after-months move to
+ * participations_archive, so the live table that student statistics, leaderboards and ranks
+ * scan stays small. Students' archived totals are kept in student_archive_stats and added back
+ * by StudentService, which also reads archived rows into the quiz history. Batches are paced
+ * like the guest purge.
+ */
+@Service
+public class ParticipationArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParticipationArchiveService.class);
+
+    @Autowired
+    private QuizService quizService;
+
+    @Value("${participation-archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${participation-archive.after-months:12}")
+    private int afterMonths;
+
+    @Value("${participation-archive.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${participation-archive.batch-pause:200ms}")
+    private Duration batchPause;
+
+    @Value("${participation-archive.max-batches-per-run:200}")
+    private int maxBatchesPerRun;
+
+    private final LongAdder archived = new LongAdder();
+    private volatile LocalDateTime lastRunAt;
+    private volatile boolean backlog;
+
+    @Scheduled(fixedDelayString = "${participation-archive.interval:86400000}", initialDelayString = "${participation-archive.initial-delay:120000}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusMonths(afterMonths);
+        int participations = 0;
+        int batches = 0;
+        int[] batch;
+        do {
+            batch = quizService.archiveBatch(cutoff, batchSize);
+            participations += batch[0];
+            batches++;
+        } while (batch[0] >= batchSize && batches < maxBatchesPerRun && pause());
+        archived.add(participations);
+        lastRunAt = LocalDateTime.now();
+        backlog = batch[0] >= batchSize;
+        if (participations > 0) {
+            logger.info("Archived {} participations created before {} in {} batches{}",
+                    participations, cutoff, batches, backlog ? ", more left for the next run" : "");
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("afterMonths", afterMonths);
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("backlog", backlog);
+        stats.put("participationsArchived", archived.sum());
+        return stats;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(batchPause.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.quizbackend.service;
+
+import com.quizbackend.dto.ParticipationDto;
+import com.quizbackend.event.ParticipationEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live participation feeds for professors monitoring a quiz over Server-Sent Events.
+ * A new connection gets one "snapshot" event, then deltas ("joined", "submitted", "fraud")
+ * as QuizService commits changes. Each connection has its own bounded buffer drained on a
+ * small sender pool, so a slow client never blocks the request that produced the event;
+ * a client that falls behind is sent "resync" and closed, and reconnects for a fresh snapshot.
+ * A write that does not finish within the send timeout drops the connection, so a client that
+ * stopped reading cannot hold a sender thread.
+ */
+@Service
+public class ParticipationFeedService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParticipationFeedService.class);
+
+    private final Map<Integer, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService sender;
+    private final ExecutorService writer;
+    private final long sendTimeoutMillis;
+    private final int bufferSize;
+    private final long timeoutMillis;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+    private final LongAdder stalled = new LongAdder();
+
+    public ParticipationFeedService(
+            @Value("${participation-feed.sender-threads:2}") int senderThreads,
+            @Value("${participation-feed.send-timeout:5s}") Duration sendTimeout,
+            @Value("${participation-feed.buffer-size:256}") int bufferSize,
+            @Value("${participation-feed.timeout:30m}") Duration timeout) {
+        AtomicInteger counter = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(senderThreads, r -> {
+            Thread thread = new Thread(r, "participation-feed-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Writes abandoned on stalled connections keep their thread until the socket gives up
+        AtomicInteger writers = new AtomicInteger();
+        this.writer = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "participation-feed-writer-" + writers.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sendTimeoutMillis = sendTimeout.toMillis();
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    /**
+     * Register a connection for a quiz. Call before loading the snapshot so no change is
+     * missed in between; deltas that race with the snapshot are upserts by participation id.
+     */
+    public Subscriber subscribe(Integer quizId) {
+        return subscribe(quizId, new SseEmitter(timeoutMillis));
+    }
+
+    // Package-private so tests can stand in for the client connection
+    Subscriber subscribe(Integer quizId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(quizId, emitter, bufferSize);
+        subscribers.compute(quizId, (id, list) -> {
+            List<Subscriber> result = list != null ? list : new CopyOnWriteArrayList<>();
+            result.add(subscriber);
+            return result;
+        });
+        subscriber.emitter.onCompletion(() -> remove(subscriber));
+        subscriber.emitter.onTimeout(() -> remove(subscriber));
+        subscriber.emitter.onError(e -> remove(subscriber));
+        logger.debug("Participation feed opened for quiz {}", quizId);
+        return subscriber;
+    }
+
+    /**
+     * Send the initial snapshot, then start draining buffered deltas
+     */
+    public void open(Subscriber subscriber, List<ParticipationDto> snapshot) {
+        subscriber.snapshot = SseEmitter.event().name("snapshot").data(snapshot);
+        subscriber.ready.set(true);
+        schedule(subscriber);
+    }
+
+    /**
+     * Drop a connection that never got its snapshot (e.g. the caller was not authorized)
+     */
+    public void cancel(Subscriber subscriber) {
+        remove(subscriber);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onParticipationEvent(ParticipationEvent event) {
+        List<Subscriber> quizSubscribers = subscribers.get(event.quizId());
+        published.increment();
+        if (quizSubscribers == null || quizSubscribers.isEmpty()) {
+            return;
+        }
+        String name = event.type().name().toLowerCase();
+        for (Subscriber subscriber : quizSubscribers) {
+            if (!subscriber.queue.offer(SseEmitter.event().name(name).data(event.participation()))) {
+                overflow(subscriber);
+                continue;
+            }
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * Keeps idle connections open through proxies and detects clients that went away
+     */
+    @Scheduled(fixedDelayString = "${participation-feed.heartbeat-interval:15000}")
+    public void heartbeat() {
+        subscribers.values().forEach(list -> list.forEach(subscriber -> {
+            if (subscriber.queue.offer(SseEmitter.event().comment("keep-alive"))) {
+                schedule(subscriber);
+            }
+        }));
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        Map<Integer, Integer> connections = new LinkedHashMap<>();
+        subscribers.forEach((quizId, list) -> connections.put(quizId, list.size()));
+        stats.put("connectionsByQuiz", connections);
+        stats.put("eventsPublished", published.sum());
+        stats.put("eventsDelivered", delivered.sum());
+        stats.put("overflowDisconnects", overflowed.sum());
+        stats.put("stalledDisconnects", stalled.sum());
+        return stats;
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.ready.get() && subscriber.draining.compareAndSet(false, true)) {
+            sender.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            SseEmitter.SseEventBuilder event = subscriber.snapshot;
+            if (event != null) {
+                subscriber.snapshot = null;
+                send(subscriber, event);
+            }
+            while ((event = subscriber.queue.poll()) != null) {
+                send(subscriber, event);
+                delivered.increment();
+            }
+        } catch (TimeoutException e) {
+            stalled.increment();
+            logger.debug("Participation feed for quiz {} stalled, dropping it", subscriber.quizId);
+            remove(subscriber);
+            // The emitter stays locked by the stuck write: close it behind that write
+            writer.execute(() -> subscriber.emitter.completeWithError(e));
+            return;
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Participation feed for quiz {} closed: {}", subscriber.quizId, e.getMessage());
+            remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // An event may have arrived after the last poll but before the flag was cleared
+        if (!subscriber.queue.isEmpty()) {
+            schedule(subscriber);
+        }
+    }
+
+    private void overflow(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        overflowed.increment();
+        logger.warn("Participation feed for quiz {} fell behind, asking client to resync", subscriber.quizId);
+        remove(subscriber);
+        sender.execute(() -> {
+            try {
+                send(subscriber, SseEmitter.event().name("resync").data("buffer overflow"));
+            } catch (TimeoutException e) {
+                writer.execute(() -> subscriber.emitter.completeWithError(e));
+                return;
+            } catch (IOException | IllegalStateException ignored) {
+                // Client is gone anyway
+            }
+            subscriber.emitter.complete();
+        });
+    }
+
+    /**
+     * Write one event, waiting at most the send timeout; a blocked write only holds a writer
+     * thread, never the sender pool shared by every feed.
+     */
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) throws IOException, TimeoutException {
+        Future<?> write = writer.submit(() -> {
+            subscriber.emitter.send(event);
+            return null;
+        });
+        try {
+            write.get(sendTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            write.cancel(true);
+            throw new IOException("Interrupted while sending", e);
+        } catch (TimeoutException e) {
+            write.cancel(true);
+            throw e;
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.quizId, (quizId, list) -> {
+            list.remove(subscriber);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(list -> list.forEach(subscriber -> subscriber.emitter.complete()));
+        sender.shutdownNow();
+        writer.shutdownNow();
+    }
+
+    public static final class Subscriber {
+        private final Integer quizId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+        private final AtomicBoolean ready = new AtomicBoolean(false);
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+        // Only touched by the thread holding the draining flag once ready is set
+        private volatile SseEmitter.SseEventBuilder snapshot;
+
+        private Subscriber(Integer quizId, SseEmitter emitter, int bufferSize) {
+            this.quizId = quizId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        public SseEmitter getEmitter() {
+            return emitter;
+        }
+    }
+}
@@ -7,6 +7,8 @@ import com.quizbackend.repository.ProfessorRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,8 +19,10 @@ import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Service
 @Transactional
@@ -26,12 +30,17 @@ public class ProfessorSubscriptionService {
 
     private static final Logger logger = LoggerFactory.getLogger(ProfessorSubscriptionService.class);
 
+    private static final int MAX_PAGE_SIZE = 200;
+
     @Autowired
     private ProfessorSubscriptionRepository professorSubscriptionRepository;
 
     @Autowired
     private ProfessorRepository professorRepository;
 
+    @Autowired
+    private EntitlementService entitlementService;
+
     public ProfessorSubscription createSubscription(
             Integer professorId,
             String planType,
@@ -72,6 +81,7 @@ public class ProfessorSubscriptionService {
         // Update professor's subscriptionId to link them
         professor.setSubscriptionId(savedSubscription.getId());
         professorRepository.save(professor);
+        entitlementService.invalidate(professor.getUserId());
         
         return savedSubscription;
     }
@@ -80,26 +90,87 @@ public class ProfessorSubscriptionService {
         return professorSubscriptionRepository.findAllOrderByCreatedAtDesc();
     }
 
+    /**
+     * One page of subscriptions for the admin listing, newest first, each with its professor's name
+     */
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> getSubscriptionSummaries(Boolean active, LocalDate expiresAfter,
+                                                             LocalDate expiresBefore, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new RuntimeException("Page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        return professorSubscriptionRepository.findSummaries(active,
+                expiresAfter != null ? expiresAfter.atStartOfDay() : null,
+                expiresBefore != null ? expiresBefore.atStartOfDay() : null,
+                PageRequest.of(page, size)).map(row -> {
+            Map<String, Object> dto = new HashMap<>();
+            dto.put("id", row[0]);
+            dto.put("professorId", row[1]);
+            dto.put("planType", row[2]);
+            dto.put("price", row[3]);
+            dto.put("startDate", row[4]);
+            dto.put("endDate", row[5]);
+            dto.put("paymentMethod", row[6]);
+            dto.put("isActive", row[7]);
+            dto.put("createdAt", row[8]);
+            if (row[9] != null || row[10] != null) {
+                Map<String, Object> profInfo = new HashMap<>();
+                profInfo.put("userId", row[1]);
+                profInfo.put("firstName", row[9]);
+                profInfo.put("lastName", row[10]);
+                dto.put("professor", profInfo);
+            }
+            return dto;
+        });
+    }
+
     public List<ProfessorSubscription> getSubscriptionsByProfessorId(Integer professorId) {
         return professorSubscriptionRepository.findByProfessorId(professorId);
     }
 
-    public ProfessorSubscription getCurrentSubscription(Integer professorId) {
-        List<ProfessorSubscription> subscriptions = professorSubscriptionRepository.findByProfessorId(professorId);
-        
-        return subscriptions.stream()
-                .filter(ProfessorSubscription::getIsActive)
-                .filter(subscription -> subscription.getEndDate().isAfter(LocalDateTime.now()))
-                .max((s1, s2) -> s1.getEndDate().compareTo(s2.getEndDate()))
-                .orElse(null);
+    /**
+     * The professor's running subscription as cached with their entitlements, null when none
+     */
+    public EntitlementService.CurrentSubscription getCurrentSubscription(Integer professorId) {
+        return entitlementService.get(professorId).subscription();
+    }
+
+    /**
+     * Deactivate one batch of subscriptions whose end date has passed and downgrade their
+     * professors from VIP when no other subscription is still running.
+     * Returns [subscriptions expired, professors downgraded].
+     */
+    public int[] expireDueBatch(LocalDateTime now, int batchSize) {
+        List<Object[]> due = professorSubscriptionRepository.findDueForExpiry(now, PageRequest.of(0, batchSize));
+        if (due.isEmpty()) {
+            return new int[] {0, 0};
+        }
+        List<Integer> ids = new ArrayList<>();
+        Set<Integer> professorIds = new HashSet<>();
+        for (Object[] row : due) {
+            ids.add((Integer) row[0]);
+            professorIds.add((Integer) row[1]);
+        }
+        int expired = professorSubscriptionRepository.deactivateByIds(ids);
+        int downgraded = professorRepository.downgradeExpiredVip(professorIds, now);
+        entitlementService.invalidate(professorIds);
+        return new int[] {expired, downgraded};
     }
 
     public long getDaysRemaining(ProfessorSubscription subscription) {
-        return ChronoUnit.DAYS.between(LocalDateTime.now(), subscription.getEndDate());
+        return getDaysRemaining(subscription.getEndDate());
+    }
+
+    public long getDaysRemaining(LocalDateTime endDate) {
+        return ChronoUnit.DAYS.between(LocalDateTime.now(), endDate);
     }
 
     public boolean isExpiringSoon(ProfessorSubscription subscription) {
-        return getDaysRemaining(subscription) <= 7;
+        return isExpiringSoon(subscription.getEndDate());
+    }
+
+    public boolean isExpiringSoon(LocalDateTime endDate) {
+        return getDaysRemaining(endDate) <= 7;
     }
 
     public List<Map<String, Object>> getAvailablePlans() {
@@ -148,12 +219,14 @@ public class ProfessorSubscriptionService {
     public void deleteSubscription(Integer id) {
         ProfessorSubscription subscription = getSubscriptionById(id);
         professorSubscriptionRepository.delete(subscription);
+        entitlementService.invalidate(subscription.getProfessorId());
     }
 
     public void updateSubscriptionStatus(Integer id, Boolean isActive) {
         ProfessorSubscription subscription = getSubscriptionById(id);
         subscription.setIsActive(isActive);
         professorSubscriptionRepository.save(subscription);
+        entitlementService.invalidate(subscription.getProfessorId());
     }
 
     /**
@@ -185,6 +258,7 @@ public class ProfessorSubscriptionService {
             String oldRole = professor.getRole();
             professor.setRole(role);
             professorRepository.save(professor);
+            entitlementService.invalidate(professorId);
             
             logger.info("Professor plan updated successfully - ID: {}, Old Role: {}, New Role: {}",
                        professorId, oldRole, role);
@@ -0,0 +1,355 @@
+package com.quizbackend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quizbackend.dto.QuizAnalyticsDto;
+import com.quizbackend.entity.Participation;
+import com.quizbackend.entity.Question;
+import com.quizbackend.entity.QuestionAnalytics;
+import com.quizbackend.entity.Quiz;
+import com.quizbackend.entity.QuizAnalytics;
+import com.quizbackend.entity.Response;
+import com.quizbackend.entity.ResponseAnalytics;
+import com.quizbackend.repository.ArchivedParticipationRepository;
+import com.quizbackend.repository.ParticipationAnswerRepository;
+import com.quizbackend.repository.ParticipationRepository;
+import com.quizbackend.repository.QuestionAnalyticsRepository;
+import com.quizbackend.repository.QuestionRepository;
+import com.quizbackend.repository.QuizAnalyticsRepository;
+import com.quizbackend.repository.QuizRepository;
+import com.quizbackend.repository.ResponseAnalyticsRepository;
+import com.quizbackend.repository.ResponseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Item analysis maintained incrementally: each submission adds its score to the quiz totals,
+ * its outcome to every question it answered and a count to every response it selected. The
+ * statistics are derived from those sums on read, so no participation is ever re-parsed.
+ */
+@Service
+@Transactional
+public class QuizAnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuizAnalyticsService.class);
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private QuizAnalyticsRepository quizAnalyticsRepository;
+
+    @Autowired
+    private QuestionAnalyticsRepository questionAnalyticsRepository;
+
+    @Autowired
+    private ResponseAnalyticsRepository responseAnalyticsRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private ResponseRepository responseRepository;
+
+    @Autowired
+    private ParticipationRepository participationRepository;
+
+    @Autowired
+    private ArchivedParticipationRepository archivedParticipationRepository;
+
+    @Autowired
+    private ParticipationAnswerRepository participationAnswerRepository;
+
+    @Autowired
+    private ScoreDistributionService scoreDistributionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * A graded submission: its total score and every response it selected
+     */
+    public record Submission(BigDecimal score, Collection<Integer> selectedResponseIds) {
+    }
+
+    /**
+     * Add submissions to a quiz's running totals, in the caller's transaction
+     */
+    public void recordSubmissions(Integer quizId, List<Submission> submissions) {
+        if (!submissions.isEmpty()) {
+            apply(quizId, submissions, List.of());
+        }
+    }
+
+    /**
+     * Swap a participation's earlier submission for its new one
+     */
+    public void replaceSubmission(Integer quizId, Submission previous, Submission current) {
+        apply(quizId, List.of(current), List.of(previous));
+    }
+
+    /**
+     * The submission a participation's stored answers represent, for replacing it later
+     */
+    public Submission storedSubmission(Participation participation) {
+        List<Integer> selected = participationAnswerRepository.findResponseIdsByParticipationId(participation.getId());
+        if (selected.isEmpty()) {
+            // Submitted before answers were stored in rows and not backfilled yet
+            selected = selectedResponseIds(participation.getStudentResponses());
+        }
+        return new Submission(participation.getScore(), selected);
+    }
+
+    /**
+     * Add a batch's deltas to the stored sums with in-place upserts: nothing is read or locked
+     * beforehand and only the rows the batch changes are written. Submissions call this last, so
+     * the rows they lock are held just until their commit.
+     */
+    private void apply(Integer quizId, List<Submission> added, List<Submission> removed) {
+        Delta delta = fold(quizId, added, removed, responseRepository.findByQuizId(quizId));
+
+        quizAnalyticsRepository.addTotals(quizId, delta.totals.getSubmissions(), delta.totals.getScoreSum(),
+                delta.totals.getScoreSquareSum(), delta.totals.getUpdatedAt());
+        questionAnalyticsRepository.addDeltas(delta.questions.values());
+        responseAnalyticsRepository.addDeltas(delta.selections.values());
+    }
+
+    @Transactional(readOnly = true)
+    public QuizAnalyticsDto getQuizAnalytics(Integer quizId, Integer professorId) {
+        checkOwner(quizRepository.findById(quizId), professorId);
+        return getQuizAnalytics(quizId);
+    }
+
+    private QuizAnalyticsDto getQuizAnalytics(Integer quizId) {
+        QuizAnalytics totals = quizAnalyticsRepository.findById(quizId).orElse(new QuizAnalytics(quizId));
+        Map<Integer, QuestionAnalytics> questionStats = questionAnalyticsRepository.findByQuizId(quizId).stream()
+                .collect(Collectors.toMap(QuestionAnalytics::getQuestionId, Function.identity()));
+        Map<Integer, ResponseAnalytics> responseStats = responseAnalyticsRepository.findByQuizId(quizId).stream()
+                .collect(Collectors.toMap(ResponseAnalytics::getResponseId, Function.identity()));
+        Map<Integer, List<Response>> responsesByQuestion = responseRepository.findByQuizId(quizId).stream()
+                .collect(Collectors.groupingBy(Response::getQuestionId));
+
+        long n = totals.getSubmissions();
+        Double mean = n > 0 ? totals.getScoreSum() / n : null;
+        Double stdDev = n > 0 ? Math.sqrt(Math.max(0, totals.getScoreSquareSum() / n - mean * mean)) : null;
+
+        QuizAnalyticsDto dto = new QuizAnalyticsDto();
+        dto.setQuizId(quizId);
+        dto.setSubmissions(n);
+        dto.setMeanScore(mean);
+        dto.setScoreStdDev(stdDev);
+
+        for (Question question : questionRepository.findByQuizId(quizId)) {
+            QuestionAnalytics stats = questionStats.getOrDefault(question.getId(),
+                    new QuestionAnalytics(question.getId(), quizId));
+            QuizAnalyticsDto.QuestionStats questionDto = new QuizAnalyticsDto.QuestionStats();
+            questionDto.setQuestionId(question.getId());
+            questionDto.setQuestionText(question.getQuestionText());
+            questionDto.setAnswered(stats.getAnswered());
+            questionDto.setCorrect(stats.getCorrect());
+            if (n > 0) {
+                double p = (double) stats.getCorrect() / n;
+                questionDto.setDifficulty(p);
+                questionDto.setDiscrimination(pointBiserial(stats, totals, p, mean, stdDev));
+            }
+
+            for (Response response : responsesByQuestion.getOrDefault(question.getId(), List.of())) {
+                ResponseAnalytics selections = responseStats.get(response.getId());
+                QuizAnalyticsDto.ResponseStats responseDto = new QuizAnalyticsDto.ResponseStats();
+                responseDto.setResponseId(response.getId());
+                responseDto.setResponseText(response.getResponseText());
+                responseDto.setIsCorrect(response.getIsCorrect());
+                responseDto.setSelections(selections != null ? selections.getSelections() : 0L);
+                responseDto.setFrequency(n > 0 ? (double) responseDto.getSelections() / n : null);
+                questionDto.getResponses().add(responseDto);
+            }
+            dto.getQuestions().add(questionDto);
+        }
+        return dto;
+    }
+
+    /**
+     * Recompute a quiz's totals and score distribution from its participations. Only needed for
+     * participations submitted before analytics existed; afterwards the totals stay current.
+     */
+    public QuizAnalyticsDto rebuild(Integer quizId, Integer professorId) {
+        checkOwner(quizRepository.findById(quizId), professorId);
+        // Take the lock submissions take before reading anything, so none is lost or counted twice
+        QuizAnalytics totals = lockTotals(quizId);
+        Map<Integer, List<Integer>> answers = new HashMap<>();
+        for (Object[] pair : participationAnswerRepository.findAnswerPairsByQuizId(quizId)) {
+            answers.computeIfAbsent((Integer) pair[0], id -> new ArrayList<>()).add((Integer) pair[1]);
+        }
+        List<Submission> submissions = new ArrayList<>();
+        List<Participation> participations = new ArrayList<>(participationRepository.findByQuizId(quizId));
+        archivedParticipationRepository.findByQuizId(quizId)
+                .forEach(archived -> participations.add(archived.toParticipation()));
+        for (Participation participation : participations) {
+            if (participation.getStudentResponses() == null) {
+                continue; // Started but never submitted
+            }
+            List<Integer> selected = answers.get(participation.getId());
+            submissions.add(selected != null
+                    ? new Submission(participation.getScore(), selected)
+                    : storedSubmission(participation));
+        }
+        Delta delta = fold(quizId, submissions, List.of(), responseRepository.findByQuizId(quizId));
+
+        questionAnalyticsRepository.deleteByQuizId(quizId);
+        responseAnalyticsRepository.deleteByQuizId(quizId);
+        totals.setSubmissions(delta.totals.getSubmissions());
+        totals.setScoreSum(delta.totals.getScoreSum());
+        totals.setScoreSquareSum(delta.totals.getScoreSquareSum());
+        totals.setUpdatedAt(delta.totals.getUpdatedAt());
+        questionAnalyticsRepository.saveAll(delta.questions.values());
+        responseAnalyticsRepository.saveAll(delta.selections.values());
+        scoreDistributionService.rebuild(quizId);
+
+        logger.info("Rebuilt analytics for quiz {} from {} submissions", quizId, submissions.size());
+        return getQuizAnalytics(quizId);
+    }
+
+    /**
+     * Drop all analytics rows of deleted quizzes in three bulk statements
+     */
+    public void deleteByQuizIds(Collection<Integer> quizIds) {
+        responseAnalyticsRepository.deleteByQuizIds(quizIds);
+        questionAnalyticsRepository.deleteByQuizIds(quizIds);
+        quizAnalyticsRepository.deleteByQuizIds(quizIds);
+    }
+
+    /**
+     * Fold submissions (and any they replace) into one delta per row, so a batch costs the
+     * same number of statements as a single submission
+     */
+    private Delta fold(Integer quizId, List<Submission> added, List<Submission> removed, List<Response> responses) {
+        Map<Integer, Response> responsesById = responses.stream()
+                .collect(Collectors.toMap(Response::getId, Function.identity()));
+        Map<Integer, Set<Integer>> correctByQuestion = new HashMap<>();
+        for (Response response : responses) {
+            Set<Integer> correct = correctByQuestion.computeIfAbsent(response.getQuestionId(), id -> new HashSet<>());
+            if (Boolean.TRUE.equals(response.getIsCorrect())) {
+                correct.add(response.getId());
+            }
+        }
+
+        Delta delta = new Delta(new QuizAnalytics(quizId));
+        delta.totals.setUpdatedAt(LocalDateTime.now());
+        added.forEach(submission -> delta.add(quizId, submission, 1, responsesById, correctByQuestion));
+        removed.forEach(submission -> delta.add(quizId, submission, -1, responsesById, correctByQuestion));
+        return delta;
+    }
+
+    /**
+     * Lock a quiz's totals row, creating it first if the quiz has none yet. The insert takes the
+     * row's write lock either way, so no shared lock is ever upgraded into a deadlock.
+     */
+    private QuizAnalytics lockTotals(Integer quizId) {
+        quizAnalyticsRepository.insertEmpty(quizId);
+        return quizAnalyticsRepository.findByQuizId(quizId)
+                .orElseThrow(() -> new RuntimeException("Quiz analytics not found"));
+    }
+
+    private void checkOwner(Optional<Quiz> found, Integer professorId) {
+        Quiz quiz = found.orElseThrow(() -> new RuntimeException("Quiz not found"));
+        if (!quiz.getProfessorId().equals(professorId)) {
+            throw new RuntimeException("Unauthorized to view analytics for this quiz");
+        }
+    }
+
+    /**
+     * r_pb = (M1 - M0) / s * sqrt(p * q), from the score sum of those who got the item right
+     * and the quiz totals; undefined when everyone or no one got it right or all scores are equal
+     */
+    private Double pointBiserial(QuestionAnalytics stats, QuizAnalytics totals, double p, Double mean, Double stdDev) {
+        long n = totals.getSubmissions();
+        long right = stats.getCorrect();
+        if (right == 0 || right == n || stdDev == null || stdDev == 0) {
+            return null;
+        }
+        double meanRight = stats.getCorrectScoreSum() / right;
+        double meanWrong = (totals.getScoreSum() - stats.getCorrectScoreSum()) / (n - right);
+        return (meanRight - meanWrong) / stdDev * Math.sqrt(p * (1 - p));
+    }
+
+    // Answers as stored by the quiz page: [{"questionId": .., "selectedResponseId": ..}, ...]; live
+    // sessions add "selectedResponseIds" with every id of a multiple selection
+    private List<Integer> selectedResponseIds(String studentResponses) {
+        List<Integer> ids = new ArrayList<>();
+        try {
+            for (JsonNode answer : objectMapper.readTree(studentResponses)) {
+                JsonNode multiple = answer.get("selectedResponseIds");
+                if (multiple != null && multiple.isArray()) {
+                    for (JsonNode selected : multiple) {
+                        if (selected.canConvertToInt()) {
+                            ids.add(selected.asInt());
+                        }
+                    }
+                    continue;
+                }
+                JsonNode selected = answer.get("selectedResponseId");
+                if (selected != null && selected.canConvertToInt()) {
+                    ids.add(selected.asInt());
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Skipping unreadable student responses: {}", e.getMessage());
+        }
+        return ids;
+    }
+
+    /**
+     * Changes from a batch of submissions, in the shape of the rows they are added to
+     */
+    private record Delta(QuizAnalytics totals, Map<Integer, QuestionAnalytics> questions,
+                         Map<Integer, ResponseAnalytics> selections) {
+        Delta(QuizAnalytics totals) {
+            this(totals, new LinkedHashMap<>(), new LinkedHashMap<>());
+        }
+
+        void add(Integer quizId, Submission submission, int sign, Map<Integer, Response> responsesById,
+                 Map<Integer, Set<Integer>> correctByQuestion) {
+            double score = submission.score() != null ? submission.score().doubleValue() : 0;
+            totals.setSubmissions(totals.getSubmissions() + sign);
+            totals.setScoreSum(totals.getScoreSum() + sign * score);
+            totals.setScoreSquareSum(totals.getScoreSquareSum() + sign * score * score);
+
+            Map<Integer, Set<Integer>> selectedByQuestion = new HashMap<>();
+            for (Integer responseId : new HashSet<>(submission.selectedResponseIds())) {
+                Response response = responsesById.get(responseId);
+                if (response != null) {
+                    selectedByQuestion.computeIfAbsent(response.getQuestionId(), id -> new HashSet<>()).add(responseId);
+                    ResponseAnalytics selection = selections.computeIfAbsent(responseId,
+                            id -> new ResponseAnalytics(id, response.getQuestionId(), quizId));
+                    selection.setSelections(selection.getSelections() + sign);
+                }
+            }
+            selectedByQuestion.forEach((questionId, selected) -> {
+                QuestionAnalytics question = questions.computeIfAbsent(questionId, id -> new QuestionAnalytics(id, quizId));
+                question.setAnswered(question.getAnswered() + sign);
+                // Same rule as scoring: every correct response selected and nothing else
+                if (selected.equals(correctByQuestion.get(questionId))) {
+                    question.setCorrect(question.getCorrect() + sign);
+                    question.setCorrectScoreSum(question.getCorrectScoreSum() + sign * score);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.quizbackend.service;
+
+import com.quizbackend.entity.Quiz;
+import com.quizbackend.repository.ArchivedParticipationRepository;
+import com.quizbackend.repository.ParticipationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Quiz result exports. Rows are read with a forward-only cursor and written straight to the
+ * response as they arrive, so memory use does not depend on the number of participations.
+ */
+@Service
+public class QuizExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuizExportService.class);
+
+    private static final String CSV_HEADER =
+            "participation_id,participant_type,participant_id,name,email,score,is_fraud,submitted,started_at";
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private ParticipationRepository participationRepository;
+
+    @Autowired
+    private ArchivedParticipationRepository archivedParticipationRepository;
+
+    /**
+     * Resolve the quiz to export, before the response is committed so failures can still be reported
+     */
+    public Quiz getExportableQuiz(Integer quizId, Integer professorId) {
+        Quiz quiz = quizService.getQuizById(quizId);
+        if (!quiz.getProfessorId().equals(professorId)) {
+            throw new RuntimeException("Unauthorized to export results for this quiz");
+        }
+        return quiz;
+    }
+
+    /**
+     * Write one CSV line per participation of the quiz. Runs on the async request thread, so the
+     * transaction (and the cursor it holds) lives exactly as long as the download.
+     */
+    @Transactional(readOnly = true)
+    public void writeParticipationsCsv(Integer quizId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        // Byte order mark so spreadsheet applications detect UTF-8 names
+        writer.write('\uFEFF');
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+
+        // Archived participations first: they are the oldest, so the file stays in id order
+        long rows = writeRows(writer, archivedParticipationRepository.streamResultRowsByQuizId(quizId));
+        rows += writeRows(writer, participationRepository.streamResultRowsByQuizId(quizId));
+        writer.flush();
+        logger.debug("Exported {} participations of quiz {}", rows, quizId);
+    }
+
+    private long writeRows(Writer writer, Stream<Object[]> rows) throws IOException {
+        long count = 0;
+        try (rows) {
+            Iterator<Object[]> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writeRow(writer, iterator.next());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void writeRow(Writer writer, Object[] row) throws IOException {
+        boolean guest = row[1] == null && row[4] != null;
+        writer.write(String.valueOf(row[0]));
+        writer.write(',');
+        writer.write(guest ? "guest" : "student");
+        writer.write(',');
+        writer.write(String.valueOf(guest ? row[4] : row[1]));
+        writer.write(',');
+        writeText(writer, (String) (guest ? row[5] : row[2]));
+        writer.write(',');
+        writeText(writer, guest ? null : (String) row[3]);
+        writer.write(',');
+        if (row[6] != null) {
+            writer.write(row[6].toString());
+        }
+        writer.write(',');
+        writer.write(String.valueOf(Boolean.TRUE.equals(row[7])));
+        writer.write(',');
+        writer.write(String.valueOf(Boolean.TRUE.equals(row[9])));
+        writer.write(',');
+        if (row[8] != null) {
+            writer.write(row[8].toString());
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180 quoting; names starting with a formula character are prefixed so spreadsheets show them as text
+    private void writeText(Writer writer, String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        if ("=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,87 @@
+package com.quizbackend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Background removal of soft-deleted quizzes. Deleting a quiz only stamps deleted_at, which
+ * hides it immediately; this job then removes its participations, answers, questions and
+ * statistics with bulk deletes, one short transaction per batch with a pause in between,
+ * so deleting a popular quiz neither loads its object graph nor holds locks for long.
+ */
+@Service
+public class QuizPurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuizPurgeService.class);
+
+    @Autowired
+    private QuizService quizService;
+
+    @Value("${quiz-purge.quizzes-per-batch:20}")
+    private int quizzesPerBatch;
+
+    @Value("${quiz-purge.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${quiz-purge.batch-pause:100ms}")
+    private Duration batchPause;
+
+    @Value("${quiz-purge.max-batches-per-run:500}")
+    private int maxBatchesPerRun;
+
+    private final LongAdder quizzesPurged = new LongAdder();
+    private final LongAdder participationsPurged = new LongAdder();
+    private volatile LocalDateTime lastRunAt;
+    private volatile boolean backlog;
+
+    @Scheduled(fixedDelayString = "${quiz-purge.interval:30000}", initialDelayString = "${quiz-purge.initial-delay:30000}")
+    public void purge() {
+        int quizzes = 0;
+        int participations = 0;
+        int batches = 0;
+        int[] batch;
+        do {
+            batch = quizService.purgeDeletedBatch(quizzesPerBatch, batchSize);
+            quizzes += batch[0];
+            participations += batch[1];
+            batches++;
+        } while (batch[0] + batch[1] > 0 && batches < maxBatchesPerRun && pause());
+        quizzesPurged.add(quizzes);
+        participationsPurged.add(participations);
+        lastRunAt = LocalDateTime.now();
+        backlog = batch[0] + batch[1] > 0;
+        if (quizzes > 0 || participations > 0) {
+            logger.info("Purged {} deleted quizzes and {} of their participations in {} batches{}",
+                    quizzes, participations, batches, backlog ? ", more left for the next run" : "");
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("backlog", backlog);
+        stats.put("quizzesPurged", quizzesPurged.sum());
+        stats.put("participationsPurged", participationsPurged.sum());
+        return stats;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(batchPause.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
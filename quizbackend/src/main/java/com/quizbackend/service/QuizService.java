@@ -1,16 +1,32 @@
 package com.quizbackend.service;
 
+import com.quizbackend.dto.ParticipationDto;
 import com.quizbackend.entity.*;
+import com.quizbackend.event.ParticipationEvent;
 import com.quizbackend.repository.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -37,11 +53,50 @@ public class QuizService {
     @Autowired
     private StudentRepository studentRepository;
 
+    @Autowired
+    private ParticipationAnswerRepository participationAnswerRepository;
+
+    @Autowired
+    private QuizAnalyticsService quizAnalyticsService;
+
+    @Autowired
+    private ScoreDistributionService scoreDistributionService;
+
+    @Autowired
+    private QuotaService quotaService;
+
+    @Autowired
+    private ArchivedParticipationRepository archivedParticipationRepository;
+
+    @Autowired
+    private StudentArchiveStatsRepository studentArchiveStatsRepository;
+
+    @Autowired
+    private DashboardMetricsService dashboardMetricsService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer scoringTimer;
+
+    @PostConstruct
+    void registerMeters() {
+        scoringTimer = Timer.builder("quiz.scoring")
+                .description("Time to score a submission against the quiz's correct responses")
+                .register(meterRegistry);
+    }
+
     public Quiz createQuiz(Quiz quiz, Integer professorId) {
         // Generate unique quiz code
         String code = generateUniqueQuizCode();
         quiz.setCode(code);
         quiz.setProfessorId(professorId);
+        if (quiz.getStatus() != Quiz.Status.ARCHIVED) {
+            quotaService.acquireQuiz(professorId);
+        }
         return quizRepository.save(quiz);
     }
 
@@ -63,6 +118,14 @@ public class QuizService {
             existingQuiz.setDuration(updatedQuiz.getDuration());
         }
         if (updatedQuiz.getStatus() != null) {
+            // Archived quizzes do not count towards the plan's quiz limit
+            boolean wasArchived = existingQuiz.getStatus() == Quiz.Status.ARCHIVED;
+            boolean archived = updatedQuiz.getStatus() == Quiz.Status.ARCHIVED;
+            if (wasArchived && !archived) {
+                quotaService.acquireQuiz(existingQuiz.getProfessorId());
+            } else if (!wasArchived && archived) {
+                quotaService.releaseQuiz(existingQuiz.getProfessorId());
+            }
             existingQuiz.setStatus(updatedQuiz.getStatus());
         }
 
@@ -77,6 +140,8 @@ public class QuizService {
         quiz.setProfessorId(professorId);
         String code = generateUniqueQuizCode();
         quiz.setCode(code);
+        // Admin-created quizzes are counted but not held to the professor's plan
+        quotaService.recordQuiz(professorId);
         return quizRepository.save(quiz);
     }
 
@@ -88,6 +153,10 @@ public class QuizService {
         return quizRepository.save(existingQuiz);
     }
 
+    /**
+     * Soft delete: the quiz is hidden from every query at once and QuizPurgeService removes it
+     * and everything attached to it in the background (see purgeDeletedBatch)
+     */
     public void deleteQuiz(Integer quizId, Integer professorId) {
         Quiz quiz = quizRepository.findById(quizId)
                 .orElseThrow(() -> new RuntimeException("Quiz not found"));
@@ -96,7 +165,14 @@ public class QuizService {
             throw new RuntimeException("Unauthorized to delete this quiz");
         }
 
-        quizRepository.delete(quiz);
+        quiz.setDeletedAt(LocalDateTime.now());
+        quizRepository.save(quiz);
+        // An update, so the entity listener that counts removed quizzes does not fire
+        dashboardMetricsService.adjust(DashboardMetricsService.Counter.QUIZZES, -1);
+        if (quiz.getStatus() != Quiz.Status.ARCHIVED) {
+            quotaService.releaseQuiz(quiz.getProfessorId());
+        }
+        quotaService.forgetQuiz(quizId);
     }
 
     public List<Quiz> getQuizzesByProfessor(Integer professorId) {
@@ -226,13 +302,33 @@ public class QuizService {
         }
 
         // Calculate score
-        BigDecimal score = calculateScore(quizId, selectedResponseIds);
+        BigDecimal score = scoringTimer.record(() -> calculateScore(quizId, selectedResponseIds));
+        // Started participations have no answers yet; a resubmission replaces its earlier answers in analytics
+        QuizAnalyticsService.Submission previous = participation.getStudentResponses() != null
+                ? quizAnalyticsService.storedSubmission(participation) : null;
 
         // Update existing participation record
         participation.setScore(score);
         participation.setStudentResponses(studentResponses);
+        participation.setSubmittedAt(LocalDateTime.now());
 
-        return participationRepository.save(participation);
+        Participation saved = participationRepository.save(participation);
+        if (previous != null) {
+            participationAnswerRepository.deleteByParticipationId(saved.getId());
+        }
+        if (selectedResponseIds != null) {
+            participationAnswerRepository.insertAnswers(quizId, Map.of(saved.getId(), selectedResponseIds));
+        }
+        QuizAnalyticsService.Submission current = new QuizAnalyticsService.Submission(score, selectedResponseIds);
+        if (previous == null) {
+            quizAnalyticsService.recordSubmissions(quizId, List.of(current));
+        } else {
+            quizAnalyticsService.replaceSubmission(quizId, previous, current);
+        }
+        scoreDistributionService.record(quizId, List.of(score),
+                previous != null && previous.score() != null ? List.of(previous.score()) : List.of());
+        publishParticipationEvent(ParticipationEvent.Type.SUBMITTED, saved);
+        return saved;
     }
 
     /**
@@ -242,7 +338,7 @@ public class QuizService {
         Quiz quiz = quizRepository.findByCode(code)
                 .orElseThrow(() -> new RuntimeException("Quiz not found"));
         
-        return createParticipation(quiz.getId(), userId, guestId, studentId);
+        return createParticipation(quiz, userId, guestId, studentId);
     }
 
     /**
@@ -257,13 +353,14 @@ public class QuizService {
             throw new RuntimeException("Quiz is not available for participation. Current status: " + quiz.getStatus());
         }
 
-        return createParticipation(quizId, userId, guestId, studentId);
+        return createParticipation(quiz, userId, guestId, studentId);
     }
 
     /**
      * Internal method to create participation with proper validation
      */
-    private Participation createParticipation(Integer quizId, Integer userId, Integer guestId, Integer studentId) {
+    private Participation createParticipation(Quiz quiz, Integer userId, Integer guestId, Integer studentId) {
+        Integer quizId = quiz.getId();
         // Only students can participate in quizzes
         Integer participationUserId = null;
         if (userId != null) {
@@ -272,13 +369,14 @@ public class QuizService {
                 throw new RuntimeException("Only students can participate in quizzes");
             }
             participationUserId = userId;
-            if (participationRepository.existsByQuizIdAndUserId(quizId, participationUserId)) {
+            if (hasParticipated(quizId, participationUserId)) {
                 throw new RuntimeException("User has already participated in this quiz");
             }
         }
         if (guestId != null && participationRepository.existsByQuizIdAndGuestId(quizId, guestId)) {
             throw new RuntimeException("Guest has already participated in this quiz");
         }
+        quotaService.acquireParticipant(quiz.getProfessorId(), quizId);
 
         Participation participation = new Participation();
         participation.setQuizId(quizId);
@@ -287,7 +385,17 @@ public class QuizService {
         participation.setScore(java.math.BigDecimal.ZERO);
         participation.setIsFraud(false); // Ensure isFraud is explicitly set to false
 
-        return participationRepository.save(participation);
+        Participation saved = participationRepository.save(participation);
+        publishParticipationEvent(ParticipationEvent.Type.JOINED, saved);
+        return saved;
+    }
+
+    /**
+     * Whether a student already took a quiz, including participations moved to the archive
+     */
+    public boolean hasParticipated(Integer quizId, Integer userId) {
+        return participationRepository.existsByQuizIdAndUserId(quizId, userId)
+                || archivedParticipationRepository.existsByQuizIdAndUserId(quizId, userId);
     }
 
     public List<Participation> getQuizParticipations(Integer quizId, Integer professorId) {
@@ -297,12 +405,40 @@ public class QuizService {
             throw new RuntimeException("Unauthorized to view participations for this quiz");
         }
 
-        // Use the custom query that eagerly fetches user and guest
-        return participationRepository.findByQuizIdWithUserAndGuest(quizId);
+        // Archived participations first (they are the oldest), then the custom query that eagerly fetches user and guest
+        List<Participation> participations = findArchivedParticipations(quiz);
+        participations.addAll(participationRepository.findByQuizIdWithUserAndGuest(quizId));
+        return participations;
+    }
+
+    /**
+     * Archived participations of a quiz, as detached copies carrying their quiz, user and guest
+     */
+    private List<Participation> findArchivedParticipations(Quiz quiz) {
+        List<ArchivedParticipation> archived = archivedParticipationRepository.findByQuizId(quiz.getId());
+        if (archived.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Integer, User> users = userRepository
+                .findAllById(archived.stream().map(ArchivedParticipation::getUserId).filter(Objects::nonNull).distinct().toList())
+                .stream().collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<Integer, Guest> guests = guestRepository
+                .findAllById(archived.stream().map(ArchivedParticipation::getGuestId).filter(Objects::nonNull).distinct().toList())
+                .stream().collect(Collectors.toMap(Guest::getId, Function.identity()));
+        List<Participation> participations = new ArrayList<>(archived.size());
+        for (ArchivedParticipation row : archived) {
+            Participation participation = row.toParticipation();
+            participation.setQuiz(quiz);
+            participation.setUser(row.getUserId() == null ? null : users.get(row.getUserId()));
+            participation.setGuest(row.getGuestId() == null ? null : guests.get(row.getGuestId()));
+            participations.add(participation);
+        }
+        participations.sort(Comparator.comparing(Participation::getId));
+        return participations;
     }
 
     public List<Participation> getUserParticipations(Integer userId) {
-        return participationRepository.findByUserId(userId);
+        return participationRepository.findByUserIdWithQuiz(userId);
     }
 
     public Participation getParticipationById(Integer participationId) {
@@ -335,11 +471,13 @@ public class QuizService {
                 throw new RuntimeException("Only students can participate in quizzes");
             }
             participationUserId = userId;
-            if (participationRepository.existsByQuizIdAndUserId(quizId, participationUserId)) {
+            if (hasParticipated(quizId, participationUserId)) {
                 throw new RuntimeException("User has already participated in this quiz");
             }
         }
 
+        quotaService.acquireParticipant(quiz.getProfessorId(), quizId);
+
         // Create participation record with zero score initially
         Participation participation = new Participation();
         participation.setQuizId(quizId);
@@ -348,7 +486,9 @@ public class QuizService {
         participation.setScore(java.math.BigDecimal.ZERO);
         participation.setIsFraud(false); // Ensure isFraud is explicitly set to false
 
-        return participationRepository.save(participation);
+        Participation saved = participationRepository.save(participation);
+        publishParticipationEvent(ParticipationEvent.Type.JOINED, saved);
+        return saved;
     }
 
     /**
@@ -366,8 +506,123 @@ public class QuizService {
             throw new RuntimeException("Unauthorized to mark fraud for this quiz");
         }
 
+        // A submitted score stops counting towards the score distribution once flagged
+        boolean counted = !Boolean.TRUE.equals(participation.getIsFraud()) && participation.getStudentResponses() != null;
         participation.setIsFraud(true);
-        return participationRepository.save(participation);
+        Participation saved = participationRepository.save(participation);
+        if (counted && saved.getScore() != null) {
+            scoreDistributionService.record(saved.getQuizId(), List.of(), List.of(saved.getScore()));
+        }
+        publishParticipationEvent(ParticipationEvent.Type.FRAUD, saved);
+        return saved;
+    }
+
+    /**
+     * Persist the scored participations of a finished live session, their answers and analytics
+     * in a single transaction; submissions are in the same order as participations
+     */
+    public List<Participation> saveLiveSessionResults(Integer quizId, List<Participation> participations,
+                                                      List<QuizAnalyticsService.Submission> submissions) {
+        List<Participation> saved = participationRepository.saveAll(participations);
+        quotaService.recordParticipants(getQuizById(quizId).getProfessorId(), quizId, saved.size());
+        Map<Integer, Collection<Integer>> answers = new HashMap<>();
+        for (int i = 0; i < saved.size(); i++) {
+            answers.put(saved.get(i).getId(), submissions.get(i).selectedResponseIds());
+        }
+        participationAnswerRepository.insertAnswers(quizId, answers);
+        quizAnalyticsService.recordSubmissions(quizId, submissions);
+        scoreDistributionService.record(quizId, submissions.stream().map(QuizAnalyticsService.Submission::score)
+                .filter(Objects::nonNull).toList(), List.of());
+        return saved;
+    }
+
+    /**
+     * Move one batch of participations created before the cutoff into the archive table, adding
+     * their totals to each student's archived statistics first. Answers stay where they are.
+     * Returns [participations archived, students updated].
+     */
+    public int[] archiveBatch(LocalDateTime cutoff, int batchSize) {
+        List<Integer> ids = participationRepository.findIdsCreatedBefore(cutoff, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return new int[] {0, 0};
+        }
+        List<Object[]> totals = participationRepository.summarizeByUserForIds(ids);
+        Map<Integer, StudentArchiveStats> stats = new HashMap<>();
+        studentArchiveStatsRepository.findAllById(totals.stream().map(row -> (Integer) row[0]).toList())
+                .forEach(row -> stats.put(row.getUserId(), row));
+        LocalDateTime now = LocalDateTime.now();
+        for (Object[] row : totals) {
+            StudentArchiveStats student = stats.computeIfAbsent((Integer) row[0], StudentArchiveStats::new);
+            student.setParticipations(student.getParticipations() + (Long) row[1]);
+            student.setScoredParticipations(student.getScoredParticipations() + (Long) row[2]);
+            if (row[3] != null) {
+                student.setScoreSum(student.getScoreSum().add((BigDecimal) row[3]));
+            }
+            BigDecimal best = (BigDecimal) row[4];
+            if (best != null && (student.getBestScore() == null || best.compareTo(student.getBestScore()) > 0)) {
+                student.setBestScore(best);
+            }
+            student.setPerfectScores(student.getPerfectScores() + ((Number) row[5]).longValue());
+            student.setUpdatedAt(now);
+        }
+        studentArchiveStatsRepository.saveAll(stats.values());
+        int archived = archivedParticipationRepository.copyFromParticipations(ids);
+        participationRepository.deleteByIds(ids);
+        return new int[] {archived, stats.size()};
+    }
+
+    /**
+     * Remove one chunk of what soft-deleted quizzes still hold, with bulk deletes by id instead of
+     * loading their object graphs. Participations (live, then archived) and their answers go
+     * first, batchSize at a time; once none are left the quizzes are deleted with their questions,
+     * responses and statistics. Students' archived totals keep what they contributed, like other
+     * materialized statistics. Returns [quizzes deleted, participations deleted].
+     */
+    public int[] purgeDeletedBatch(int quizzesPerBatch, int batchSize) {
+        List<Integer> quizIds = quizRepository.findDeletedIds(PageRequest.of(0, quizzesPerBatch));
+        if (quizIds.isEmpty()) {
+            return new int[] {0, 0};
+        }
+        // Bulk deletes bypass the entity listeners that keep the dashboard counters
+        List<Integer> participationIds = participationRepository.findIdsByQuizIds(quizIds, PageRequest.of(0, batchSize));
+        if (!participationIds.isEmpty()) {
+            participationAnswerRepository.deleteByParticipationIds(participationIds);
+            int deleted = participationRepository.deleteByIds(participationIds);
+            dashboardMetricsService.adjust(DashboardMetricsService.Counter.PARTICIPATIONS, -deleted);
+            return new int[] {0, deleted};
+        }
+        List<Integer> archivedIds = archivedParticipationRepository.findIdsByQuizIds(quizIds, PageRequest.of(0, batchSize));
+        if (!archivedIds.isEmpty()) {
+            participationAnswerRepository.deleteByParticipationIds(archivedIds);
+            int deleted = archivedParticipationRepository.deleteByIds(archivedIds);
+            dashboardMetricsService.adjust(DashboardMetricsService.Counter.PARTICIPATIONS, -deleted);
+            return new int[] {0, deleted};
+        }
+        participationAnswerRepository.deleteByQuizIds(quizIds);
+        quizAnalyticsService.deleteByQuizIds(quizIds);
+        scoreDistributionService.deleteByQuizIds(quizIds);
+        responseRepository.deleteByQuizIds(quizIds);
+        questionRepository.deleteByQuizIds(quizIds);
+        return new int[] {quizRepository.deleteDeletedByIds(quizIds), 0};
+    }
+
+    /**
+     * Notify live monitoring feeds; delivered only once the current transaction commits
+     */
+    private void publishParticipationEvent(ParticipationEvent.Type type, Participation participation) {
+        ParticipationDto dto = ParticipationDto.fromEntity(participation);
+        // Freshly saved rows have no associations loaded; these lookups usually hit the persistence context
+        if (dto.getUserName() == null && participation.getUserId() != null) {
+            userRepository.findById(participation.getUserId()).ifPresent(user -> {
+                dto.setUserName(user.getUsername());
+                dto.setUserEmail(user.getEmail());
+            });
+        }
+        if (dto.getGuestName() == null && participation.getGuestId() != null) {
+            guestRepository.findById(participation.getGuestId())
+                    .ifPresent(guest -> dto.setGuestName(guest.getPseudo()));
+        }
+        eventPublisher.publishEvent(new ParticipationEvent(type, participation.getQuizId(), dto));
     }
 
     /**
@@ -390,7 +645,7 @@ public class QuizService {
         String code;
         do {
             code = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        } while (quizRepository.existsByCode(code));
+        } while (quizRepository.countByCodeIncludingDeleted(code) > 0);
         return code;
     }
 
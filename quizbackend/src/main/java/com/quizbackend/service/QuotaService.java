@@ -0,0 +1,326 @@
+package com.quizbackend.service;
+
+import com.quizbackend.entity.Quiz;
+import com.quizbackend.repository.ArchivedParticipationRepository;
+import com.quizbackend.repository.ParticipationRepository;
+import com.quizbackend.repository.QuizRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Plan limits for professors: quizzes not archived, participants per quiz and participations
+ * started per calendar month. Usage is counted once from the database on first use and then
+ * kept in memory, so a check is a compare-and-increment instead of a COUNT query. A reservation
+ * made inside a transaction is handed back if that transaction rolls back; counters are
+ * reloaded after quota.refresh-interval to pick up changes made behind this service's back.
+ */
+@Service
+public class QuotaService {
+
+    public enum Plan { FREE, BASIC, STANDARD, PREMIUM }
+
+    private static final Logger logger = LoggerFactory.getLogger(QuotaService.class);
+
+    // Subscription plan names, lower-cased: those offered by ProfessorSubscriptionService.getAvailablePlans
+    // and the plan ids themselves
+    private static final Map<String, Plan> PLANS_BY_NAME = Map.of(
+            "plan basique", Plan.BASIC,
+            "plan standard", Plan.STANDARD,
+            "premium pro", Plan.PREMIUM,
+            "basic", Plan.BASIC,
+            "standard", Plan.STANDARD,
+            "premium", Plan.PREMIUM);
+
+    /**
+     * Limits of one plan; a negative value means unlimited
+     */
+    public record Limits(long quizzes, long studentsPerQuiz, long monthlyParticipations) {
+
+        static Limits parse(String value) {
+            String[] parts = value.split(",");
+            return new Limits(Long.parseLong(parts[0].trim()), Long.parseLong(parts[1].trim()),
+                    Long.parseLong(parts[2].trim()));
+        }
+    }
+
+    @Autowired
+    private EntitlementService entitlementService;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private ParticipationRepository participationRepository;
+
+    @Autowired
+    private ArchivedParticipationRepository archivedParticipationRepository;
+
+    @Value("${quota.refresh-interval:10m}")
+    private Duration refreshInterval;
+
+    private final Map<Plan, Limits> limits = new EnumMap<>(Plan.class);
+
+    private final Map<Integer, Counter> quizzesByProfessor = new ConcurrentHashMap<>();
+    private final Map<Integer, Counter> participantsByQuiz = new ConcurrentHashMap<>();
+    private final Map<Integer, Counter> monthlyByProfessor = new ConcurrentHashMap<>();
+
+    private final Set<String> unknownPlanTypes = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder loads = new LongAdder();
+    private final Map<String, LongAdder> rejections = new ConcurrentHashMap<>();
+
+    public QuotaService(
+            @Value("${quota.plan.free:5,30,300}") String free,
+            @Value("${quota.plan.basic:25,50,-1}") String basic,
+            @Value("${quota.plan.standard:50,100,-1}") String standard,
+            @Value("${quota.plan.premium:-1,-1,-1}") String premium) {
+        limits.put(Plan.FREE, Limits.parse(free));
+        limits.put(Plan.BASIC, Limits.parse(basic));
+        limits.put(Plan.STANDARD, Limits.parse(standard));
+        limits.put(Plan.PREMIUM, Limits.parse(premium));
+    }
+
+    /**
+     * Plan of a professor: the running subscription's plan, else Premium for VIPs and Free otherwise.
+     * A paid subscription whose plan name is not known gets Premium limits and is logged once.
+     */
+    public Plan getPlan(Integer professorId) {
+        EntitlementService.Entitlement entitlement = entitlementService.get(professorId);
+        if (entitlement.hasActiveSubscription()) {
+            String planType = entitlement.planType().trim().toLowerCase(Locale.ROOT);
+            Plan plan = PLANS_BY_NAME.get(planType);
+            if (plan == null) {
+                if (unknownPlanTypes.add(planType)) {
+                    logger.warn("Unknown subscription plan '{}', applying Premium limits", entitlement.planType());
+                }
+                return Plan.PREMIUM;
+            }
+            return plan;
+        }
+        return entitlement.isVip() ? Plan.PREMIUM : Plan.FREE;
+    }
+
+    /**
+     * Reserve a quiz slot for a new (or un-archived) quiz, failing if the plan limit is reached
+     */
+    public void acquireQuiz(Integer professorId) {
+        long limit = limits.get(getPlan(professorId)).quizzes();
+        reserve(quizCounter(professorId), limit, 1, "quizzes",
+                "Quiz limit of your plan reached (" + limit + " quizzes). Archive a quiz or upgrade your plan");
+    }
+
+    /**
+     * Count a quiz without holding it to the plan limit
+     */
+    public void recordQuiz(Integer professorId) {
+        reserve(quizCounter(professorId), -1, 1, null, null);
+    }
+
+    /**
+     * Give a quiz slot back once the current transaction commits (quiz archived or deleted)
+     */
+    public void releaseQuiz(Integer professorId) {
+        afterCommit(() -> {
+            Counter counter = quizzesByProfessor.get(professorId);
+            if (counter != null) {
+                counter.value.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Reserve a participant place in a quiz and one participation of the professor's month
+     */
+    public void acquireParticipant(Integer professorId, Integer quizId) {
+        Limits planLimits = limits.get(getPlan(professorId));
+        Reservation participant = reserve(participantCounter(quizId), planLimits.studentsPerQuiz(), 1, "studentsPerQuiz",
+                "This quiz has reached the participant limit of its owner's plan");
+        try {
+            reserve(monthlyCounter(professorId), planLimits.monthlyParticipations(), 1, "monthlyParticipations",
+                    "The quiz owner's plan has reached its monthly participation limit");
+        } catch (RuntimeException e) {
+            participant.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Fail unless a quiz could take pending more participants; used before admitting to a live
+     * session, whose participations are only recorded when it ends
+     */
+    public void checkParticipantHeadroom(Integer professorId, Integer quizId, int pending) {
+        Limits planLimits = limits.get(getPlan(professorId));
+        if (exceeds(participantCounter(quizId), planLimits.studentsPerQuiz(), pending)) {
+            reject("studentsPerQuiz", "This quiz has reached the participant limit of its owner's plan");
+        }
+        if (exceeds(monthlyCounter(professorId), planLimits.monthlyParticipations(), pending)) {
+            reject("monthlyParticipations", "The quiz owner's plan has reached its monthly participation limit");
+        }
+    }
+
+    /**
+     * Count participations that were admitted before being stored (live session results)
+     */
+    public void recordParticipants(Integer professorId, Integer quizId, int count) {
+        if (count > 0) {
+            reserve(participantCounter(quizId), -1, count, null, null);
+            reserve(monthlyCounter(professorId), -1, count, null, null);
+        }
+    }
+
+    /**
+     * Forget a deleted quiz's participant count once the current transaction commits
+     */
+    public void forgetQuiz(Integer quizId) {
+        afterCommit(() -> participantsByQuiz.remove(quizId));
+    }
+
+    public Map<String, Object> getUsage(Integer professorId) {
+        Plan plan = getPlan(professorId);
+        Limits planLimits = limits.get(plan);
+        Map<String, Object> usage = new LinkedHashMap<>();
+        usage.put("plan", plan);
+        usage.put("quizzes", quizCounter(professorId).value.get());
+        usage.put("quizLimit", planLimits.quizzes() < 0 ? null : planLimits.quizzes());
+        usage.put("studentsPerQuizLimit", planLimits.studentsPerQuiz() < 0 ? null : planLimits.studentsPerQuiz());
+        usage.put("monthlyParticipations", monthlyCounter(professorId).value.get());
+        usage.put("monthlyParticipationLimit",
+                planLimits.monthlyParticipations() < 0 ? null : planLimits.monthlyParticipations());
+        return usage;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("limits", limits);
+        stats.put("trackedProfessors", quizzesByProfessor.size());
+        stats.put("trackedQuizzes", participantsByQuiz.size());
+        stats.put("counterLoads", loads.sum());
+        Map<String, Long> rejected = new LinkedHashMap<>();
+        rejections.forEach((quota, count) -> rejected.put(quota, count.sum()));
+        stats.put("rejections", rejected);
+        return stats;
+    }
+
+    private Counter quizCounter(Integer professorId) {
+        return counter(quizzesByProfessor, professorId, null,
+                () -> quizRepository.countByProfessorIdAndStatusNot(professorId, Quiz.Status.ARCHIVED));
+    }
+
+    private Counter participantCounter(Integer quizId) {
+        return counter(participantsByQuiz, quizId, null,
+                () -> participationRepository.countByQuizId(quizId) + archivedParticipationRepository.countByQuizId(quizId));
+    }
+
+    private Counter monthlyCounter(Integer professorId) {
+        YearMonth month = YearMonth.now();
+        return counter(monthlyByProfessor, professorId, month,
+                () -> participationRepository.countByProfessorIdSince(professorId, month.atDay(1).atStartOfDay())
+                        + archivedParticipationRepository.countByProfessorIdSince(professorId, month.atDay(1).atStartOfDay()));
+    }
+
+    private Counter counter(Map<Integer, Counter> counters, Integer key, YearMonth month, LongSupplier load) {
+        Counter counter = counters.get(key);
+        long now = System.nanoTime();
+        if (counter != null && now - counter.loadedAt < refreshInterval.toNanos()
+                && (month == null || month.equals(counter.month))) {
+            return counter;
+        }
+        loads.increment();
+        Counter loaded = new Counter(load.getAsLong(), month, now);
+        boolean stored = counter == null ? counters.putIfAbsent(key, loaded) == null : counters.replace(key, counter, loaded);
+        return stored ? loaded : counters.getOrDefault(key, loaded);
+    }
+
+    private Reservation reserve(Counter counter, long limit, long amount, String quota, String message) {
+        while (true) {
+            long current = counter.value.get();
+            if (limit >= 0 && current + amount > limit) {
+                reject(quota, message);
+            }
+            if (counter.value.compareAndSet(current, current + amount)) {
+                break;
+            }
+        }
+        Reservation reservation = new Reservation(counter, amount);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        reservation.release();
+                    }
+                }
+            });
+        }
+        return reservation;
+    }
+
+    private boolean exceeds(Counter counter, long limit, int pending) {
+        return limit >= 0 && counter.value.get() + pending >= limit;
+    }
+
+    private void reject(String quota, String message) {
+        rejections.computeIfAbsent(quota, q -> new LongAdder()).increment();
+        throw new RuntimeException(message);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class Counter {
+        private final AtomicLong value;
+        private final YearMonth month;
+        private final long loadedAt;
+
+        private Counter(long value, YearMonth month, long loadedAt) {
+            this.value = new AtomicLong(value);
+            this.month = month;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private static final class Reservation {
+        private final Counter counter;
+        private final long amount;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private Reservation(Counter counter, long amount) {
+            this.counter = counter;
+            this.amount = amount;
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                counter.value.addAndGet(-amount);
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.quizbackend.service;
+
+import com.quizbackend.dto.ScoreDistributionDto;
+import com.quizbackend.entity.Quiz;
+import com.quizbackend.entity.ScoreDistribution;
+import com.quizbackend.repository.ArchivedParticipationRepository;
+import com.quizbackend.repository.ParticipationRepository;
+import com.quizbackend.repository.QuizRepository;
+import com.quizbackend.repository.ScoreDistributionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Per-quiz score histograms kept current on submit, so percentiles never need the participations.
+ * Fraud-flagged participations are taken out when flagged and cannot submit again.
+ */
+@Service
+@Transactional
+public class ScoreDistributionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScoreDistributionService.class);
+
+    private static final double[] PERCENTILES = {10, 25, 50, 75, 90};
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private ScoreDistributionRepository scoreDistributionRepository;
+
+    @Autowired
+    private ParticipationRepository participationRepository;
+
+    @Autowired
+    private ArchivedParticipationRepository archivedParticipationRepository;
+
+    /**
+     * Add and remove submitted scores of a quiz, in the caller's transaction. Locks only the
+     * quiz's distribution row, so concurrent submissions update it one at a time.
+     */
+    public void record(Integer quizId, Collection<BigDecimal> added, Collection<BigDecimal> removed) {
+        if (added.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+        ScoreDistribution distribution = lockDistribution(quizId);
+        Histogram histogram = Histogram.decode(distribution.getBucketCounts());
+        added.forEach(score -> histogram.add(score, 1));
+        for (BigDecimal score : removed) {
+            if (!histogram.add(score, -1)) {
+                // Recorded before histograms existed; the counts stay off until the quiz is rebuilt
+                logger.warn("Score {} of quiz {} is not in its distribution and was not removed, rebuild its analytics",
+                        score, quizId);
+            }
+        }
+        store(distribution, histogram);
+    }
+
+    /**
+     * Recount a quiz's histogram from its participations
+     */
+    public void rebuild(Integer quizId) {
+        ScoreDistribution distribution = lockDistribution(quizId);
+        Histogram histogram = new Histogram();
+        participationRepository.findSubmittedScoresByQuizId(quizId).forEach(score -> histogram.add(score, 1));
+        archivedParticipationRepository.findSubmittedScoresByQuizId(quizId).forEach(score -> histogram.add(score, 1));
+        store(distribution, histogram);
+    }
+
+    public void deleteByQuizIds(Collection<Integer> quizIds) {
+        scoreDistributionRepository.deleteByQuizIds(quizIds);
+    }
+
+    @Transactional(readOnly = true)
+    public ScoreDistributionDto getQuizDistribution(Integer quizId, Integer professorId, int binWidth) {
+        Quiz quiz = quizRepository.findById(quizId)
+                .orElseThrow(() -> new RuntimeException("Quiz not found"));
+        if (!quiz.getProfessorId().equals(professorId)) {
+            throw new RuntimeException("Unauthorized to view score distribution for this quiz");
+        }
+        Histogram histogram = scoreDistributionRepository.findById(quizId)
+                .map(distribution -> Histogram.decode(distribution.getBucketCounts()))
+                .orElseGet(Histogram::new);
+        ScoreDistributionDto dto = toDto(histogram, binWidth);
+        dto.setQuizId(quizId);
+        dto.setQuizzes(1);
+        return dto;
+    }
+
+    /**
+     * Distribution over every submission to any of the professor's quizzes
+     */
+    @Transactional(readOnly = true)
+    public ScoreDistributionDto getProfessorDistribution(Integer professorId, int binWidth) {
+        List<ScoreDistribution> distributions = scoreDistributionRepository.findByProfessorId(professorId);
+        Histogram merged = new Histogram();
+        distributions.forEach(distribution -> merged.merge(Histogram.decode(distribution.getBucketCounts())));
+        ScoreDistributionDto dto = toDto(merged, binWidth);
+        dto.setQuizzes(quizRepository.findByProfessorId(professorId).size());
+        return dto;
+    }
+
+    /**
+     * Lock a quiz's distribution row, creating it first if this is the quiz's first submission
+     * (the upsert write-locks a row that already exists)
+     */
+    private ScoreDistribution lockDistribution(Integer quizId) {
+        scoreDistributionRepository.insertEmpty(quizId, new Histogram().encode());
+        return scoreDistributionRepository.findByQuizId(quizId)
+                .orElseThrow(() -> new RuntimeException("Score distribution not found"));
+    }
+
+    private void store(ScoreDistribution distribution, Histogram histogram) {
+        distribution.setBucketCounts(histogram.encode());
+        distribution.setSubmissions(histogram.total());
+        distribution.setUpdatedAt(LocalDateTime.now());
+        scoreDistributionRepository.save(distribution);
+    }
+
+    private ScoreDistributionDto toDto(Histogram histogram, int binWidth) {
+        if (binWidth < 1 || binWidth > 100) {
+            throw new RuntimeException("Bin width must be between 1 and 100");
+        }
+        ScoreDistributionDto dto = new ScoreDistributionDto();
+        long total = histogram.total();
+        dto.setSubmissions(total);
+        for (double percentile : PERCENTILES) {
+            dto.getPercentiles().put("p" + (int) percentile, total > 0 ? histogram.quantile(percentile / 100) : null);
+        }
+        dto.setMedian(dto.getPercentiles().get("p50"));
+        dto.setP90(dto.getPercentiles().get("p90"));
+
+        for (int from = 0; from < 100; from += binWidth) {
+            int to = Math.min(from + binWidth, 100);
+            ScoreDistributionDto.Bin bin = new ScoreDistributionDto.Bin();
+            bin.setFrom(from);
+            bin.setTo(to);
+            bin.setCount(histogram.count(from, to == 100 ? ScoreDistribution.BUCKETS : to));
+            dto.getHistogram().add(bin);
+        }
+        return dto;
+    }
+
+    /**
+     * Fixed one-point buckets over 0-100: exact to the point, constant size, and merged by addition
+     */
+    static final class Histogram {
+        private final long[] counts = new long[ScoreDistribution.BUCKETS];
+
+        static Histogram decode(byte[] bytes) {
+            Histogram histogram = new Histogram();
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            for (int i = 0; i < histogram.counts.length && buffer.remaining() >= Integer.BYTES; i++) {
+                histogram.counts[i] = Integer.toUnsignedLong(buffer.getInt());
+            }
+            return histogram;
+        }
+
+        byte[] encode() {
+            ByteBuffer buffer = ByteBuffer.allocate(counts.length * Integer.BYTES);
+            for (long count : counts) {
+                buffer.putInt((int) Math.min(count, 0xFFFFFFFFL));
+            }
+            return buffer.array();
+        }
+
+        /**
+         * Count a score in or out; false, with nothing changed, when taking out a score the bucket does not hold
+         */
+        boolean add(BigDecimal score, int sign) {
+            int bucket = score == null ? 0 : Math.max(0, Math.min(100, score.intValue()));
+            if (counts[bucket] + sign < 0) {
+                return false;
+            }
+            counts[bucket] += sign;
+            return true;
+        }
+
+        void merge(Histogram other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+            }
+        }
+
+        long total() {
+            return count(0, counts.length);
+        }
+
+        long count(int fromBucket, int toBucket) {
+            long sum = 0;
+            for (int i = fromBucket; i < toBucket; i++) {
+                sum += counts[i];
+            }
+            return sum;
+        }
+
+        /**
+         * Score below which a fraction q of submissions fall, assuming scores are spread evenly within a bucket
+         */
+        double quantile(double q) {
+            double rank = q * total();
+            long below = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0 && below + counts[i] >= rank) {
+                    double width = i < 100 ? 1 : 0;
+                    double value = i + width * (rank - below) / counts[i];
+                    return Math.round(value * 100) / 100.0;
+                }
+                below += counts[i];
+            }
+            return 100;
+        }
+    }
+}
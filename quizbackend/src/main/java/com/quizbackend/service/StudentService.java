@@ -4,8 +4,10 @@ import com.quizbackend.dto.ParticipationDto;
 import com.quizbackend.dto.QuizHistoryDTO;
 import com.quizbackend.dto.StudentStatsDTO;
 import com.quizbackend.entity.*;
+import com.quizbackend.repository.ArchivedParticipationRepository;
 import com.quizbackend.repository.ParticipationRepository;
 import com.quizbackend.repository.QuizRepository;
+import com.quizbackend.repository.StudentArchiveStatsRepository;
 import com.quizbackend.repository.StudentRepository;
 import com.quizbackend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -19,10 +21,15 @@ import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -36,11 +43,14 @@ public class StudentService {
     private final UserRepository userRepository;
     private final ParticipationRepository participationRepository;
     private final QuizRepository quizRepository;
+    private final ArchivedParticipationRepository archivedParticipationRepository;
+    private final StudentArchiveStatsRepository studentArchiveStatsRepository;
     private final AuthService authService;
 
     /**
      * Récupère un étudiant par son ID
      */
+    @Transactional(readOnly = true)
     public Student getStudentById(Integer id) {
         return studentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Student not found"));
@@ -96,9 +106,28 @@ public class StudentService {
          return student;
      }
 
+    /**
+     * Récupère un étudiant existant sans tentative de réparation, pour les lectures
+     * exécutées en transaction read-only (éventuellement sur le réplica)
+     */
+    private Student findExistingStudent(String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found with username: " + username));
+
+        if (user.getRole() != User.Role.STUDENT) {
+            logger.warn("User {} has role {} but trying to access as student", username, user.getRole());
+            throw new RuntimeException("User is not a student");
+        }
+
+        return studentRepository.findByUser(user)
+                .or(() -> studentRepository.findByUserId(user.getId()))
+                .orElseThrow(() -> new RuntimeException("Student profile not found for username: " + username));
+    }
+
     /**
      * Récupère un étudiant par son ID utilisateur
      */
+    @Transactional(readOnly = true)
     public Student getStudentByUserId(Integer userId) {
         logger.debug("Retrieving student with userId: {}", userId);
 
@@ -163,6 +192,7 @@ public class StudentService {
     /**
      * Récupère tous les étudiants
      */
+    @Transactional(readOnly = true)
     public List<Student> getAllStudents() {
         return studentRepository.findAll();
     }
@@ -170,25 +200,22 @@ public class StudentService {
     /**
      * Récupère les statistiques complètes d'un étudiant
        */
+      @Transactional(readOnly = true)
       public StudentStatsDTO getStudentStats(String username) {
           try {
-              logger.info("Calculating statistics for student: {}", username);
+              logger.debug("Calculating statistics for student: {}", username);
 
-              Student student = getStudentByUsername(username);
+              Student student = findExistingStudent(username);
               logger.debug("Student found: id={}, userId={}", student.getId(), student.getUser().getId());
 
               // Use repository queries for better performance
               Integer userId = student.getUser().getId();
-              logger.info("DEBUG: Using userId {} for statistics calculation - username: {}", userId, username);
-              logger.debug("DEBUG: About to query participations for userId: {}", userId);
               long totalQuizzes = participationRepository.countByUserId(userId);
-              logger.info("DEBUG: countByUserId({}) returned: {}", userId, totalQuizzes);
               BigDecimal averageScore = participationRepository.averageScoreByUserId(userId);
-              logger.info("DEBUG: averageScoreByUserId({}) returned: {}", userId, averageScore);
               BigDecimal bestScore = participationRepository.maxScoreByUserId(userId);
-              logger.info("DEBUG: maxScoreByUserId({}) returned: {}", userId, bestScore);
               long perfectQuizzes = participationRepository.countPerfectScoresByUserId(userId);
-              logger.info("DEBUG: countPerfectScoresByUserId({}) returned: {}", userId, perfectQuizzes);
+              logger.debug("Totals for userId {}: count={}, average={}, best={}, perfect={}",
+                      userId, totalQuizzes, averageScore, bestScore, perfectQuizzes);
 
               // Only fetch full participations for streak calculation
                List<Participation> participations = participationRepository.findByUserIdOrderByCreatedAtDesc(userId);
@@ -226,6 +253,12 @@ public class StudentService {
               // Taux de réussite moyen (en pourcentage)
               stats.setSuccessRate(calculateSuccessRate(participations));
 
+              // Add what archived participations contributed; the streak only depends on recent ones
+              Optional<StudentArchiveStats> archived = studentArchiveStatsRepository.findById(userId);
+              if (archived.isPresent()) {
+                  addArchivedStats(stats, userId, archived.get(), totalQuizzes, bestScore, perfectQuizzes);
+              }
+
               stats.setCreatedAt(student.getCreatedAt());
 
               logger.info("Statistics calculated successfully for {}: {} quizzes, {}% success rate",
@@ -241,6 +274,7 @@ public class StudentService {
     /**
      * Récupère les statistiques détaillées d'un étudiant
      */
+    @Transactional(readOnly = true)
     public StudentStatsDTO getDetailedStats(String username) {
         logger.info("Retrieving detailed statistics for: {}", username);
         return getStudentStats(username);
@@ -328,6 +362,29 @@ public class StudentService {
                 .count();
     }
 
+    /**
+     * Combine les statistiques des participations archivées avec celles des participations récentes
+     */
+    private void addArchivedStats(StudentStatsDTO stats, Integer userId, StudentArchiveStats archived,
+                                  long liveQuizzes, BigDecimal liveBest, long livePerfect) {
+        Object[] live = participationRepository.summarizeScoresByUserId(userId).get(0);
+        long scored = ((Number) live[0]).longValue() + archived.getScoredParticipations();
+        BigDecimal scoreSum = (live[1] != null ? (BigDecimal) live[1] : BigDecimal.ZERO).add(archived.getScoreSum());
+        long total = liveQuizzes + archived.getParticipations();
+
+        stats.setTotalQuizzes((int) total);
+        stats.setAverageScore(scored > 0
+                ? scoreSum.divide(BigDecimal.valueOf(scored), 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO);
+        BigDecimal best = liveBest;
+        if (archived.getBestScore() != null && (best == null || archived.getBestScore().compareTo(best) > 0)) {
+            best = archived.getBestScore();
+        }
+        stats.setBestScore(best != null ? best : BigDecimal.ZERO);
+        stats.setPerfectQuizzes((int) (livePerfect + archived.getPerfectScores()));
+        stats.setSuccessRate(calculateSuccessRate(scoreSum, total));
+    }
+
     /**
      * Calcule le taux de réussite moyen (en pourcentage)
      */
@@ -341,8 +398,12 @@ public class StudentService {
                 .filter(score -> score != null)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
+        return calculateSuccessRate(totalScore, participations.size());
+    }
+
+    private BigDecimal calculateSuccessRate(BigDecimal totalScore, long participationCount) {
         // Score maximum par quiz = 100
-        BigDecimal maxPossibleScore = new BigDecimal(participations.size() * 100);
+        BigDecimal maxPossibleScore = new BigDecimal(participationCount * 100);
 
         if (maxPossibleScore.compareTo(BigDecimal.ZERO) == 0) {
             return BigDecimal.ZERO;
@@ -356,72 +417,137 @@ public class StudentService {
     /**
      * Récupère l'historique des quiz d'un étudiant
       */
+     @Transactional(readOnly = true)
      public List<QuizHistoryDTO> getQuizHistory(String username) {
          logger.info("Retrieving quiz history for: {}", username);
 
-         Student student = getStudentByUsername(username);
+         Student student = findExistingStudent(username);
          logger.debug("Retrieved student: id={}, userId={}", student.getId(), student.getUser().getId());
-         List<Participation> participations = participationRepository.findByUserId(student.getUser().getId());
+         List<Participation> participations = new ArrayList<>(participationRepository.findByUserIdWithQuiz(student.getUser().getId()));
+         participations.addAll(findArchivedParticipations(student.getUser().getId()));
 
         logger.debug("Found {} participations for userId {}", participations.size(), student.getUser().getId());
+        Map<Integer, QuizScores> scoresByQuiz = findQuizScores(participations.stream()
+                .map(participation -> participation.getQuiz().getId())
+                .distinct()
+                .toList());
         List<QuizHistoryDTO> history = participations.stream()
                 .sorted(Comparator.comparing(Participation::getCreatedAt).reversed())
-                .map(this::convertToQuizHistoryDTO)
+                .map(participation -> convertToQuizHistoryDTO(participation,
+                        scoresByQuiz.getOrDefault(participation.getQuiz().getId(), new QuizScores())))
                 .collect(Collectors.toList());
 
         logger.info("History retrieved: {} participations", history.size());
         return history;
     }
 
+    /**
+     * Répartition des scores de chaque quiz, participations archivées comprises, pour calculer les rangs
+     * de l'historique en deux requêtes au lieu de quatre par participation
+     */
+    private Map<Integer, QuizScores> findQuizScores(List<Integer> quizIds) {
+        Map<Integer, QuizScores> scoresByQuiz = new HashMap<>();
+        if (quizIds.isEmpty()) {
+            return scoresByQuiz;
+        }
+        List<Object[]> rows = new ArrayList<>(participationRepository.countScoresByQuizIds(quizIds));
+        rows.addAll(archivedParticipationRepository.countScoresByQuizIds(quizIds));
+        for (Object[] row : rows) {
+            scoresByQuiz.computeIfAbsent((Integer) row[0], id -> new QuizScores())
+                    .add((BigDecimal) row[1], ((Number) row[2]).longValue());
+        }
+        return scoresByQuiz;
+    }
+
+    /**
+     * Nombre de participations d'un quiz par score (les participations sans score ne comptent que dans le total)
+     */
+    private static class QuizScores {
+        private final NavigableMap<BigDecimal, Long> countsByScore = new TreeMap<>();
+        private long total;
+
+        void add(BigDecimal score, long count) {
+            total += count;
+            if (score != null) {
+                countsByScore.merge(score, count, Long::sum);
+            }
+        }
+
+        long countAbove(BigDecimal score) {
+            return countsByScore.tailMap(score, false).values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+
+    /**
+     * Participations archivées d'un étudiant, sous forme de copies détachées avec leur quiz
+     */
+    private List<Participation> findArchivedParticipations(Integer userId) {
+        List<ArchivedParticipation> archived = archivedParticipationRepository.findByUserIdOrderByCreatedAtDesc(userId);
+        if (archived.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, Quiz> quizzes = quizRepository
+                .findAllById(archived.stream().map(ArchivedParticipation::getQuizId).distinct().toList()).stream()
+                .collect(Collectors.toMap(Quiz::getId, Function.identity()));
+        List<Participation> participations = new ArrayList<>(archived.size());
+        for (ArchivedParticipation row : archived) {
+            Quiz quiz = quizzes.get(row.getQuizId());
+            if (quiz != null) {
+                Participation participation = row.toParticipation();
+                participation.setQuiz(quiz);
+                participations.add(participation);
+            }
+        }
+        return participations;
+    }
+
     /**
      * Récupère les détails d'une participation spécifique
      */
+    @Transactional(readOnly = true)
     public ParticipationDto getParticipationDetails(String username, Integer participationId) {
         logger.debug("Retrieving participation details {} for {}", participationId, username);
 
-        Student student = getStudentByUsername(username);
+        Student student = findExistingStudent(username);
+        // Une participation d'un quiz supprimé (en attente de purge) n'est plus visible
         Participation participation = participationRepository.findById(participationId)
-                .orElseThrow(() -> new RuntimeException("Participation not found"));
+                .filter(p -> quizRepository.existsById(p.getQuizId()))
+                .orElseGet(() -> findArchivedParticipation(participationId));
 
         // Vérifier que la participation appartient bien à l'étudiant
-        if (!participation.getUserId().equals(student.getUser().getId())) {
+        if (!student.getUser().getId().equals(participation.getUserId())) {
             throw new RuntimeException("Unauthorized access to this participation");
         }
 
         return convertToParticipationDTO(participation);
     }
 
+    /**
+     * Participation déplacée dans l'archive ; l'historique liste aussi celles-ci
+     */
+    private Participation findArchivedParticipation(Integer participationId) {
+        ArchivedParticipation archived = archivedParticipationRepository.findById(participationId)
+                .orElseThrow(() -> new RuntimeException("Participation not found"));
+        Quiz quiz = quizRepository.findById(archived.getQuizId())
+                .orElseThrow(() -> new RuntimeException("Participation not found"));
+        Participation participation = archived.toParticipation();
+        participation.setQuiz(quiz);
+        return participation;
+    }
+
     /**
      * Récupère le classement global des étudiants
      */
+    @Transactional(readOnly = true)
     public List<StudentStatsDTO> getGlobalLeaderboard(int limit) {
         logger.info("Retrieving global leaderboard (limit: {})", limit);
 
-        List<Object[]> results = participationRepository.findLeaderboardByAverageScore();
+        List<Object[]> results = studentArchiveStatsRepository.count() == 0
+                ? participationRepository.findLeaderboardByAverageScore()
+                : mergeArchivedTotals(Comparator.comparing((Object[] row) -> (BigDecimal) row[2],
+                        Comparator.nullsFirst(Comparator.<BigDecimal>naturalOrder())).reversed());
 
-        List<StudentStatsDTO> leaderboard = results.stream()
-                .limit(limit)
-                .map(row -> {
-                    Integer userId = (Integer) row[0];
-                    Long totalQuizzes = (Long) row[1];
-                    BigDecimal averageScore = (BigDecimal) row[2];
-
-                    // Get student info
-                    Student student = studentRepository.findByUserId(userId).orElse(null);
-                    if (student == null) return null;
-
-                    StudentStatsDTO stats = new StudentStatsDTO();
-                    stats.setStudentName(student.getFirstName() != null && student.getLastName() != null
-                        ? student.getFirstName() + " " + student.getLastName()
-                        : student.getUser().getUsername());
-                    stats.setUsername(student.getUser().getUsername());
-                    stats.setTotalQuizzes(totalQuizzes.intValue());
-                    stats.setAverageScore(averageScore);
-
-                    return stats;
-                })
-                .filter(stats -> stats != null)
-                .collect(Collectors.toList());
+        List<StudentStatsDTO> leaderboard = toRankedStats(results, limit);
 
         logger.info("Leaderboard retrieved: {} students", leaderboard.size());
         return leaderboard;
@@ -430,29 +556,48 @@ public class StudentService {
     /**
      * Récupère les étudiants les plus actifs
      */
+    @Transactional(readOnly = true)
     public List<StudentStatsDTO> getMostActiveStudents(int limit) {
         logger.info("Retrieving most active students (limit: {})", limit);
 
-        List<Object[]> results = participationRepository.findMostActiveByParticipationCount();
+        List<Object[]> results = studentArchiveStatsRepository.count() == 0
+                ? participationRepository.findMostActiveByParticipationCount()
+                : mergeArchivedTotals(Comparator.comparing((Object[] row) -> (Long) row[1]).reversed());
 
-        return results.stream()
-                .limit(limit)
+        return toRankedStats(results, limit);
+    }
+
+    /**
+     * Construit les lignes du classement ; les noms des étudiants sont chargés en une requête
+     */
+    private List<StudentStatsDTO> toRankedStats(List<Object[]> results, int limit) {
+        List<Object[]> top = results.stream().limit(limit).collect(Collectors.toList());
+        if (top.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // userId -> [userId, username, firstName, lastName]
+        Map<Integer, Object[]> names = new HashMap<>();
+        for (Object[] row : studentRepository.findNamesByUserIds(top.stream().map(row -> (Integer) row[0]).toList())) {
+            names.put((Integer) row[0], row);
+        }
+
+        return top.stream()
                 .map(row -> {
-                    Integer userId = (Integer) row[0];
-                    Long totalQuizzes = (Long) row[1];
-                    BigDecimal averageScore = (BigDecimal) row[2];
+                    Object[] name = names.get((Integer) row[0]);
+                    if (name == null) return null;
 
-                    // Get student info
-                    Student student = studentRepository.findByUserId(userId).orElse(null);
-                    if (student == null) return null;
+                    String username = (String) name[1];
+                    String firstName = (String) name[2];
+                    String lastName = (String) name[3];
 
                     StudentStatsDTO stats = new StudentStatsDTO();
-                    stats.setStudentName(student.getFirstName() != null && student.getLastName() != null
-                        ? student.getFirstName() + " " + student.getLastName()
-                        : student.getUser().getUsername());
-                    stats.setUsername(student.getUser().getUsername());
-                    stats.setTotalQuizzes(totalQuizzes.intValue());
-                    stats.setAverageScore(averageScore);
+                    stats.setStudentName(firstName != null && lastName != null
+                        ? firstName + " " + lastName
+                        : username);
+                    stats.setUsername(username);
+                    stats.setTotalQuizzes(((Long) row[1]).intValue());
+                    stats.setAverageScore((BigDecimal) row[2]);
 
                     return stats;
                 })
@@ -460,13 +605,42 @@ public class StudentService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * [userId, participations, score moyen] par étudiant, participations archivées comprises
+     */
+    private List<Object[]> mergeArchivedTotals(Comparator<Object[]> order) {
+        // userId -> [participations, scored participations, score sum]
+        Map<Integer, Object[]> totals = new HashMap<>();
+        for (Object[] row : participationRepository.summarizeByUser()) {
+            totals.put((Integer) row[0], new Object[] {row[1], row[2], row[3] != null ? row[3] : BigDecimal.ZERO});
+        }
+        for (StudentArchiveStats archived : studentArchiveStatsRepository.findAll()) {
+            totals.merge(archived.getUserId(),
+                    new Object[] {archived.getParticipations(), archived.getScoredParticipations(), archived.getScoreSum()},
+                    (a, b) -> new Object[] {(Long) a[0] + (Long) b[0], (Long) a[1] + (Long) b[1],
+                            ((BigDecimal) a[2]).add((BigDecimal) b[2])});
+        }
+        return totals.entrySet().stream()
+                .map(entry -> {
+                    Object[] total = entry.getValue();
+                    long scored = (Long) total[1];
+                    BigDecimal average = scored > 0
+                            ? ((BigDecimal) total[2]).divide(BigDecimal.valueOf(scored), 2, RoundingMode.HALF_UP)
+                            : null;
+                    return new Object[] {entry.getKey(), total[0], average};
+                })
+                .sorted(order)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Vérifie si un étudiant peut participer à un quiz
       */
+     @Transactional(readOnly = true)
      public boolean canParticipateInQuiz(String username, Integer quizId) {
          logger.debug("Checking participation possibility for quiz {} by {}", quizId, username);
 
-         Student student = getStudentByUsername(username);
+         Student student = findExistingStudent(username);
          List<Participation> participations = participationRepository.findByUserId(student.getUser().getId());
 
         boolean alreadyParticipated = participations.stream()
@@ -508,10 +682,11 @@ public class StudentService {
     /**
      * Récupère les quiz recommandés pour un étudiant (quiz non encore complétés)
       */
+     @Transactional(readOnly = true)
      public List<Quiz> getRecommendedQuizzes(String username, int limit) {
          logger.info("Retrieving recommended quizzes for: {} (limit: {})", username, limit);
 
-         Student student = getStudentByUsername(username);
+         Student student = findExistingStudent(username);
          List<Participation> completedParticipations = participationRepository
                  .findByUserId(student.getUser().getId());
 
@@ -549,6 +724,7 @@ public class StudentService {
     /**
      * Compte le nombre total d'étudiants
      */
+    @Transactional(readOnly = true)
     public long countStudents() {
         long count = studentRepository.count();
         logger.debug("Total student count: {}", count);
@@ -558,6 +734,7 @@ public class StudentService {
     /**
      * Recherche des étudiants par nom
      */
+    @Transactional(readOnly = true)
     public List<Student> searchStudentsByName(String searchTerm) {
         logger.info("Searching students with term: {}", searchTerm);
 
@@ -625,7 +802,7 @@ public class StudentService {
     /**
      * Convertit une Participation en QuizHistoryDTO
      */
-    private QuizHistoryDTO convertToQuizHistoryDTO(Participation participation) {
+    private QuizHistoryDTO convertToQuizHistoryDTO(Participation participation, QuizScores quizScores) {
         QuizHistoryDTO dto = new QuizHistoryDTO();
         dto.setParticipationId(participation.getId());
         dto.setQuizId(participation.getQuiz().getId());
@@ -643,17 +820,15 @@ public class StudentService {
             dto.setProfessorName("Unknown Professor");
         }
 
-        // Calculer le rang (position dans le classement pour ce quiz)
-        List<Participation> allParticipations = participationRepository
-                .findByQuizId(participation.getQuiz().getId());
-
-        long rank = allParticipations.stream()
-                .filter(p -> p.getScore() != null && participation.getScore() != null)
-                .filter(p -> p.getScore().compareTo(participation.getScore()) > 0)
-                .count() + 1;
+        // Calculer le rang (position dans le classement pour ce quiz), participations archivées comprises
+        long rank = 1;
+        if (participation.getScore() != null) {
+            rank += quizScores.countAbove(participation.getScore());
+        }
+        long totalParticipants = quizScores.total;
 
         dto.setRank((int) rank);
-        dto.setTotalParticipants(allParticipations.size());
+        dto.setTotalParticipants((int) totalParticipants);
         dto.setStudentResponses(participation.getStudentResponses());
 
         return dto;
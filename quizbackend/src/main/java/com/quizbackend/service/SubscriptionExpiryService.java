@@ -0,0 +1,62 @@
+package com.quizbackend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Background sweeper that deactivates subscriptions once their end date has passed and moves
+ * their professors back to the free role. Each batch is one short transaction of two bulk
+ * updates, so a large backlog of expiries never holds locks for long.
+ */
+@Service
+public class SubscriptionExpiryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubscriptionExpiryService.class);
+
+    @Autowired
+    private ProfessorSubscriptionService professorSubscriptionService;
+
+    @Value("${subscription-expiry.batch-size:200}")
+    private int batchSize;
+
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder downgraded = new LongAdder();
+    private volatile LocalDateTime lastSweepAt;
+
+    @Scheduled(fixedDelayString = "${subscription-expiry.interval:60000}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        int sweptSubscriptions = 0;
+        int sweptProfessors = 0;
+        int[] batch;
+        do {
+            batch = professorSubscriptionService.expireDueBatch(now, batchSize);
+            sweptSubscriptions += batch[0];
+            sweptProfessors += batch[1];
+        } while (batch[0] >= batchSize);
+        expired.add(sweptSubscriptions);
+        downgraded.add(sweptProfessors);
+        lastSweepAt = now;
+        if (sweptSubscriptions > 0) {
+            logger.info("Expired {} subscriptions, downgraded {} professors to PROFESSOR_FREE",
+                    sweptSubscriptions, sweptProfessors);
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("lastSweepAt", lastSweepAt);
+        stats.put("subscriptionsExpired", expired.sum());
+        stats.put("professorsDowngraded", downgraded.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,30 @@
+-- Migration: Create participation_answers table
+-- Description: Stores each selected response of a submission as a row, so per-question
+--              statistics can be computed with SQL instead of parsing student_responses JSON
+-- Date: 2026-10-19
+
+-- One row per (participation, selected response); question and quiz are denormalized for grouping
+CREATE TABLE IF NOT EXISTS participation_answers (
+    participation_id INT NOT NULL,
+    response_id INT NOT NULL,
+    question_id INT NOT NULL,
+    quiz_id INT NOT NULL,
+    PRIMARY KEY (participation_id, response_id)
+);
+
+-- Covers per-question and per-response aggregates of a quiz
+CREATE INDEX idx_participation_answers_quiz_question
+ON participation_answers(quiz_id, question_id, response_id);
+
+-- Backfill from the JSON answers of existing submissions (requires MySQL 8.0.4+ for JSON_TABLE).
+-- Responses that no longer exist or belong to another quiz are skipped, like on submit.
+INSERT IGNORE INTO participation_answers (participation_id, response_id, question_id, quiz_id)
+SELECT p.id, r.id, r.question_id, q.quiz_id
+FROM participations p
+JOIN JSON_TABLE(
+    IF(JSON_VALID(p.student_responses), p.student_responses, '[]'),
+    '$[*]' COLUMNS (selected_response_id INT PATH '$.selectedResponseId')
+) j
+JOIN responses r ON r.id = j.selected_response_id
+JOIN questions q ON q.id = r.question_id AND q.quiz_id = p.quiz_id
+WHERE p.student_responses IS NOT NULL;
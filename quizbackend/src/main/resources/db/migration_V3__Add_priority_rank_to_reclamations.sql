@@ -0,0 +1,21 @@
+-- Migration: Add priority_rank column to reclamations table
+-- Description: Numeric priority (LOW = 0 .. URGENT = 3) so the admin inbox can sort and paginate
+--              by urgency through an index; the priority column keeps storing the enum name
+-- Date: 2026-10-19
+
+-- Add priority_rank column to reclamations table
+ALTER TABLE reclamations
+ADD COLUMN priority_rank INT NULL;
+
+-- Fill it for existing reclamations; new and updated rows are ranked by the application
+UPDATE reclamations
+SET priority_rank = CASE priority
+    WHEN 'LOW' THEN 0
+    WHEN 'MEDIUM' THEN 1
+    WHEN 'HIGH' THEN 2
+    WHEN 'URGENT' THEN 3
+END;
+
+-- Inbox order with and without a status filter
+CREATE INDEX idx_reclamations_inbox_status ON reclamations(status, priority_rank, created_at, id);
+CREATE INDEX idx_reclamations_inbox ON reclamations(priority_rank, created_at, id);
@@ -0,0 +1,36 @@
+-- Migration: Create participations_archive and student_archive_stats tables
+-- Description: Cold tier for participations older than participation-archive.after-months.
+--              Rows keep their id so participation_answers still apply; each student's archived
+--              totals are kept so statistics and leaderboards do not change when rows move
+-- Date: 2026-10-19
+
+CREATE TABLE IF NOT EXISTS participations_archive (
+    id INT NOT NULL PRIMARY KEY,
+    quiz_id INT NOT NULL,
+    user_id INT NULL,
+    guest_id INT NULL,
+    score DECIMAL(5,2) NULL,
+    is_fraud BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at DATETIME(6) NOT NULL,
+    submitted_at DATETIME(6) NULL,
+    student_responses TEXT NULL,
+    archived_at DATETIME(6) NOT NULL
+);
+
+-- Quiz history per student, rank within a quiz, and the guest purge
+CREATE INDEX idx_participations_archive_user ON participations_archive(user_id, created_at);
+CREATE INDEX idx_participations_archive_quiz ON participations_archive(quiz_id, score);
+CREATE INDEX idx_participations_archive_guest ON participations_archive(guest_id);
+
+CREATE TABLE IF NOT EXISTS student_archive_stats (
+    user_id INT NOT NULL PRIMARY KEY,
+    participations BIGINT NOT NULL DEFAULT 0,
+    scored_participations BIGINT NOT NULL DEFAULT 0,
+    score_sum DECIMAL(14,2) NOT NULL DEFAULT 0,
+    best_score DECIMAL(5,2) NULL,
+    perfect_scores BIGINT NOT NULL DEFAULT 0,
+    updated_at DATETIME(6) NULL
+);
+
+-- Selects the oldest participations for each archive batch
+CREATE INDEX idx_participations_created_at ON participations(created_at);
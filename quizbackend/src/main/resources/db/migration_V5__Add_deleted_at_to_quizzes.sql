@@ -0,0 +1,9 @@
+-- Migration: Add deleted_at to quizzes
+-- Description: Deleting a quiz only sets deleted_at, which hides it from every query; the
+--              quiz purge job then removes it and its rows with bulk deletes in the background
+-- Date: 2026-10-19
+
+ALTER TABLE quizzes ADD COLUMN deleted_at DATETIME(6) NULL;
+
+-- Lets the purge job find deleted quizzes without scanning the table
+CREATE INDEX idx_quizzes_deleted_at ON quizzes (deleted_at);
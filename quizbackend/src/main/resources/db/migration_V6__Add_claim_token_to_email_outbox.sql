@@ -0,0 +1,6 @@
+-- Migration: Add claim_token to email_outbox
+-- Description: The outbox dispatcher claims due rows with a guarded UPDATE (claim token plus a
+--              lease in next_attempt_at) before sending, so concurrent instances never send a row twice
+-- Date: 2026-10-19
+
+ALTER TABLE email_outbox ADD COLUMN claim_token VARCHAR(36) NULL;
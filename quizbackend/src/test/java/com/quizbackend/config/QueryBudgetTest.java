@@ -0,0 +1,183 @@
+package com.quizbackend.config;
+
+import com.quizbackend.entity.Question;
+import com.quizbackend.entity.Quiz;
+import com.quizbackend.entity.Response;
+import com.quizbackend.entity.User;
+import com.quizbackend.repository.UserRepository;
+import com.quizbackend.service.AuthService;
+import com.quizbackend.service.ProfessorService;
+import com.quizbackend.service.ProfessorSubscriptionService;
+import com.quizbackend.service.QuizService;
+import com.quizbackend.service.StudentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the endpoints that declare a @QueryBudget against more rows than their budget, so a
+ * query per row (N+1) shows up as a failure. The test profile enforces budgets.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QueryBudgetTest {
+
+    private static final int PROFESSORS = 3;
+    private static final int QUIZZES_PER_PROFESSOR = 2;
+    private static final int STUDENTS = 12;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SqlStatementMonitor sqlStatementMonitor;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private ProfessorService professorService;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private ProfessorSubscriptionService professorSubscriptionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void seed() {
+        if (userRepository.existsByUsername("budget-student-0")) {
+            return;
+        }
+        List<Quiz> quizzes = new ArrayList<>();
+        List<List<Integer>> correctAnswers = new ArrayList<>();
+        for (int p = 0; p < PROFESSORS; p++) {
+            String name = "budget-prof-" + p;
+            Integer professorId = transactionTemplate.execute(status -> {
+                User user = authService.register(name, name + "@budget.test", "password1", User.Role.PROFESSOR_FREE, "Prof", name);
+                return professorService.createProfessor(user, "Prof", name).getUserId();
+            });
+            professorSubscriptionService.createSubscription(professorId, "Premium Pro", "49900",
+                    LocalDate.now().minusDays(1).toString(), LocalDate.now().plusMonths(1).toString(), "card", true);
+            for (int q = 0; q < QUIZZES_PER_PROFESSOR; q++) {
+                Quiz quiz = new Quiz();
+                quiz.setTitle("Budget quiz " + p + "-" + q);
+                quiz.setStatus(Quiz.Status.ACTIVE);
+                quiz = quizService.createQuiz(quiz, professorId);
+                List<Integer> correct = new ArrayList<>();
+                for (int i = 0; i < 2; i++) {
+                    Question question = new Question();
+                    question.setQuestionText("Question " + i);
+                    question = quizService.addQuestion(quiz.getId(), question, professorId);
+                    correct.add(quizService.addResponse(question.getId(), response("Right", true), professorId).getId());
+                    quizService.addResponse(question.getId(), response("Wrong", false), professorId);
+                }
+                quizzes.add(quiz);
+                correctAnswers.add(correct);
+            }
+        }
+        for (int s = 0; s < STUDENTS; s++) {
+            String username = "budget-student-" + s;
+            Integer userId = transactionTemplate.execute(status -> {
+                User user = authService.register(username, username + "@budget.test", "password1", User.Role.STUDENT,
+                        "Student", username);
+                studentService.createStudent(user, "Student", username);
+                return user.getId();
+            });
+            for (int q = 0; q < quizzes.size(); q++) {
+                Integer quizId = quizzes.get(q).getId();
+                List<Integer> selected = correctAnswers.get(q).subList(0, 1 + (s + q) % 2);
+                quizService.startQuizParticipation(quizId, userId, null);
+                quizService.submitQuizAnswers(quizId, selected, userId, null, null, "[]");
+            }
+        }
+    }
+
+    @Test
+    void myParticipationsStaysWithinBudget() throws Exception {
+        assertWithinBudget(request("/quiz/my-participations", "budget-student-0", "STUDENT"), 8);
+    }
+
+    @Test
+    void historyStaysWithinBudget() throws Exception {
+        assertWithinBudget(request("/student/history", "budget-student-0", "STUDENT"), 15);
+    }
+
+    @Test
+    void leaderboardStaysWithinBudget() throws Exception {
+        assertWithinBudget(request("/student/leaderboard?limit=" + STUDENTS, "budget-student-0", "STUDENT"), 8);
+    }
+
+    @Test
+    void mostActiveStaysWithinBudget() throws Exception {
+        assertWithinBudget(request("/student/most-active?limit=" + STUDENTS, "budget-student-0", "STUDENT"), 8);
+    }
+
+    @Test
+    void subscriptionListStaysWithinBudget() throws Exception {
+        assertWithinBudget(request("/admin/subscriptions", "admin", "ADMIN"), 5);
+    }
+
+    @Test
+    void overrunFailsTheRequestEvenWhenTheControllerCatchesIt() throws Exception {
+        Object defaultBudget = ReflectionTestUtils.getField(sqlStatementMonitor, "defaultBudget");
+        ReflectionTestUtils.setField(sqlStatementMonitor, "defaultBudget", 1);
+        try {
+            // /student/stats has no budget of its own and answers RuntimeExceptions with a 400
+            mockMvc.perform(get("/student/stats").with(user("budget-student-0").roles("STUDENT")))
+                    .andExpect(status().isInternalServerError())
+                    .andExpect(jsonPath("$.error").value("GET /student/stats went over its budget of 1 SQL statements"));
+        } finally {
+            ReflectionTestUtils.setField(sqlStatementMonitor, "defaultBudget", defaultBudget);
+        }
+        assertTrue(sqlStatementMonitor.lastRequest().overBudget());
+    }
+
+    private SqlStatementMonitor.RequestStats request(String path, String username, String role) throws Exception {
+        mockMvc.perform(get(path).with(user(username).roles(role))).andExpect(status().isOk());
+        SqlStatementMonitor.RequestStats stats = sqlStatementMonitor.lastRequest();
+        assertNotNull(stats);
+        return stats;
+    }
+
+    private void assertWithinBudget(SqlStatementMonitor.RequestStats stats, int budget) {
+        assertEquals(budget, stats.budget(), stats.route());
+        assertTrue(stats.statements() <= budget,
+                stats.route() + " ran " + stats.statements() + " statements: " + stats.fingerprints());
+    }
+
+    private static Response response(String text, boolean correct) {
+        Response response = new Response();
+        response.setResponseText(text);
+        response.setIsCorrect(correct);
+        return response;
+    }
+}
@@ -0,0 +1,112 @@
+package com.quizbackend.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+    }
+
+    private void wire(ReplicaLagMonitor monitor) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, monitor);
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReadWriteRoutingDataSource.PRIMARY, primary);
+        targets.put(ReadWriteRoutingDataSource.REPLICA, replica);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+
+        // Same wiring as DataSourceRoutingConfig
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbc = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @Test
+    void markedReadOnlyTransactionsReachTheReplica() {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(primary, replica, Duration.ZERO);
+        monitor.check();
+        wire(monitor);
+
+        assertEquals("replica", withReplicaReads(() -> readOnly.execute(status -> serverName())));
+        assertEquals("primary", withReplicaReads(() -> readWrite.execute(status -> serverName())));
+        // Read-only without the mark, like a repository's own transaction
+        assertEquals("primary", readOnly.execute(status -> serverName()));
+        assertEquals("primary", serverName());
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhenTheReplicaIsUnhealthy() {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(primary, replica, Duration.ZERO);
+        monitor.check();
+        wire(monitor);
+
+        monitor.markUnhealthy("test");
+
+        assertEquals("primary", withReplicaReads(() -> readOnly.execute(status -> serverName())));
+    }
+
+    @Test
+    void laggingReplicaIsNotUsed() {
+        // The replica never receives the primary's heartbeat, so it looks as old as its last copy
+        new JdbcTemplate(replica).execute("CREATE TABLE replica_heartbeat (id INT PRIMARY KEY, beat_at BIGINT NOT NULL)");
+        new JdbcTemplate(replica).update("INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, ?)",
+                System.currentTimeMillis() - 60_000);
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(primary, replica, Duration.ofSeconds(5));
+        monitor.check();
+        wire(monitor);
+
+        assertFalse(monitor.isReplicaUsable());
+        assertEquals("primary", withReplicaReads(() -> readOnly.execute(status -> serverName())));
+    }
+
+    private static <T> T withReplicaReads(Supplier<T> work) {
+        boolean previous = ReadWriteRoutingDataSource.allowReplicaReads(true);
+        try {
+            return work.get();
+        } finally {
+            ReadWriteRoutingDataSource.allowReplicaReads(previous);
+        }
+    }
+
+    private String serverName() {
+        return jdbc.queryForObject("SELECT name FROM server_name", String.class);
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE server_name (name VARCHAR(20))");
+        jdbc.update("INSERT INTO server_name (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
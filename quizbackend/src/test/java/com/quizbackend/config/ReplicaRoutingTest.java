@@ -0,0 +1,121 @@
+package com.quizbackend.config;
+
+import com.quizbackend.entity.Guest;
+import com.quizbackend.repository.GuestRepository;
+import com.quizbackend.service.DashboardMetricsService;
+import com.quizbackend.service.GuestService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Routing through the application's own JPA wiring, against two distinct H2 databases: the
+ * replica holds one guest of its own and never receives the primary's writes.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+        // Connectivity probe only: the replica has no heartbeat to lag behind on
+        "app.datasource.replica.max-lag=0s"
+})
+@ActiveProfiles("test")
+@Import(ReplicaRoutingTest.GuestCounter.class)
+class ReplicaRoutingTest {
+
+    @Service
+    static class GuestCounter {
+
+        @Autowired
+        private GuestRepository guestRepository;
+
+        @Autowired
+        private DashboardMetricsService dashboardMetricsService;
+
+        @Transactional(readOnly = true)
+        public long countGuests() {
+            return guestRepository.count();
+        }
+
+        // As the admin dashboard's first request, before the scheduled recount ran
+        @Transactional(readOnly = true)
+        public long recountGuests() {
+            dashboardMetricsService.reconcile();
+            return dashboardMetricsService.get(DashboardMetricsService.Counter.GUESTS);
+        }
+    }
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private GuestService guestService;
+
+    @Autowired
+    private GuestRepository guestRepository;
+
+    @Autowired
+    private GuestCounter guestCounter;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primary;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replica;
+
+    @BeforeEach
+    void copySchemaToReplica() {
+        JdbcTemplate replicaJdbc = new JdbcTemplate(replica);
+        replicaJdbc.execute("DROP TABLE IF EXISTS guests");
+        for (String statement : new JdbcTemplate(primary).queryForList("SCRIPT NODATA TABLE guests", String.class)) {
+            if (statement.startsWith("CREATE") && statement.contains("GUESTS")) {
+                replicaJdbc.execute(statement);
+            }
+        }
+        replicaJdbc.update("INSERT INTO guests (pseudo, created_at) VALUES ('replica-only', CURRENT_TIMESTAMP)");
+    }
+
+    @Test
+    void repositoryReadsOutsideAServiceTransactionStayOnThePrimary() {
+        assertInstanceOf(JpaTransactionManager.class, transactionManager);
+
+        // As /quiz/guest/create followed by a live session join
+        Guest guest = guestService.createGuest("fresh", null);
+
+        assertTrue(guestRepository.existsById(guest.getId()));
+        assertEquals("fresh", guestRepository.findById(guest.getId()).orElseThrow().getPseudo());
+        assertEquals(new JdbcTemplate(primary).queryForObject("SELECT COUNT(*) FROM guests", Long.class),
+                guestRepository.count());
+    }
+
+    @Test
+    void readOnlyServiceMethodsReadTheReplica() {
+        guestService.createGuest("fresh", null);
+
+        assertEquals(1, guestCounter.countGuests());
+    }
+
+    @Test
+    void dashboardRecountReadsThePrimaryEvenFromAReadOnlyService() {
+        guestService.createGuest("fresh", null);
+
+        assertEquals(new JdbcTemplate(primary).queryForObject("SELECT COUNT(*) FROM guests", Long.class),
+                guestCounter.recountGuests());
+    }
+}
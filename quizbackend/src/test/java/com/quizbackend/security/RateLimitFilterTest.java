@@ -0,0 +1,132 @@
+package com.quizbackend.security;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RateLimitFilterTest {
+
+    private final List<String> forwardedBodies = new ArrayList<>();
+
+    private final FilterChain chain = (request, response) ->
+            forwardedBodies.add(new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void guestsBehindOneAddressHaveTheirOwnBuckets() throws Exception {
+        RateLimitFilter filter = filter(Duration.ofMinutes(10), "10,20", "10,30", "2,1");
+
+        // A class on one school network
+        for (int guest = 1; guest <= 30; guest++) {
+            for (int call = 0; call < 2; call++) {
+                assertEquals(200, post(filter, "/quiz/7/submit", "{\"guestId\": " + guest + "}").getStatus());
+            }
+        }
+        assertEquals(429, post(filter, "/quiz/7/submit", "{\"guestId\": 1}").getStatus());
+        // The body still reaches the controller
+        assertEquals("{\"guestId\": 30}", forwardedBodies.get(59));
+    }
+
+    @Test
+    void loginsAreKeyedByAccount() throws Exception {
+        RateLimitFilter filter = filter(Duration.ofMinutes(10), "1,1", "10,30", "20,30");
+
+        assertEquals(200, post(filter, "/auth/login", "{\"username\": \"alice\", \"password\": \"x\"}").getStatus());
+        assertEquals(200, post(filter, "/auth/login", "{\"username\": \"bob\", \"password\": \"x\"}").getStatus());
+        assertEquals(429, post(filter, "/auth/login", "{\"username\": \"Alice\", \"password\": \"y\"}").getStatus());
+    }
+
+    @Test
+    void liveSessionsHaveTheirOwnQuotaAndReadsAreNotLimited() throws Exception {
+        RateLimitFilter filter = filter(Duration.ofMinutes(10), "10,20", "1,1", "20,30");
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, get(filter, "/quiz/live/ABC123/stream").getStatus());
+            assertEquals(200, get(filter, "/quiz/live/ABC123").getStatus());
+        }
+        assertEquals(200, post(filter, "/quiz/live/ABC123/join", "{\"guest_id\": 4}").getStatus());
+        assertEquals(429, post(filter, "/quiz/live/ABC123/answer", "{\"guest_id\": 4, \"response_id\": 9}").getStatus());
+        // Another participant, or the same one in another session
+        assertEquals(200, post(filter, "/quiz/live/ABC123/join", "{\"guest_id\": 5}").getStatus());
+        assertEquals(200, post(filter, "/quiz/live/XYZ789/join", "{\"guest_id\": 4}").getStatus());
+    }
+
+    @Test
+    void emptyBucketRefillsAndTellsWhenToRetry() throws Exception {
+        RateLimitFilter filter = filter(Duration.ofMinutes(10), "10,20", "10,30", "20,30");
+        authenticate("carol", "ROLE_STUDENT");
+
+        // Student quota: one token, refilled every 10 ms
+        assertEquals(200, post(filter, "/quiz/3/start", "").getStatus());
+        MockHttpServletResponse rejected = post(filter, "/quiz/3/start", "");
+        assertEquals(429, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+
+        Thread.sleep(30);
+        assertEquals(200, post(filter, "/quiz/3/start", "").getStatus());
+    }
+
+    @Test
+    void idleBucketsAreEvictedAndStartFull() throws Exception {
+        RateLimitFilter filter = filter(Duration.ZERO, "10,20", "10,30", "1,1");
+
+        assertEquals(200, post(filter, "/quiz/7/submit", "{\"guestId\": 1}").getStatus());
+        assertEquals(429, post(filter, "/quiz/7/submit", "{\"guestId\": 1}").getStatus());
+        Thread.sleep(2);
+
+        filter.evictIdleBuckets();
+
+        Map<String, Object> stats = filter.snapshot();
+        assertEquals(0, stats.get("activeBuckets"));
+        assertEquals(1L, stats.get("evictedBuckets"));
+        assertEquals(200, post(filter, "/quiz/7/submit", "{\"guestId\": 1}").getStatus());
+    }
+
+    private static RateLimitFilter filter(Duration idleTimeout, String auth, String live, String guest) {
+        return new RateLimitFilter(true, false, idleTimeout, auth, live, guest, "1,6000", "30,60", "60,120");
+    }
+
+    private static void authenticate(String username, String role) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of(new SimpleGrantedAuthority(role))));
+    }
+
+    private MockHttpServletResponse post(RateLimitFilter filter, String path, String body) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setServletPath(path);
+        request.setRemoteAddr("10.0.0.1");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return run(filter, request);
+    }
+
+    private MockHttpServletResponse get(RateLimitFilter filter, String path) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        request.setRemoteAddr("10.0.0.1");
+        return run(filter, request);
+    }
+
+    private MockHttpServletResponse run(RateLimitFilter filter, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
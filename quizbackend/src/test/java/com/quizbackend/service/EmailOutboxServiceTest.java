@@ -0,0 +1,215 @@
+package com.quizbackend.service;
+
+import com.quizbackend.entity.EmailOutbox;
+import com.quizbackend.repository.EmailOutboxRepository;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        // Dispatch only when the test calls it
+        "email.outbox.poll-interval=3600000",
+        "email.outbox.max-attempts=3",
+        "email.outbox.initial-backoff=30s",
+        "http.client.circuit.failure-threshold=1000"
+})
+@ActiveProfiles("test")
+class EmailOutboxServiceTest {
+
+    private static final Pattern RECIPIENT = Pattern.compile("\"email\"\\s*:\\s*\"([^\"]+@outbox\\.test)\"");
+
+    private static final HttpServer mailServer;
+    private static final AtomicInteger status = new AtomicInteger(201);
+    private static final List<String> recipients = new ArrayList<>();
+
+    static {
+        try {
+            mailServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        mailServer.createContext("/v3/smtp/email", exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            int code = status.get();
+            if (code < 300) {
+                Matcher matcher = RECIPIENT.matcher(body);
+                synchronized (recipients) {
+                    while (matcher.find()) {
+                        recipients.add(matcher.group(1));
+                    }
+                }
+            }
+            byte[] response = "{}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(code, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        mailServer.setExecutor(Executors.newFixedThreadPool(4));
+        mailServer.start();
+    }
+
+    @DynamicPropertySource
+    static void mailServerUrl(DynamicPropertyRegistry registry) {
+        registry.add("brevo.api.url", () -> "http://localhost:" + mailServer.getAddress().getPort() + "/v3/smtp/email");
+    }
+
+    @AfterAll
+    static void stopMailServer() {
+        mailServer.stop(0);
+    }
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @BeforeEach
+    void reset() {
+        emailOutboxRepository.deleteAll();
+        status.set(201);
+        synchronized (recipients) {
+            recipients.clear();
+        }
+    }
+
+    @Test
+    void failedBatchIsRetriedWithBackoffThenSent() {
+        EmailOutbox message = queue("retry@outbox.test");
+        status.set(500);
+
+        emailOutboxService.dispatchPending();
+
+        EmailOutbox failed = emailOutboxRepository.findById(message.getId()).orElseThrow();
+        assertEquals(EmailOutbox.Status.PENDING, failed.getStatus());
+        assertEquals(1, failed.getAttempts());
+        assertNotNull(failed.getLastError());
+        assertTrue(failed.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(25)),
+                "first retry waits the initial backoff");
+
+        // Not due yet: nothing is sent
+        status.set(201);
+        emailOutboxService.dispatchPending();
+        assertEquals(List.of(), sentTo());
+
+        makeDue(failed);
+        emailOutboxService.dispatchPending();
+
+        EmailOutbox sent = emailOutboxRepository.findById(message.getId()).orElseThrow();
+        assertEquals(EmailOutbox.Status.SENT, sent.getStatus());
+        assertEquals(2, sent.getAttempts());
+        assertEquals(List.of("retry@outbox.test"), sentTo());
+    }
+
+    @Test
+    void backoffDoublesAndMessageFailsAfterMaxAttempts() {
+        EmailOutbox message = queue("broken@outbox.test");
+        status.set(500);
+
+        emailOutboxService.dispatchPending();
+        EmailOutbox first = emailOutboxRepository.findById(message.getId()).orElseThrow();
+        makeDue(first);
+
+        LocalDateTime beforeSecond = LocalDateTime.now();
+        emailOutboxService.dispatchPending();
+        EmailOutbox second = emailOutboxRepository.findById(message.getId()).orElseThrow();
+        assertEquals(2, second.getAttempts());
+        assertTrue(second.getNextAttemptAt().isAfter(beforeSecond.plusSeconds(55)), "second retry waits twice as long");
+        makeDue(second);
+
+        emailOutboxService.dispatchPending();
+        EmailOutbox last = emailOutboxRepository.findById(message.getId()).orElseThrow();
+        assertEquals(EmailOutbox.Status.FAILED, last.getStatus());
+        assertEquals(3, last.getAttempts());
+    }
+
+    @Test
+    void rowsClaimedByAnotherDispatcherAreNotSent() {
+        EmailOutbox message = queue("claimed@outbox.test");
+        LocalDateTime now = LocalDateTime.now();
+        assertEquals(1, emailOutboxRepository.claim(List.of(message.getId()), EmailOutbox.Status.PENDING, now,
+                "other-instance", now.plusMinutes(5)));
+
+        emailOutboxService.dispatchPending();
+        assertEquals(List.of(), sentTo());
+
+        // The other instance died: once its lease is over the row is due again
+        makeDue(emailOutboxRepository.findById(message.getId()).orElseThrow());
+        emailOutboxService.dispatchPending();
+        assertEquals(List.of("claimed@outbox.test"), sentTo());
+    }
+
+    @Test
+    void concurrentDispatchersSendEachMessageOnce() throws Exception {
+        int messages = 40;
+        for (int i = 0; i < messages; i++) {
+            queue("user" + i + "@outbox.test");
+        }
+
+        int dispatchers = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(dispatchers);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < dispatchers; i++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    emailOutboxService.dispatchPending();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        List<String> sent = sentTo();
+        assertEquals(messages, sent.size());
+        assertEquals(messages, sent.stream().distinct().count());
+        assertEquals(messages, emailOutboxRepository.countByStatus(EmailOutbox.Status.SENT));
+    }
+
+    private EmailOutbox queue(String email) {
+        EmailOutbox message = new EmailOutbox();
+        message.setType(EmailOutbox.Type.VERIFICATION);
+        message.setToEmail(email);
+        message.setToName(email.substring(0, email.indexOf('@')));
+        message.setLink("http://localhost/verify");
+        return emailOutboxRepository.save(message);
+    }
+
+    private void makeDue(EmailOutbox message) {
+        message.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        emailOutboxRepository.save(message);
+    }
+
+    private List<String> sentTo() {
+        synchronized (recipients) {
+            return new ArrayList<>(recipients);
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.quizbackend.service;
+
+import com.quizbackend.entity.Guest;
+import com.quizbackend.entity.Participation;
+import com.quizbackend.entity.Question;
+import com.quizbackend.entity.Quiz;
+import com.quizbackend.entity.Response;
+import com.quizbackend.entity.User;
+import com.quizbackend.repository.ParticipationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        // One sender thread: a stalled stream would hold up every other one
+        "live-session.sender-threads=1",
+        "live-session.send-timeout=300ms"
+})
+@ActiveProfiles("test")
+class LiveSessionServiceTest {
+
+    private static final AtomicInteger professors = new AtomicInteger();
+
+    @Autowired
+    private LiveSessionService liveSessionService;
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private GuestService guestService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private ProfessorService professorService;
+
+    @Autowired
+    private ParticipationRepository participationRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Integer professorId;
+
+    @BeforeEach
+    void createProfessor() {
+        String name = "live-prof-" + professors.incrementAndGet();
+        professorId = transactionTemplate.execute(status -> {
+            User user = authService.register(name, name + "@live.test", "password1", User.Role.PROFESSOR_FREE, "Prof", name);
+            return professorService.createProfessor(user, "Prof", name).getUserId();
+        });
+    }
+
+    @Test
+    void multipleCorrectResponsesScoreOnlyTheExactSelection() {
+        Quiz quiz = quiz();
+        Question single = question(quiz, "Capital of France");
+        Integer paris = response(single, "Paris", true);
+        Integer lyon = response(single, "Lyon", false);
+        Question multiple = question(quiz, "Prime numbers");
+        Integer two = response(multiple, "2", true);
+        Integer three = response(multiple, "3", true);
+        Integer four = response(multiple, "4", false);
+
+        liveSessionService.open(quiz.getId(), professorId);
+        Guest exact = join(quiz), partial = join(quiz), wrong = join(quiz), silent = join(quiz);
+
+        liveSessionService.next(quiz.getCode(), professorId, 60);
+        answer(quiz, exact, single, paris);
+        answer(quiz, partial, single, paris);
+        answer(quiz, wrong, single, lyon);
+        liveSessionService.next(quiz.getCode(), professorId, 60);
+        answer(quiz, exact, multiple, three, two);
+        answer(quiz, partial, multiple, two);
+        answer(quiz, wrong, multiple, two, three, four);
+        Map<String, Object> ended = liveSessionService.end(quiz.getCode(), professorId);
+
+        assertEquals(4, ended.get("saved"));
+        Map<Integer, BigDecimal> scores = scoresByGuest(quiz);
+        assertEquals(0, new BigDecimal("100").compareTo(scores.get(exact.getId())));
+        assertEquals(0, new BigDecimal("50").compareTo(scores.get(partial.getId())));
+        assertEquals(0, BigDecimal.ZERO.compareTo(scores.get(wrong.getId())));
+        assertEquals(0, BigDecimal.ZERO.compareTo(scores.get(silent.getId())));
+    }
+
+    @Test
+    void questionsWithoutResponsesCountAsAnsweredOutOfTheWholeQuiz() {
+        Quiz quiz = quiz();
+        Question played = question(quiz, "Played");
+        Integer right = response(played, "Right", true);
+        response(played, "Wrong", false);
+        question(quiz, "No responses");
+
+        liveSessionService.open(quiz.getId(), professorId);
+        Guest guest = join(quiz);
+        liveSessionService.next(quiz.getCode(), professorId, 60);
+        answer(quiz, guest, played, right);
+        liveSessionService.end(quiz.getCode(), professorId);
+
+        assertEquals(0, new BigDecimal("100").compareTo(scoresByGuest(quiz).get(guest.getId())));
+    }
+
+    @Test
+    void sessionOnlyAcceptsOneTimelyAnswerToTheCurrentQuestion() throws Exception {
+        Quiz quiz = quiz();
+        Question first = question(quiz, "First");
+        Integer firstRight = response(first, "Right", true);
+        Question second = question(quiz, "Second");
+        Integer secondRight = response(second, "Right", true);
+        String code = quiz.getCode();
+
+        liveSessionService.open(quiz.getId(), professorId);
+        assertThrows(RuntimeException.class, () -> liveSessionService.open(quiz.getId(), professorId));
+        Guest guest = join(quiz);
+        Guest outsider = guestService.createGuest("outsider", null);
+
+        assertEquals("Question is not accepting answers", rejection(quiz, guest, first, firstRight));
+        liveSessionService.next(code, professorId, 60);
+        assertEquals("Join the live session before answering", rejection(quiz, outsider, first, firstRight));
+        assertEquals("Response does not belong to this question", rejection(quiz, guest, first, secondRight));
+        assertEquals("Select at least one response", rejection(quiz, guest, first));
+        answer(quiz, guest, first, firstRight);
+        assertEquals("Question already answered", rejection(quiz, guest, first, firstRight));
+
+        // The countdown closes the second question
+        liveSessionService.next(code, professorId, 1);
+        assertEquals("Question is no longer current", rejection(quiz, guest, first, firstRight));
+        Thread.sleep(1100);
+        assertEquals("Question is not accepting answers", rejection(quiz, guest, second, secondRight));
+        RuntimeException noMore = assertThrows(RuntimeException.class, () -> liveSessionService.next(code, professorId, 60));
+        assertEquals("No more questions, end the session to save results", noMore.getMessage());
+
+        assertThrows(RuntimeException.class, () -> liveSessionService.end(code, professorId + 1000));
+        liveSessionService.end(code, professorId);
+        RuntimeException gone = assertThrows(RuntimeException.class, () -> liveSessionService.join(code, null, guest.getId()));
+        assertEquals("No live session running for this code", gone.getMessage());
+        assertEquals(0, new BigDecimal("50").compareTo(scoresByGuest(quiz).get(guest.getId())));
+    }
+
+    @Test
+    void stalledStreamIsDroppedWithoutHoldingUpTheOthers() throws Exception {
+        Quiz quiz = quiz();
+        Question question = question(quiz, "Question");
+        response(question, "Right", true);
+        String code = quiz.getCode();
+        liveSessionService.open(quiz.getId(), professorId);
+        long stalledBefore = (Long) liveSessionService.snapshot().get("stalledDisconnects");
+
+        StalledEmitter stalled = new StalledEmitter();
+        RecordingEmitter healthy = new RecordingEmitter();
+        try {
+            liveSessionService.subscribe(code, stalled);
+            liveSessionService.subscribe(code, healthy);
+            liveSessionService.next(code, professorId, 60);
+
+            healthy.await("state");
+            healthy.await("question");
+            assertEquals(stalledBefore + 1, liveSessionService.snapshot().get("stalledDisconnects"));
+        } finally {
+            stalled.release.countDown();
+        }
+        // Once the stuck write fails the dropped stream is closed
+        assertTrue(stalled.closed.await(5, TimeUnit.SECONDS));
+        liveSessionService.end(code, professorId);
+        healthy.await("ended");
+    }
+
+    private Quiz quiz() {
+        Quiz quiz = new Quiz();
+        quiz.setTitle("Live quiz");
+        quiz.setStatus(Quiz.Status.ACTIVE);
+        return quizService.createQuiz(quiz, professorId);
+    }
+
+    private Question question(Quiz quiz, String text) {
+        Question question = new Question();
+        question.setQuestionText(text);
+        return quizService.addQuestion(quiz.getId(), question, professorId);
+    }
+
+    private Integer response(Question question, String text, boolean correct) {
+        Response response = new Response();
+        response.setResponseText(text);
+        response.setIsCorrect(correct);
+        return quizService.addResponse(question.getId(), response, professorId).getId();
+    }
+
+    private Guest join(Quiz quiz) {
+        Guest guest = guestService.createGuest("guest", null);
+        liveSessionService.join(quiz.getCode(), null, guest.getId());
+        return guest;
+    }
+
+    private void answer(Quiz quiz, Guest guest, Question question, Integer... responseIds) {
+        liveSessionService.answer(quiz.getCode(), null, guest.getId(), question.getId(), List.of(responseIds));
+    }
+
+    private String rejection(Quiz quiz, Guest guest, Question question, Integer... responseIds) {
+        return assertThrows(RuntimeException.class, () -> answer(quiz, guest, question, responseIds)).getMessage();
+    }
+
+    private Map<Integer, BigDecimal> scoresByGuest(Quiz quiz) {
+        Map<Integer, BigDecimal> scores = new HashMap<>();
+        for (Participation participation : participationRepository.findAll()) {
+            if (participation.getQuizId().equals(quiz.getId())) {
+                scores.put(participation.getGuestId(), participation.getScore());
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * A client that stopped reading: the write blocks until its socket gives up
+     */
+    private static class StalledEmitter extends SseEmitter {
+
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public synchronized void send(Set<DataWithMediaType> items) throws IOException {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    release.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("Broken pipe");
+        }
+
+        @Override
+        public synchronized void completeWithError(Throwable ex) {
+            closed.countDown();
+        }
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+        @Override
+        public void send(Set<DataWithMediaType> items) {
+            events.add(items.stream().map(item -> item.getData().toString()).collect(Collectors.joining()));
+        }
+
+        // Skips the tallies and keep-alives sent in between
+        void await(String name) throws InterruptedException {
+            String event;
+            do {
+                event = events.poll(5, TimeUnit.SECONDS);
+                assertNotNull(event, "No " + name + " event");
+            } while (!event.startsWith("event:" + name + "\n"));
+        }
+    }
+}
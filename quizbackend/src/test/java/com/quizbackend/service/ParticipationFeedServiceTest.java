@@ -0,0 +1,105 @@
+package com.quizbackend.service;
+
+import com.quizbackend.dto.ParticipationDto;
+import com.quizbackend.event.ParticipationEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParticipationFeedServiceTest {
+
+    // One sender thread: a stalled feed would hold up every other one
+    private final ParticipationFeedService feeds =
+            new ParticipationFeedService(1, Duration.ofMillis(300), 16, Duration.ofMinutes(1));
+
+    private final StalledEmitter stalled = new StalledEmitter();
+
+    @AfterEach
+    void shutdown() {
+        stalled.release.countDown();
+        feeds.shutdown();
+    }
+
+    @Test
+    void stalledFeedIsDroppedWithoutHoldingUpTheOthers() throws Exception {
+        RecordingEmitter healthy = new RecordingEmitter();
+        feeds.open(feeds.subscribe(1, stalled), List.of());
+        feeds.open(feeds.subscribe(2, healthy), List.of());
+
+        ParticipationDto participation = new ParticipationDto();
+        participation.setId(42);
+        feeds.onParticipationEvent(new ParticipationEvent(ParticipationEvent.Type.JOINED, 2, participation));
+
+        healthy.await("snapshot");
+        healthy.await("joined");
+        assertEquals(1L, feeds.snapshot().get("stalledDisconnects"));
+        assertEquals(1, ((Map<?, ?>) feeds.snapshot().get("connectionsByQuiz")).size());
+
+        // Once the stuck write fails the dropped feed is closed
+        stalled.release.countDown();
+        assertTrue(stalled.closed.await(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * A client that stopped reading: the write blocks until its socket gives up
+     */
+    private static class StalledEmitter extends SseEmitter {
+
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public synchronized void send(SseEventBuilder builder) throws IOException {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    release.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("Broken pipe");
+        }
+
+        @Override
+        public synchronized void completeWithError(Throwable ex) {
+            closed.countDown();
+        }
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            events.add(builder.build().stream().map(item -> String.valueOf(item.getData())).collect(Collectors.joining()));
+        }
+
+        void await(String name) throws InterruptedException {
+            String event;
+            do {
+                event = events.poll(5, TimeUnit.SECONDS);
+                assertNotNull(event, "No " + name + " event");
+            } while (!event.startsWith("event:" + name + "\n"));
+        }
+    }
+}
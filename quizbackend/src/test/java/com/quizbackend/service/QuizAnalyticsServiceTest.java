@@ -0,0 +1,213 @@
+package com.quizbackend.service;
+
+import com.quizbackend.dto.QuizAnalyticsDto;
+import com.quizbackend.entity.Question;
+import com.quizbackend.entity.Quiz;
+import com.quizbackend.entity.Response;
+import com.quizbackend.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class QuizAnalyticsServiceTest {
+
+    private static final AtomicInteger professors = new AtomicInteger();
+
+    @Autowired
+    private QuizAnalyticsService quizAnalyticsService;
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private ProfessorService professorService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Integer professorId;
+
+    @BeforeEach
+    void createProfessor() {
+        String name = "analytics-prof-" + professors.incrementAndGet();
+        professorId = transactionTemplate.execute(status -> {
+            User user = authService.register(name, name + "@analytics.test", "password1", User.Role.PROFESSOR_FREE, "Prof", name);
+            return professorService.createProfessor(user, "Prof", name).getUserId();
+        });
+    }
+
+    @Test
+    void difficultyAndDiscriminationFollowTheSums() {
+        Quiz quiz = quiz();
+        Question easy = question(quiz);
+        Integer easyRight = response(easy, true);
+        response(easy, false);
+        Question hard = question(quiz);
+        response(hard, true);
+        Integer hardWrong = response(hard, false);
+        Question mixed = question(quiz);
+        Integer mixedRight = response(mixed, true);
+        Integer mixedWrong = response(mixed, false);
+        Question multiple = question(quiz);
+        Integer first = response(multiple, true);
+        Integer second = response(multiple, true);
+        Integer wrong = response(multiple, false);
+
+        quizAnalyticsService.recordSubmissions(quiz.getId(), List.of(
+                submission(100, easyRight, hardWrong, mixedRight, first, second),
+                submission(50, easyRight, hardWrong, mixedRight, first),
+                submission(50, easyRight, hardWrong, mixedWrong, first, second, wrong),
+                submission(0, easyRight, hardWrong, mixedWrong)));
+        QuizAnalyticsDto analytics = quizAnalyticsService.getQuizAnalytics(quiz.getId(), professorId);
+
+        assertEquals(4L, analytics.getSubmissions());
+        assertEquals(50.0, analytics.getMeanScore(), 1e-9);
+        assertEquals(Math.sqrt(1250), analytics.getScoreStdDev(), 1e-9);
+
+        // Everyone right or everyone wrong: difficulty is exact, discrimination undefined
+        QuizAnalyticsDto.QuestionStats easyStats = analytics.getQuestions().get(0);
+        assertEquals(4L, easyStats.getCorrect());
+        assertEquals(1.0, easyStats.getDifficulty(), 1e-9);
+        assertNull(easyStats.getDiscrimination());
+        QuizAnalyticsDto.QuestionStats hardStats = analytics.getQuestions().get(1);
+        assertEquals(4L, hardStats.getAnswered());
+        assertEquals(0L, hardStats.getCorrect());
+        assertEquals(0.0, hardStats.getDifficulty(), 1e-9);
+        assertNull(hardStats.getDiscrimination());
+
+        // Right: 100 and 50, wrong: 50 and 0 -> (75 - 25) / sqrt(1250) * sqrt(0.25)
+        QuizAnalyticsDto.QuestionStats mixedStats = analytics.getQuestions().get(2);
+        assertEquals(0.5, mixedStats.getDifficulty(), 1e-9);
+        assertEquals(50 / Math.sqrt(1250) * 0.5, mixedStats.getDiscrimination(), 1e-9);
+
+        // Only the exact set of correct responses counts, and an unanswered question is not answered
+        QuizAnalyticsDto.QuestionStats multipleStats = analytics.getQuestions().get(3);
+        assertEquals(3L, multipleStats.getAnswered());
+        assertEquals(1L, multipleStats.getCorrect());
+        assertEquals(0.25, multipleStats.getDifficulty(), 1e-9);
+        assertEquals(3L, multipleStats.getResponses().get(0).getSelections());
+        assertEquals(0.75, multipleStats.getResponses().get(0).getFrequency(), 1e-9);
+        assertEquals(1L, multipleStats.getResponses().get(2).getSelections());
+    }
+
+    @Test
+    void equalScoresLeaveDiscriminationUndefined() {
+        Quiz quiz = quiz();
+        Question question = question(quiz);
+        Integer right = response(question, true);
+        Integer wrong = response(question, false);
+
+        quizAnalyticsService.recordSubmissions(quiz.getId(), List.of(submission(50, right), submission(50, wrong)));
+        QuizAnalyticsDto.QuestionStats stats = quizAnalyticsService.getQuizAnalytics(quiz.getId(), professorId)
+                .getQuestions().get(0);
+
+        assertEquals(0.5, stats.getDifficulty(), 1e-9);
+        assertNull(stats.getDiscrimination());
+    }
+
+    @Test
+    void resubmissionReplacesTheEarlierAnswers() {
+        Quiz quiz = quiz();
+        Question question = question(quiz);
+        Integer right = response(question, true);
+        Integer wrong = response(question, false);
+        QuizAnalyticsService.Submission first = submission(0, wrong);
+
+        quizAnalyticsService.recordSubmissions(quiz.getId(), List.of(first));
+        quizAnalyticsService.replaceSubmission(quiz.getId(), first, submission(100, right));
+        QuizAnalyticsDto analytics = quizAnalyticsService.getQuizAnalytics(quiz.getId(), professorId);
+
+        assertEquals(1L, analytics.getSubmissions());
+        assertEquals(100.0, analytics.getMeanScore(), 1e-9);
+        QuizAnalyticsDto.QuestionStats stats = analytics.getQuestions().get(0);
+        assertEquals(1L, stats.getAnswered());
+        assertEquals(1L, stats.getCorrect());
+        assertEquals(1L, stats.getResponses().get(0).getSelections());
+        assertEquals(0L, stats.getResponses().get(1).getSelections());
+    }
+
+    @Test
+    void concurrentFirstSubmissionsAreAllCounted() throws Exception {
+        Quiz quiz = quiz();
+        Question question = question(quiz);
+        Integer right = response(question, true);
+        Integer wrong = response(question, false);
+
+        int threads = 8;
+        int perThread = 25;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            boolean correct = t % 2 == 0;
+            results.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    quizAnalyticsService.recordSubmissions(quiz.getId(),
+                            List.of(correct ? submission(100, right) : submission(0, wrong)));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get();
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        QuizAnalyticsDto analytics = quizAnalyticsService.getQuizAnalytics(quiz.getId(), professorId);
+        assertEquals(200L, analytics.getSubmissions());
+        assertEquals(50.0, analytics.getMeanScore(), 1e-9);
+        QuizAnalyticsDto.QuestionStats stats = analytics.getQuestions().get(0);
+        assertEquals(200L, stats.getAnswered());
+        assertEquals(100L, stats.getCorrect());
+        assertEquals(100L, stats.getResponses().get(1).getSelections());
+    }
+
+    private static QuizAnalyticsService.Submission submission(int score, Integer... selectedResponseIds) {
+        return new QuizAnalyticsService.Submission(BigDecimal.valueOf(score), List.of(selectedResponseIds));
+    }
+
+    private Quiz quiz() {
+        Quiz quiz = new Quiz();
+        quiz.setTitle("Analytics quiz");
+        quiz.setStatus(Quiz.Status.ACTIVE);
+        return quizService.createQuiz(quiz, professorId);
+    }
+
+    private Question question(Quiz quiz) {
+        Question question = new Question();
+        question.setQuestionText("Question");
+        return quizService.addQuestion(quiz.getId(), question, professorId);
+    }
+
+    private Integer response(Question question, boolean correct) {
+        Response response = new Response();
+        response.setResponseText(correct ? "Right" : "Wrong");
+        response.setIsCorrect(correct);
+        return quizService.addResponse(question.getId(), response, professorId).getId();
+    }
+}
@@ -0,0 +1,111 @@
+package com.quizbackend.service;
+
+import com.quizbackend.entity.Quiz;
+import com.quizbackend.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "quota.plan.free=2,2,3")
+@ActiveProfiles("test")
+class QuotaServiceTest {
+
+    private static final String QUIZ_LIMIT = "Quiz limit of your plan reached (2 quizzes). Archive a quiz or upgrade your plan";
+    private static final String PARTICIPANT_LIMIT = "This quiz has reached the participant limit of its owner's plan";
+    private static final String MONTHLY_LIMIT = "The quiz owner's plan has reached its monthly participation limit";
+
+    private static final AtomicInteger professors = new AtomicInteger();
+
+    @Autowired
+    private QuotaService quotaService;
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private ProfessorService professorService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Integer professorId;
+
+    @BeforeEach
+    void createProfessor() {
+        String name = "quota-prof-" + professors.incrementAndGet();
+        professorId = transactionTemplate.execute(status -> {
+            User user = authService.register(name, name + "@quota.test", "password1", User.Role.PROFESSOR_FREE, "Prof", name);
+            return professorService.createProfessor(user, "Prof", name).getUserId();
+        });
+    }
+
+    @Test
+    void quizSlotIsHandedBackWhenTheCreationRollsBack() {
+        transactionTemplate.executeWithoutResult(status -> {
+            quiz();
+            status.setRollbackOnly();
+        });
+        assertEquals(0L, quotaService.getUsage(professorId).get("quizzes"));
+
+        quiz();
+        quiz();
+        assertEquals(2L, quotaService.getUsage(professorId).get("quizzes"));
+        assertEquals(QUIZ_LIMIT, assertThrows(RuntimeException.class, this::quiz).getMessage());
+        assertEquals(2L, quotaService.getUsage(professorId).get("quizzes"));
+    }
+
+    @Test
+    void participantPlaceIsHandedBackWhenTheParticipationRollsBack() {
+        Integer quizId = quiz().getId();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            quotaService.acquireParticipant(professorId, quizId);
+            status.setRollbackOnly();
+        });
+        assertEquals(0L, quotaService.getUsage(professorId).get("monthlyParticipations"));
+
+        quotaService.acquireParticipant(professorId, quizId);
+        quotaService.acquireParticipant(professorId, quizId);
+        assertEquals(PARTICIPANT_LIMIT, assertThrows(RuntimeException.class,
+                () -> quotaService.acquireParticipant(professorId, quizId)).getMessage());
+        // The quiz was full, so no monthly participation was taken either
+        assertEquals(2L, quotaService.getUsage(professorId).get("monthlyParticipations"));
+    }
+
+    @Test
+    void rejectedParticipationReleasesItsPlaceOnlyOnce() {
+        Integer full = quiz().getId();
+        Integer open = quiz().getId();
+        quotaService.acquireParticipant(professorId, full);
+        quotaService.acquireParticipant(professorId, full);
+        quotaService.acquireParticipant(professorId, open);
+
+        // The month is used up: the place taken in the open quiz is given back, and not again on rollback
+        RuntimeException monthly = assertThrows(RuntimeException.class, () -> transactionTemplate.executeWithoutResult(
+                status -> quotaService.acquireParticipant(professorId, open)));
+        assertEquals(MONTHLY_LIMIT, monthly.getMessage());
+        assertEquals(3L, quotaService.getUsage(professorId).get("monthlyParticipations"));
+
+        // One participant left in the open quiz: one more would reach its limit before the month's
+        assertEquals(PARTICIPANT_LIMIT, assertThrows(RuntimeException.class,
+                () -> quotaService.checkParticipantHeadroom(professorId, open, 1)).getMessage());
+    }
+
+    private Quiz quiz() {
+        Quiz quiz = new Quiz();
+        quiz.setTitle("Quota quiz");
+        quiz.setStatus(Quiz.Status.ACTIVE);
+        return quizService.createQuiz(quiz, professorId);
+    }
+}
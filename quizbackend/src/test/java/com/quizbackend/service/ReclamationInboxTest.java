@@ -0,0 +1,100 @@
+package com.quizbackend.service;
+
+import com.quizbackend.dto.ReclamationInboxDto;
+import com.quizbackend.dto.ReclamationSummaryDto;
+import com.quizbackend.entity.Reclamation;
+import com.quizbackend.repository.ReclamationRepository;
+import com.quizbackend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReclamationInboxTest {
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private ReclamationRepository reclamationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Integer userId;
+
+    @BeforeEach
+    void reset() {
+        reclamationRepository.deleteAll();
+        // Created by DataInitializer
+        userId = userRepository.findByUsername("admin").orElseThrow().getId();
+    }
+
+    @Test
+    void pagesAcrossPriorityRanksInInboxOrder() {
+        Reclamation urgentOld = reclamation(Reclamation.Priority.URGENT);
+        Reclamation urgentNew = reclamation(Reclamation.Priority.URGENT);
+        Reclamation highOld = reclamation(Reclamation.Priority.HIGH);
+        Reclamation highNew = reclamation(Reclamation.Priority.HIGH);
+        Reclamation low = reclamation(Reclamation.Priority.LOW);
+
+        // The first page ends inside the HIGH rank, the second crosses into LOW
+        ReclamationInboxDto first = adminService.getReclamationInbox(null, null, null, 3);
+        assertEquals(List.of(urgentNew.getId(), urgentOld.getId(), highNew.getId()), ids(first));
+        assertNotNull(first.getNextCursor());
+
+        ReclamationInboxDto second = adminService.getReclamationInbox(null, null, first.getNextCursor(), 3);
+        assertEquals(List.of(highOld.getId(), low.getId()), ids(second));
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void reclamationsStoredWithoutRankAreBackfilled() {
+        Reclamation ranked = reclamation(Reclamation.Priority.MEDIUM);
+        Reclamation legacy = reclamation(Reclamation.Priority.HIGH);
+        // As left by a deployment from before priority_rank existed
+        jdbcTemplate.update("UPDATE reclamations SET priority_rank = NULL WHERE id = ?", legacy.getId());
+        // Unranked rows sort apart from the rest and fall out of the keyset predicate after the first page
+        ReclamationInboxDto unranked = adminService.getReclamationInbox(null, null, null, 1);
+        assertEquals(List.of(), ids(adminService.getReclamationInbox(null, null, unranked.getNextCursor(), 1)));
+
+        assertEquals(1, adminService.backfillReclamationPriorityRanks());
+
+        ReclamationInboxDto first = adminService.getReclamationInbox(null, null, null, 1);
+        assertEquals(List.of(legacy.getId()), ids(first));
+        ReclamationInboxDto second = adminService.getReclamationInbox(null, null, first.getNextCursor(), 1);
+        assertEquals(List.of(ranked.getId()), ids(second));
+        assertNull(second.getNextCursor());
+    }
+
+    private Reclamation reclamation(Reclamation.Priority priority) {
+        Reclamation reclamation = new Reclamation();
+        reclamation.setUserId(userId);
+        reclamation.setSubject(priority + " issue");
+        reclamation.setMessage("Details");
+        reclamation.setPriority(priority);
+        return reclamationRepository.save(reclamation);
+    }
+
+    private List<Integer> ids(ReclamationInboxDto page) {
+        List<Integer> ids = new ArrayList<>();
+        for (ReclamationSummaryDto item : page.getItems()) {
+            ids.add(item.getId());
+        }
+        return ids;
+    }
+}
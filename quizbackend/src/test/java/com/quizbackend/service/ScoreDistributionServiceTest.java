@@ -0,0 +1,159 @@
+package com.quizbackend.service;
+
+import com.quizbackend.dto.ScoreDistributionDto;
+import com.quizbackend.entity.Quiz;
+import com.quizbackend.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ScoreDistributionServiceTest {
+
+    private static final AtomicInteger professors = new AtomicInteger();
+
+    @Autowired
+    private ScoreDistributionService scoreDistributionService;
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private ProfessorService professorService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Integer professorId;
+
+    @BeforeEach
+    void createProfessor() {
+        String name = "distribution-prof-" + professors.incrementAndGet();
+        professorId = transactionTemplate.execute(status -> {
+            User user = authService.register(name, name + "@distribution.test", "password1", User.Role.PROFESSOR_FREE, "Prof", name);
+            return professorService.createProfessor(user, "Prof", name).getUserId();
+        });
+    }
+
+    @Test
+    void quantilesInterpolateWithinOnePointBuckets() {
+        ScoreDistributionService.Histogram histogram = histogram(0, 50, 100, 100);
+
+        assertEquals(0.4, histogram.quantile(0.10), 1e-9);
+        assertEquals(1.0, histogram.quantile(0.25), 1e-9);
+        assertEquals(51.0, histogram.quantile(0.50), 1e-9);
+        // The perfect-score bucket has no width: its quantiles are exactly 100
+        assertEquals(100.0, histogram.quantile(0.75), 1e-9);
+        assertEquals(100.0, histogram.quantile(0.90), 1e-9);
+    }
+
+    @Test
+    void perfectScoresOnlyStayAtOneHundred() {
+        ScoreDistributionService.Histogram histogram = histogram(100, 100, 100);
+
+        assertEquals(100.0, histogram.quantile(0), 1e-9);
+        assertEquals(100.0, histogram.quantile(0.5), 1e-9);
+        assertEquals(100.0, histogram.quantile(1), 1e-9);
+        assertEquals(3, histogram.count(100, 101));
+    }
+
+    @Test
+    void scoresAreClampedAndOnlyHeldScoresAreRemoved() {
+        ScoreDistributionService.Histogram histogram = histogram(-5, 49.99, 120);
+
+        assertEquals(1, histogram.count(0, 1));
+        assertEquals(1, histogram.count(49, 50));
+        assertEquals(1, histogram.count(100, 101));
+        assertFalse(histogram.add(new BigDecimal("70"), -1));
+        assertEquals(3, histogram.total());
+        assertTrue(histogram.add(new BigDecimal("49.5"), -1));
+        assertEquals(2, histogram.total());
+
+        ScoreDistributionService.Histogram decoded = ScoreDistributionService.Histogram.decode(histogram.encode());
+        assertEquals(histogram.quantile(0.5), decoded.quantile(0.5), 1e-9);
+        assertEquals(2, decoded.total());
+    }
+
+    @Test
+    void emptyQuizHasNoPercentiles() {
+        Quiz quiz = quiz();
+
+        ScoreDistributionDto distribution = scoreDistributionService.getQuizDistribution(quiz.getId(), professorId, 25);
+
+        assertEquals(0L, distribution.getSubmissions());
+        assertNull(distribution.getMedian());
+        assertNull(distribution.getP90());
+        assertEquals(4, distribution.getHistogram().size());
+        distribution.getHistogram().forEach(bin -> assertEquals(0L, bin.getCount()));
+    }
+
+    @Test
+    void concurrentFirstSubmissionsAreAllCounted() throws Exception {
+        Quiz quiz = quiz();
+
+        int threads = 8;
+        int perThread = 10;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            BigDecimal score = BigDecimal.valueOf(t % 2 == 0 ? 100 : 40);
+            results.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    scoreDistributionService.record(quiz.getId(), List.of(score), List.of());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get();
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        ScoreDistributionDto distribution = scoreDistributionService.getQuizDistribution(quiz.getId(), professorId, 50);
+        assertEquals(80L, distribution.getSubmissions());
+        assertEquals(40L, distribution.getHistogram().get(0).getCount());
+        assertEquals(40L, distribution.getHistogram().get(1).getCount());
+        assertEquals(100.0, distribution.getP90(), 1e-9);
+    }
+
+    private static ScoreDistributionService.Histogram histogram(double... scores) {
+        ScoreDistributionService.Histogram histogram = new ScoreDistributionService.Histogram();
+        for (double score : scores) {
+            histogram.add(BigDecimal.valueOf(score), 1);
+        }
+        return histogram;
+    }
+
+    private Quiz quiz() {
+        Quiz quiz = new Quiz();
+        quiz.setTitle("Distribution quiz");
+        quiz.setStatus(Quiz.Status.ACTIVE);
+        return quizService.createQuiz(quiz, professorId);
+    }
+}